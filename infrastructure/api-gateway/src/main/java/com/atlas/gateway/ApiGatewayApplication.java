@@ -10,7 +10,7 @@ import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
  * Provides a single entry point for all client requests,
  * handling routing, load balancing, authentication, and rate limiting.
  */
-@SpringBootApplication
+@SpringBootApplication(scanBasePackages = {"com.atlas.gateway", "com.atlas.common.loadbalancer"})
 @EnableDiscoveryClient
 public class ApiGatewayApplication {
 
@@ -0,0 +1,43 @@
+package com.atlas.gateway.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+
+/**
+ * Immutable snapshot of a downstream response held by the gateway response cache.
+ */
+public record CachedResponse(
+        HttpStatusCode status,
+        HttpHeaders headers,
+        byte[] body,
+        String etag,
+        long expiresAtNanos
+) {
+
+    public boolean isFresh(long nowNanos) {
+        return nowNanos - expiresAtNanos < 0;
+    }
+
+    /**
+     * Whether an {@code If-None-Match} request header value matches this response's ETag.
+     */
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        if ("*".equals(ifNoneMatch.trim())) {
+            return true;
+        }
+        String strongEtag = stripWeakPrefix(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            if (stripWeakPrefix(candidate.trim()).equals(strongEtag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeakPrefix(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
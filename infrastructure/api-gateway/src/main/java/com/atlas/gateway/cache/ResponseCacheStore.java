@@ -0,0 +1,62 @@
+package com.atlas.gateway.cache;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded in-memory store for cached responses.
+ *
+ * Reads are a single {@link ConcurrentHashMap} lookup. When the store is full the
+ * oldest inserted key is evicted, which is close enough to LRU for catalog traffic
+ * where entries expire on their own within minutes.
+ */
+public class ResponseCacheStore {
+
+    private final int maxEntries;
+    private final ConcurrentHashMap<String, CachedResponse> entries = new ConcurrentHashMap<>();
+    private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    public ResponseCacheStore(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Get an entry if it is still fresh. Expired entries stay in place until they are
+     * replaced by the next load or evicted, so every stored key is queued exactly once.
+     */
+    public CachedResponse get(String key) {
+        CachedResponse cached = entries.get(key);
+        if (cached == null || !cached.isFresh(System.nanoTime())) {
+            return null;
+        }
+        return cached;
+    }
+
+    public void put(String key, CachedResponse response) {
+        if (entries.put(key, response) == null) {
+            insertionOrder.add(key);
+            if (size.incrementAndGet() > maxEntries) {
+                evictOldest();
+            }
+        }
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    private void evictOldest() {
+        while (size.get() > maxEntries) {
+            String oldest = insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            if (entries.remove(oldest) != null) {
+                size.decrementAndGet();
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.atlas.gateway.config;
 
+import com.atlas.gateway.security.GatewayPrincipal;
 import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -13,15 +14,15 @@ import reactor.core.publisher.Mono;
 public class RateLimiterConfig {
 
     /**
-     * Rate limit by user ID from JWT, falling back to IP address.
+     * Rate limit by the verified user ID, falling back to IP address for anonymous requests.
      */
     @Bean
     @Primary
     public KeyResolver userKeyResolver() {
         return exchange -> {
-            String userId = exchange.getRequest().getHeaders().getFirst("X-User-Id");
-            if (userId != null) {
-                return Mono.just(userId);
+            GatewayPrincipal principal = GatewayPrincipal.from(exchange);
+            if (principal != null) {
+                return Mono.just("user:" + principal.userId());
             }
             // Fallback to IP address
             String ip = exchange.getRequest().getRemoteAddress() != null
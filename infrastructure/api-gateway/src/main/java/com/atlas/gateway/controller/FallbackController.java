@@ -1,52 +1,37 @@
 package com.atlas.gateway.controller;
 
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.GetMapping;
+import com.atlas.gateway.error.GatewayError;
+import com.atlas.gateway.error.GatewayErrorResponses;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
-
-import java.time.LocalDateTime;
-import java.util.Map;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
 
 /**
  * Fallback controller for circuit breaker responses.
+ * Mapped for every method, since the circuit breaker forwards the original request.
  */
 @RestController
 @RequestMapping("/fallback")
 public class FallbackController {
 
-    @GetMapping("/user")
-    public ResponseEntity<Map<String, Object>> userServiceFallback() {
-        return fallbackResponse("User service is temporarily unavailable");
-    }
-
-    @GetMapping("/product")
-    public ResponseEntity<Map<String, Object>> productServiceFallback() {
-        return fallbackResponse("Product service is temporarily unavailable");
+    @RequestMapping("/user")
+    public Mono<Void> userServiceFallback(ServerWebExchange exchange) {
+        return GatewayErrorResponses.write(exchange, GatewayError.USER_SERVICE_UNAVAILABLE);
     }
 
-    @GetMapping("/order")
-    public ResponseEntity<Map<String, Object>> orderServiceFallback() {
-        return fallbackResponse("Order service is temporarily unavailable");
+    @RequestMapping("/product")
+    public Mono<Void> productServiceFallback(ServerWebExchange exchange) {
+        return GatewayErrorResponses.write(exchange, GatewayError.PRODUCT_SERVICE_UNAVAILABLE);
     }
 
-    @GetMapping("/payment")
-    public ResponseEntity<Map<String, Object>> paymentServiceFallback() {
-        return fallbackResponse("Payment service is temporarily unavailable");
+    @RequestMapping("/order")
+    public Mono<Void> orderServiceFallback(ServerWebExchange exchange) {
+        return GatewayErrorResponses.write(exchange, GatewayError.ORDER_SERVICE_UNAVAILABLE);
     }
 
-    private ResponseEntity<Map<String, Object>> fallbackResponse(String message) {
-        return ResponseEntity
-                .status(HttpStatus.SERVICE_UNAVAILABLE)
-                .body(Map.of(
-                        "success", false,
-                        "message", message,
-                        "error", Map.of(
-                                "code", "SERVICE_UNAVAILABLE",
-                                "message", message
-                        ),
-                        "timestamp", LocalDateTime.now().toString()
-                ));
+    @RequestMapping("/payment")
+    public Mono<Void> paymentServiceFallback(ServerWebExchange exchange) {
+        return GatewayErrorResponses.write(exchange, GatewayError.PAYMENT_SERVICE_UNAVAILABLE);
     }
 }
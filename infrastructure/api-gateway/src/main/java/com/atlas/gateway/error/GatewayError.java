@@ -0,0 +1,48 @@
+package com.atlas.gateway.error;
+
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Error responses produced by the gateway itself, with their JSON bodies encoded once.
+ *
+ * Bodies follow the services' {@code ApiResponse} error shape. Everything except the
+ * timestamp is constant, so each error keeps the bytes before and after the timestamp value.
+ */
+public enum GatewayError {
+
+    MISSING_TOKEN(HttpStatus.UNAUTHORIZED, "UNAUTHORIZED", "Missing authorization header"),
+    INVALID_AUTHORIZATION_FORMAT(HttpStatus.UNAUTHORIZED, "UNAUTHORIZED", "Invalid authorization header format"),
+    INVALID_TOKEN(HttpStatus.UNAUTHORIZED, "UNAUTHORIZED", "Invalid or expired token"),
+    USER_SERVICE_UNAVAILABLE(HttpStatus.SERVICE_UNAVAILABLE, "SERVICE_UNAVAILABLE", "User service is temporarily unavailable"),
+    PRODUCT_SERVICE_UNAVAILABLE(HttpStatus.SERVICE_UNAVAILABLE, "SERVICE_UNAVAILABLE", "Product service is temporarily unavailable"),
+    ORDER_SERVICE_UNAVAILABLE(HttpStatus.SERVICE_UNAVAILABLE, "SERVICE_UNAVAILABLE", "Order service is temporarily unavailable"),
+    PAYMENT_SERVICE_UNAVAILABLE(HttpStatus.SERVICE_UNAVAILABLE, "SERVICE_UNAVAILABLE", "Payment service is temporarily unavailable"),
+    SERVICE_OVERLOADED(HttpStatus.SERVICE_UNAVAILABLE, "SERVICE_OVERLOADED", "Service is overloaded, please retry shortly");
+
+    private final HttpStatus status;
+    private final byte[] bodyPrefix;
+    private final byte[] bodySuffix;
+
+    GatewayError(HttpStatus status, String code, String message) {
+        this.status = status;
+        // Messages are constants without characters that need JSON escaping
+        this.bodyPrefix = ("{\"success\":false,\"message\":\"" + message
+                + "\",\"error\":{\"code\":\"" + code + "\",\"message\":\"" + message
+                + "\"},\"timestamp\":\"").getBytes(StandardCharsets.UTF_8);
+        this.bodySuffix = "\"}".getBytes(StandardCharsets.UTF_8);
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    byte[] getBodyPrefix() {
+        return bodyPrefix;
+    }
+
+    byte[] getBodySuffix() {
+        return bodySuffix;
+    }
+}
@@ -0,0 +1,70 @@
+package com.atlas.gateway.error;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes {@link GatewayError} responses without per-request formatting or serialization.
+ *
+ * The body is copied from the pre-encoded error into a buffer from the response's
+ * buffer factory (pooled under Netty) with the current timestamp spliced in. The
+ * timestamp is encoded at most once per second and shared by all error responses.
+ */
+public final class GatewayErrorResponses {
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private static volatile EncodedTimestamp timestamp = EncodedTimestamp.at(System.currentTimeMillis() / 1000);
+
+    private GatewayErrorResponses() {
+    }
+
+    /**
+     * Write an error as the exchange's response.
+     */
+    public static Mono<Void> write(ServerWebExchange exchange, GatewayError error) {
+        ServerHttpResponse response = exchange.getResponse();
+        byte[] prefix = error.getBodyPrefix();
+        byte[] time = currentTimestamp();
+        byte[] suffix = error.getBodySuffix();
+        int length = prefix.length + time.length + suffix.length;
+
+        response.setStatusCode(error.getStatus());
+        HttpHeaders headers = response.getHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setContentLength(length);
+
+        DataBuffer buffer = response.bufferFactory().allocateBuffer(length);
+        buffer.write(prefix).write(time).write(suffix);
+        return response.writeWith(Mono.just(buffer));
+    }
+
+    private static byte[] currentTimestamp() {
+        long second = System.currentTimeMillis() / 1000;
+        EncodedTimestamp current = timestamp;
+        if (current.second != second) {
+            // Racing threads may each encode the new second; any of the results is correct
+            current = EncodedTimestamp.at(second);
+            timestamp = current;
+        }
+        return current.bytes;
+    }
+
+    private record EncodedTimestamp(long second, byte[] bytes) {
+
+        static EncodedTimestamp at(long second) {
+            LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochSecond(second), ZoneId.systemDefault());
+            return new EncodedTimestamp(second, TIMESTAMP_FORMAT.format(time).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.atlas.gateway.filter;
+
+import com.atlas.gateway.concurrency.AdaptiveConcurrencyLimiter;
+import com.atlas.gateway.error.GatewayError;
+import com.atlas.gateway.error.GatewayErrorResponses;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gateway filter that caps in-flight requests to a route's downstream with an
+ * {@link AdaptiveConcurrencyLimiter}.
+ *
+ * Requests over the limit are rejected immediately with a 503 instead of queueing
+ * behind a slow service. Place it last in the route's filter list so the latency it
+ * measures is the downstream's. Limiters live as long as the gateway, so a route
+ * refresh keeps what was learned, and their limit and in-flight count are exported
+ * as {@code gateway.concurrency.limit} and {@code gateway.concurrency.inflight}.
+ */
+@Component
+public class AdaptiveConcurrencyFilter extends AbstractGatewayFilterFactory<AdaptiveConcurrencyFilter.Config> {
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    public AdaptiveConcurrencyFilter(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String routeId = config.getRouteId() != null ? config.getRouteId() : "unknown";
+        AdaptiveConcurrencyLimiter limiter = limiters.computeIfAbsent(routeId, id -> register(id, config));
+
+        return (exchange, chain) -> {
+            if (!limiter.tryAcquire()) {
+                return GatewayErrorResponses.write(exchange, GatewayError.SERVICE_OVERLOADED);
+            }
+
+            long start = System.nanoTime();
+            return chain.filter(exchange).doFinally(signal -> {
+                if (signal == SignalType.CANCEL) {
+                    limiter.onIgnore();
+                    return;
+                }
+                HttpStatusCode status = exchange.getResponse().getStatusCode();
+                boolean dropped = signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError());
+                limiter.onComplete(System.nanoTime() - start, dropped);
+            });
+        };
+    }
+
+    private AdaptiveConcurrencyLimiter register(String routeId, Config config) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                config.getInitialLimit(), config.getMinLimit(), config.getMaxLimit(),
+                config.getRttTolerance(), config.getSmoothing(), config.getBackoffRatio());
+        Gauge.builder("gateway.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Adaptive concurrency limit for the route's downstream")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Requests in flight to the route's downstream")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        return limiter;
+    }
+
+    @Data
+    public static class Config implements HasRouteId {
+        private String routeId;
+        private int initialLimit = 20;
+        private int minLimit = 5;
+        private int maxLimit = 500;
+        /** How far short-term latency may exceed the long-term average before the limit shrinks. */
+        private double rttTolerance = 1.5;
+        /** Weight of each update when moving the limit towards its new target. */
+        private double smoothing = 0.2;
+        /** Factor applied to the limit when a request fails. */
+        private double backoffRatio = 0.9;
+    }
+}
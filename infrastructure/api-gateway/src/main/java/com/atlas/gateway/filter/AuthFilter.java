@@ -1,118 +1,65 @@
 package com.atlas.gateway.filter;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import com.atlas.gateway.error.GatewayError;
+import com.atlas.gateway.error.GatewayErrorResponses;
+import com.atlas.gateway.security.GatewayPrincipal;
+import com.atlas.gateway.security.OpenEndpointMatcher;
+import lombok.Data;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
-import org.springframework.web.server.ServerWebExchange;
-import reactor.core.publisher.Mono;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Gateway filter for JWT authentication.
- * Validates tokens and adds user information to headers for downstream services.
+ * Rejects requests to protected endpoints that carry no valid token; the token itself
+ * is verified once per request by {@link PrincipalResolutionFilter}.
  */
-@Slf4j
 @Component
 public class AuthFilter extends AbstractGatewayFilterFactory<AuthFilter.Config> {
 
-    @Value("${atlas.jwt.secret}")
-    private String jwtSecret;
-
-    private static final List<String> OPEN_ENDPOINTS = List.of(
-            "/api/auth/login",
-            "/api/auth/register",
-            "/api/auth/refresh",
-            "/api/users/register",
-            "/api/products",
-            "/api/categories",
-            "/actuator"
-    );
-
     public AuthFilter() {
         super(Config.class);
     }
 
     @Override
     public GatewayFilter apply(Config config) {
+        OpenEndpointMatcher openEndpoints = OpenEndpointMatcher.compile(config.getOpenPaths());
+
         return (exchange, chain) -> {
             ServerHttpRequest request = exchange.getRequest();
-            String path = request.getURI().getPath();
 
-            // Skip authentication for open endpoints
-            if (isOpenEndpoint(path)) {
+            // Skip authentication for the route's public endpoints
+            if (openEndpoints.matches(request.getMethod(), request.getURI().getRawPath())) {
                 return chain.filter(exchange);
             }
 
-            // Check for Authorization header
-            if (!request.getHeaders().containsKey(HttpHeaders.AUTHORIZATION)) {
-                return onError(exchange, "Missing authorization header", HttpStatus.UNAUTHORIZED);
+            // Token was already verified by PrincipalResolutionFilter
+            if (GatewayPrincipal.from(exchange) != null) {
+                return chain.filter(exchange);
             }
 
             String authHeader = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                return onError(exchange, "Invalid authorization header format", HttpStatus.UNAUTHORIZED);
+            if (authHeader == null) {
+                return GatewayErrorResponses.write(exchange, GatewayError.MISSING_TOKEN);
             }
-
-            String token = authHeader.substring(7);
-
-            try {
-                Claims claims = validateToken(token);
-                
-                // Add user info to headers for downstream services
-                ServerHttpRequest modifiedRequest = request.mutate()
-                        .header("X-User-Id", claims.getSubject())
-                        .header("X-User-Email", claims.get("email", String.class))
-                        .header("X-User-Role", claims.get("role", String.class))
-                        .build();
-
-                return chain.filter(exchange.mutate().request(modifiedRequest).build());
-                
-            } catch (Exception e) {
-                log.error("Token validation failed: {}", e.getMessage());
-                return onError(exchange, "Invalid or expired token", HttpStatus.UNAUTHORIZED);
+            if (!authHeader.startsWith("Bearer ")) {
+                return GatewayErrorResponses.write(exchange, GatewayError.INVALID_AUTHORIZATION_FORMAT);
             }
+            return GatewayErrorResponses.write(exchange, GatewayError.INVALID_TOKEN);
         };
     }
 
-    private boolean isOpenEndpoint(String path) {
-        return OPEN_ENDPOINTS.stream().anyMatch(path::startsWith);
-    }
-
-    private Claims validateToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
-    private Mono<Void> onError(ServerWebExchange exchange, String message, HttpStatus status) {
-        exchange.getResponse().setStatusCode(status);
-        exchange.getResponse().getHeaders().add("Content-Type", "application/json");
-        
-        String body = String.format(
-                "{\"success\":false,\"message\":\"%s\",\"error\":{\"code\":\"UNAUTHORIZED\"}}",
-                message
-        );
-        
-        return exchange.getResponse().writeWith(
-                Mono.just(exchange.getResponse().bufferFactory().wrap(body.getBytes()))
-        );
-    }
-
+    @Data
     public static class Config {
-        // Configuration properties if needed
+        /**
+         * Public endpoints of the route, e.g. {@code GET /api/products/**}.
+         * See {@link OpenEndpointMatcher} for the rule syntax.
+         */
+        private List<String> openPaths = new ArrayList<>();
     }
 }
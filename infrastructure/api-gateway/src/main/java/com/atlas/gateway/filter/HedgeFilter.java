@@ -0,0 +1,53 @@
+package com.atlas.gateway.filter;
+
+import com.atlas.gateway.hedge.HedgePolicy;
+import lombok.Data;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Gateway filter that enables hedged requests for a route's idempotent GETs.
+ *
+ * It only marks eligible requests with the route's {@link HedgePolicy};
+ * {@link HedgedRoutingFilter} performs the actual routing once the load balancer
+ * has picked the primary instance.
+ */
+@Component
+public class HedgeFilter extends AbstractGatewayFilterFactory<HedgeFilter.Config> {
+
+    public static final String HEDGE_POLICY_ATTR = HedgeFilter.class.getName() + ".policy";
+
+    public HedgeFilter() {
+        super(Config.class);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        HedgePolicy policy = new HedgePolicy(
+                config.getPercentile(), config.getMinDelay(), config.getMaxDelay(), config.getBudgetRatio());
+
+        return (exchange, chain) -> {
+            HttpMethod method = exchange.getRequest().getMethod();
+            if (HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method)) {
+                policy.onRequest();
+                exchange.getAttributes().put(HEDGE_POLICY_ATTR, policy);
+            }
+            return chain.filter(exchange);
+        };
+    }
+
+    @Data
+    public static class Config {
+        /** Latency percentile of primary requests after which a hedge is sent. */
+        private double percentile = 0.95;
+        private Duration minDelay = Duration.ofMillis(10);
+        /** Hedge delay used until enough latency samples exist, and its upper bound. */
+        private Duration maxDelay = Duration.ofSeconds(1);
+        /** Maximum share of requests that may be hedged. */
+        private double budgetRatio = 0.05;
+    }
+}
@@ -0,0 +1,320 @@
+package com.atlas.gateway.filter;
+
+import com.atlas.gateway.hedge.HedgePolicy;
+import io.netty.channel.ChannelOption;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycleValidator;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerProperties;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.TimeoutException;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.netty.Connection;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.HttpClientResponse;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.CONNECT_TIMEOUT_ATTR;
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_HEADER_NAMES;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.ORIGINAL_RESPONSE_CONTENT_TYPE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.isAlreadyRouted;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.setAlreadyRouted;
+
+/**
+ * Routes requests marked by {@link HedgeFilter} with a hedge.
+ *
+ * The primary request goes to the instance the load balancer already chose. If it
+ * has not answered after the policy's hedge delay and the budget allows it, a second
+ * request goes to a different instance of the same service, chosen and reported
+ * through the load balancer lifecycle like any other call. The first response to
+ * arrive wins and the other request is cancelled; only the winner's status and
+ * headers are copied, and its body is streamed by {@link NettyWriteResponseFilter}.
+ * Both requests use the gateway's HTTP client with the route's connect and response
+ * timeouts. Unmarked requests fall through to {@link NettyRoutingFilter}.
+ */
+@Slf4j
+@Component
+public class HedgedRoutingFilter implements GlobalFilter, Ordered {
+
+    private static final int CHOOSE_ATTEMPTS = 3;
+
+    private final HttpClient httpClient;
+    private final HttpClientProperties properties;
+    private final LoadBalancerClientFactory clientFactory;
+    private final ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider;
+    private volatile List<HttpHeadersFilter> headersFilters;
+
+    public HedgedRoutingFilter(HttpClient httpClient,
+                               HttpClientProperties properties,
+                               LoadBalancerClientFactory clientFactory,
+                               ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider) {
+        this.httpClient = httpClient;
+        this.properties = properties;
+        this.clientFactory = clientFactory;
+        this.headersFiltersProvider = headersFiltersProvider;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        HedgePolicy policy = exchange.getAttribute(HedgeFilter.HEDGE_POLICY_ATTR);
+        URI requestUrl = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (policy == null || requestUrl == null || route == null || isAlreadyRouted(exchange)
+                || !"lb".equals(route.getUri().getScheme())
+                || !("http".equals(requestUrl.getScheme()) || "https".equals(requestUrl.getScheme()))) {
+            return chain.filter(exchange);
+        }
+        setAlreadyRouted(exchange);
+
+        HttpMethod method = exchange.getRequest().getMethod();
+        HttpHeaders headers = HttpHeadersFilter.filterRequest(getHeadersFilters(), exchange);
+        HttpClient client = httpClient(route, headers);
+        Duration responseTimeout = responseTimeout(route);
+        // Only one upstream may take over the exchange; the other's response is dropped
+        AtomicBoolean decided = new AtomicBoolean();
+        String serviceId = route.getUri().getHost();
+
+        long start = System.nanoTime();
+        Mono<Upstream> primary = send(client, method, requestUrl, responseTimeout, decided)
+                .doFinally(signal -> {
+                    if (signal != SignalType.CANCEL) {
+                        policy.recordLatency(System.nanoTime() - start);
+                    }
+                });
+        Mono<Upstream> hedge = Mono.delay(policy.hedgeDelay())
+                .flatMap(tick -> hedge(exchange, serviceId, client, method, requestUrl, responseTimeout, decided,
+                        policy));
+
+        return Mono.firstWithValue(primary, hedge)
+                .onErrorMap(NoSuchElementException.class, HedgedRoutingFilter::primaryCause)
+                .onErrorMap(TimeoutException.class,
+                        e -> new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, e.getMessage(), e))
+                .flatMap(upstream -> {
+                    copyResponse(exchange, upstream);
+                    return chain.filter(exchange);
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return NettyRoutingFilter.ORDER - 1;
+    }
+
+    /**
+     * Send the hedge to another instance, reporting it to the load balancer lifecycle
+     * processors so its latency and outcome count towards that instance's stats.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private Mono<Upstream> hedge(ServerWebExchange exchange, String serviceId, HttpClient client, HttpMethod method,
+                                 URI primaryUrl, Duration responseTimeout, AtomicBoolean decided, HedgePolicy policy) {
+        ReactorServiceInstanceLoadBalancer loadBalancer =
+                clientFactory.getInstance(serviceId, ReactorServiceInstanceLoadBalancer.class);
+        if (loadBalancer == null) {
+            return Mono.empty();
+        }
+        Set<LoadBalancerLifecycle> lifecycles = LoadBalancerLifecycleValidator.getSupportedLifecycleProcessors(
+                clientFactory.getInstances(serviceId, LoadBalancerLifecycle.class),
+                RequestDataContext.class, ResponseData.class, ServiceInstance.class);
+        RequestData requestData = new RequestData(exchange.getRequest(), exchange.getAttributes());
+        DefaultRequest<RequestDataContext> lbRequest =
+                new DefaultRequest<>(new RequestDataContext(requestData, hint(serviceId)));
+        lifecycles.forEach(lifecycle -> lifecycle.onStart(lbRequest));
+
+        return Flux.range(0, CHOOSE_ATTEMPTS)
+                .concatMap(attempt -> loadBalancer.choose(lbRequest))
+                .filter(Response::hasServer)
+                .filter(lbResponse -> !isSameInstance(lbResponse.getServer(), primaryUrl))
+                .next()
+                .filter(lbResponse -> policy.tryAcquireHedge())
+                .flatMap(lbResponse -> {
+                    URI uri = reconstruct(primaryUrl, lbResponse.getServer());
+                    log.debug("Hedging {} {} to {}", method, primaryUrl.getRawPath(), uri.getAuthority());
+                    lifecycles.forEach(lifecycle -> lifecycle.onStartRequest(lbRequest, lbResponse));
+                    return send(client, method, uri, responseTimeout, decided)
+                            .doOnSuccess(upstream -> complete(lifecycles, upstream == null
+                                    ? new CompletionContext<>(CompletionContext.Status.DISCARD, lbRequest, lbResponse)
+                                    : new CompletionContext<>(CompletionContext.Status.SUCCESS, lbRequest, lbResponse,
+                                    responseData(upstream.response(), requestData))))
+                            .doOnError(e -> complete(lifecycles,
+                                    new CompletionContext<>(CompletionContext.Status.FAILED, e, lbRequest, lbResponse)))
+                            .doOnCancel(() -> complete(lifecycles,
+                                    new CompletionContext<>(CompletionContext.Status.DISCARD, lbRequest, lbResponse)));
+                });
+    }
+
+    private Mono<Upstream> send(HttpClient client, HttpMethod method, URI uri, Duration responseTimeout,
+                                AtomicBoolean decided) {
+        Mono<Upstream> response = client
+                .request(io.netty.handler.codec.http.HttpMethod.valueOf(method.name()))
+                .uri(uri)
+                .responseConnection((res, connection) -> Mono.just(new Upstream(res, connection)))
+                .singleOrEmpty();
+        if (responseTimeout != null) {
+            response = response.timeout(responseTimeout,
+                    Mono.error(() -> new TimeoutException("Response took longer than timeout: " + responseTimeout)));
+        }
+        return response.filter(upstream -> {
+            if (decided.compareAndSet(false, true)) {
+                return true;
+            }
+            // Both answered at once; release the loser's connection without reading it
+            upstream.connection().dispose();
+            return false;
+        });
+    }
+
+    /**
+     * Hand the winning response to the exchange the way {@link NettyRoutingFilter} does,
+     * so {@link NettyWriteResponseFilter} streams its body.
+     */
+    private void copyResponse(ServerWebExchange exchange, Upstream upstream) {
+        HttpClientResponse res = upstream.response();
+        exchange.getAttributes().put(CLIENT_RESPONSE_ATTR, res);
+        exchange.getAttributes().put(CLIENT_RESPONSE_CONN_ATTR, upstream.connection());
+
+        HttpHeaders headers = new HttpHeaders();
+        res.responseHeaders().forEach(entry -> headers.add(entry.getKey(), entry.getValue()));
+        String contentType = headers.getFirst(HttpHeaders.CONTENT_TYPE);
+        if (StringUtils.hasLength(contentType)) {
+            exchange.getAttributes().put(ORIGINAL_RESPONSE_CONTENT_TYPE_ATTR, contentType);
+        }
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatusCode.valueOf(res.status().code()));
+        HttpHeaders filtered = HttpHeadersFilter.filter(
+                getHeadersFilters(), headers, exchange, HttpHeadersFilter.Type.RESPONSE);
+        if (!filtered.containsKey(HttpHeaders.TRANSFER_ENCODING) && filtered.containsKey(HttpHeaders.CONTENT_LENGTH)) {
+            response.getHeaders().remove(HttpHeaders.TRANSFER_ENCODING);
+        }
+        exchange.getAttributes().put(CLIENT_RESPONSE_HEADER_NAMES, filtered.keySet());
+        response.getHeaders().addAll(filtered);
+    }
+
+    private HttpClient httpClient(Route route, HttpHeaders headers) {
+        HttpClient client = httpClient.headers(nettyHeaders -> {
+            headers.forEach(nettyHeaders::set);
+            nettyHeaders.remove(HttpHeaders.HOST);
+        });
+        Object connectTimeout = route.getMetadata().get(CONNECT_TIMEOUT_ATTR);
+        if (connectTimeout != null) {
+            client = client.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) toLong(connectTimeout));
+        }
+        return client;
+    }
+
+    /**
+     * The route's response timeout, or the gateway-wide one; a negative route value disables it.
+     */
+    private Duration responseTimeout(Route route) {
+        Object responseTimeout = route.getMetadata().get(RESPONSE_TIMEOUT_ATTR);
+        if (responseTimeout == null) {
+            return properties.getResponseTimeout();
+        }
+        long millis = toLong(responseTimeout);
+        return millis < 0 ? null : Duration.ofMillis(millis);
+    }
+
+    private String hint(String serviceId) {
+        LoadBalancerProperties loadBalancerProperties = clientFactory.getProperties(serviceId);
+        Map<String, String> hints = loadBalancerProperties != null ? loadBalancerProperties.getHint() : Map.of();
+        return hints.getOrDefault(serviceId, hints.getOrDefault("default", "default"));
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : Long.parseLong(value.toString());
+    }
+
+    private static boolean isSameInstance(ServiceInstance instance, URI url) {
+        return instance.getHost().equals(url.getHost()) && instance.getPort() == url.getPort();
+    }
+
+    private static URI reconstruct(URI original, ServiceInstance instance) {
+        return UriComponentsBuilder.fromUri(original)
+                .scheme(instance.isSecure() ? "https" : "http")
+                .host(instance.getHost())
+                .port(instance.getPort())
+                .build(true)
+                .toUri();
+    }
+
+    private static ResponseData responseData(HttpClientResponse res, RequestData requestData) {
+        HttpHeaders headers = new HttpHeaders();
+        res.responseHeaders().forEach(entry -> headers.add(entry.getKey(), entry.getValue()));
+        return new ResponseData(HttpStatusCode.valueOf(res.status().code()), headers, new LinkedMultiValueMap<>(),
+                requestData);
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static void complete(Set<LoadBalancerLifecycle> lifecycles, CompletionContext completionContext) {
+        lifecycles.forEach(lifecycle -> lifecycle.onComplete(completionContext));
+    }
+
+    private List<HttpHeadersFilter> getHeadersFilters() {
+        if (headersFilters == null) {
+            headersFilters = headersFiltersProvider.getIfAvailable(List::of);
+        }
+        return headersFilters;
+    }
+
+    /**
+     * {@link Mono#firstWithValue} reports "no value" when every source failed or the hedge
+     * was never sent, with the sources' own signals, primary first, as its cause; surface
+     * the primary's error so retries and circuit breakers see it.
+     */
+    private static Throwable primaryCause(NoSuchElementException e) {
+        if (e.getCause() != null) {
+            for (Throwable cause : Exceptions.unwrapMultiple(e.getCause())) {
+                if (!(cause instanceof NoSuchElementException)) {
+                    return cause;
+                }
+            }
+        }
+        return e;
+    }
+
+    private record Upstream(HttpClientResponse response, Connection connection) {
+    }
+}
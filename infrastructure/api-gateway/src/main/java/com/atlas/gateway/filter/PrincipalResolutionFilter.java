@@ -0,0 +1,114 @@
+package com.atlas.gateway.filter;
+
+import com.atlas.gateway.metrics.RequestTimings;
+import com.atlas.gateway.security.GatewayPrincipal;
+import com.atlas.gateway.security.JwtVerifier;
+import com.atlas.gateway.security.TokenRevocations;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Global filter that resolves the caller from the bearer token once per request.
+ *
+ * Runs ahead of every route filter and stores the verified {@link GatewayPrincipal}
+ * as an exchange attribute, so rate limiting, authorization and logging share one
+ * decoded token. Tokens of a revoked family are treated as anonymous; the check is
+ * in memory unless {@link TokenRevocations} reports a possible hit. Client-supplied
+ * identity headers are always stripped, and the verified ones are forwarded to
+ * downstream services.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PrincipalResolutionFilter implements GlobalFilter, Ordered {
+
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String USER_EMAIL_HEADER = "X-User-Email";
+    public static final String USER_ROLE_HEADER = "X-User-Role";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtVerifier jwtVerifier;
+    private final TokenRevocations tokenRevocations;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        HttpHeaders headers = request.getHeaders();
+        String authHeader = headers.getFirst(HttpHeaders.AUTHORIZATION);
+        boolean spoofed = headers.containsKey(USER_ID_HEADER)
+                || headers.containsKey(USER_EMAIL_HEADER)
+                || headers.containsKey(USER_ROLE_HEADER);
+
+        GatewayPrincipal principal = null;
+        if (authHeader != null) {
+            long start = System.nanoTime();
+            principal = resolve(authHeader);
+            RequestTimings timings = RequestTimings.from(exchange);
+            if (timings != null) {
+                timings.record(RequestTimings.Phase.AUTH, System.nanoTime() - start);
+            }
+        }
+        if (principal != null && tokenRevocations.mightBeRevoked(principal.familyId())) {
+            GatewayPrincipal candidate = principal;
+            return tokenRevocations.isRevoked(candidate.familyId())
+                    .flatMap(revoked -> {
+                        if (revoked) {
+                            log.debug("Rejecting token of revoked family {}", candidate.familyId());
+                        }
+                        return forward(exchange, chain, revoked ? null : candidate, spoofed);
+                    });
+        }
+        return forward(exchange, chain, principal, spoofed);
+    }
+
+    private Mono<Void> forward(ServerWebExchange exchange, GatewayFilterChain chain,
+                               GatewayPrincipal principal, boolean spoofed) {
+        if (principal == null && !spoofed) {
+            return chain.filter(exchange);
+        }
+
+        ServerHttpRequest.Builder builder = exchange.getRequest().mutate().headers(h -> {
+            h.remove(USER_ID_HEADER);
+            h.remove(USER_EMAIL_HEADER);
+            h.remove(USER_ROLE_HEADER);
+        });
+        if (principal != null) {
+            exchange.getAttributes().put(GatewayPrincipal.ATTRIBUTE, principal);
+            builder.header(USER_ID_HEADER, principal.userId());
+            if (principal.email() != null) {
+                builder.header(USER_EMAIL_HEADER, principal.email());
+            }
+            if (principal.role() != null) {
+                builder.header(USER_ROLE_HEADER, principal.role());
+            }
+        }
+        return chain.filter(exchange.mutate().request(builder.build()).build());
+    }
+
+    private GatewayPrincipal resolve(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
+            return null;
+        }
+        try {
+            return jwtVerifier.verify(authHeader.substring(BEARER_PREFIX.length()));
+        } catch (Exception e) {
+            // Treated as anonymous; routes that require authentication reject it in AuthFilter
+            log.debug("Ignoring invalid bearer token: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 100;
+    }
+}
@@ -0,0 +1,111 @@
+package com.atlas.gateway.filter;
+
+import com.atlas.gateway.metrics.GatewayRequestMetrics;
+import com.atlas.gateway.metrics.RequestTimings;
+import com.atlas.gateway.security.GatewayPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Outermost global filter: times every request and writes the sampled access log.
+ *
+ * It starts the request's {@link RequestTimings}, which later filters fill in per
+ * phase, and on completion records them with {@link GatewayRequestMetrics}. A
+ * {@code sample-rate} share of requests, plus every 5xx, is written as one JSON line
+ * to the {@code gateway.access} logger, which logback hands to an async appender.
+ */
+@Component
+public class RequestTimingFilter implements GlobalFilter, Ordered {
+
+    private static final Logger ACCESS_LOG = LoggerFactory.getLogger("gateway.access");
+    private static final String UNMATCHED_ROUTE = "unmatched";
+
+    private final GatewayRequestMetrics metrics;
+    private final double sampleRate;
+
+    public RequestTimingFilter(GatewayRequestMetrics metrics,
+                               @Value("${atlas.gateway.access-log.sample-rate:0.01}") double sampleRate) {
+        this.metrics = metrics;
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        RequestTimings timings = new RequestTimings(System.nanoTime());
+        exchange.getAttributes().put(RequestTimings.ATTRIBUTE, timings);
+
+        return chain.filter(exchange)
+                .doFinally(signal -> complete(exchange, timings))
+                .contextWrite(context -> context.put(RequestTimings.ATTRIBUTE, timings));
+    }
+
+    private void complete(ServerWebExchange exchange, RequestTimings timings) {
+        timings.record(RequestTimings.Phase.TOTAL, System.nanoTime() - timings.getStartNanos());
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : UNMATCHED_ROUTE;
+        metrics.record(routeId, timings);
+
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        boolean serverError = status != null && status.is5xxServerError();
+        if (ACCESS_LOG.isInfoEnabled()
+                && (serverError || ThreadLocalRandom.current().nextDouble() < sampleRate)) {
+            ACCESS_LOG.info(accessLogLine(exchange, routeId, status, timings));
+        }
+    }
+
+    static String accessLogLine(ServerWebExchange exchange, String routeId, HttpStatusCode status,
+                                RequestTimings timings) {
+        GatewayPrincipal principal = GatewayPrincipal.from(exchange);
+        StringBuilder line = new StringBuilder(256).append('{');
+        appendString(line, "timestamp", Instant.now().toString()).append(',');
+        appendString(line, "method", exchange.getRequest().getMethod().name()).append(',');
+        appendString(line, "path", exchange.getRequest().getPath().value()).append(',');
+        appendString(line, "route", routeId).append(',');
+        line.append("\"status\":").append(status != null ? status.value() : 0);
+        if (principal != null) {
+            appendString(line.append(','), "userId", principal.userId());
+        }
+        for (RequestTimings.Phase phase : RequestTimings.Phase.values()) {
+            if (timings.isRecorded(phase)) {
+                line.append(",\"").append(phase.tag()).append("_ms\":")
+                        .append(TimeUnit.NANOSECONDS.toMicros(timings.get(phase)) / 1000.0);
+            }
+        }
+        return line.append('}').toString();
+    }
+
+    private static StringBuilder appendString(StringBuilder line, String name, String value) {
+        line.append('"').append(name).append("\":\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\').append(c);
+            } else if (c < 0x20) {
+                line.append(String.format("\\u%04x", (int) c));
+            } else {
+                line.append(c);
+            }
+        }
+        return line.append('"');
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
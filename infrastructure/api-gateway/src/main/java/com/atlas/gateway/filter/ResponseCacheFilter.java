@@ -0,0 +1,275 @@
+package com.atlas.gateway.filter;
+
+import com.atlas.gateway.cache.CachedResponse;
+import com.atlas.gateway.cache.ResponseCacheStore;
+import lombok.Data;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gateway filter that caches anonymous GET responses at the edge.
+ *
+ * Responses are cached for as long as the downstream {@code Cache-Control} allows,
+ * keyed by path and query. Cached entries carry an ETag so revalidating clients get a
+ * 304 without a body. Concurrent misses for the same key are coalesced: one request
+ * goes downstream and the others wait for its result. Runs ahead of the route's
+ * rate limiter and circuit breaker, so hits never reach Redis or the service.
+ */
+@Component
+public class ResponseCacheFilter extends AbstractGatewayFilterFactory<ResponseCacheFilter.Config> {
+
+    private static final String CACHE_STATUS_HEADER = "X-Cache";
+    private static final List<String> UNCACHED_HEADERS = List.of(
+            HttpHeaders.SET_COOKIE,
+            HttpHeaders.TRANSFER_ENCODING,
+            HttpHeaders.CONNECTION,
+            HttpHeaders.CONTENT_LENGTH,
+            HttpHeaders.DATE
+    );
+
+    public ResponseCacheFilter() {
+        super(Config.class);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        ResponseCacheStore store = new ResponseCacheStore(config.getMaxEntries());
+        ConcurrentHashMap<String, CompletableFuture<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+
+        // Must run before NettyWriteResponseFilter so the decorated response is the one written to
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (!isCacheableRequest(request)) {
+                return chain.filter(exchange);
+            }
+
+            String key = cacheKey(request);
+            CachedResponse cached = store.get(key);
+            if (cached != null) {
+                return writeCached(exchange, cached, "HIT");
+            }
+
+            CompletableFuture<CachedResponse> pending = new CompletableFuture<>();
+            CompletableFuture<CachedResponse> leader = inFlight.putIfAbsent(key, pending);
+            if (leader != null) {
+                return awaitLeader(exchange, chain, leader, config);
+            }
+
+            // Downstream must send a full body for the cache; client validators are applied here
+            ServerHttpRequest unconditional = request.mutate()
+                    .headers(headers -> {
+                        headers.remove(HttpHeaders.IF_NONE_MATCH);
+                        headers.remove(HttpHeaders.IF_MODIFIED_SINCE);
+                    })
+                    .build();
+            CachingResponse caching = new CachingResponse(exchange, config);
+            return chain.filter(exchange.mutate().request(unconditional).response(caching).build())
+                    .doFinally(signal -> {
+                        CachedResponse loaded = caching.getCaptured();
+                        if (loaded != null) {
+                            store.put(key, loaded);
+                        }
+                        inFlight.remove(key, pending);
+                        pending.complete(loaded);
+                    });
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private Mono<Void> awaitLeader(ServerWebExchange exchange, GatewayFilterChain chain,
+                                   CompletableFuture<CachedResponse> leader, Config config) {
+        return Mono.fromFuture(leader, true)
+                .timeout(config.getCoalesceTimeout())
+                .flatMap(loaded -> writeCached(exchange, loaded, "COALESCED"))
+                // Leader's response was not cacheable, failed, or took too long: go downstream ourselves
+                .switchIfEmpty(Mono.defer(() -> chain.filter(exchange)))
+                .onErrorResume(e -> exchange.getResponse().isCommitted() ? Mono.error(e) : chain.filter(exchange));
+    }
+
+    private boolean isCacheableRequest(ServerHttpRequest request) {
+        return HttpMethod.GET.equals(request.getMethod())
+                && !request.getHeaders().containsKey(HttpHeaders.AUTHORIZATION);
+    }
+
+    private String cacheKey(ServerHttpRequest request) {
+        String query = request.getURI().getRawQuery();
+        String path = request.getURI().getRawPath();
+        return query == null ? path : path + '?' + query;
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached, String cacheStatus) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.addAll(cached.headers());
+        headers.set(CACHE_STATUS_HEADER, cacheStatus);
+
+        if (cached.matches(exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            headers.remove(HttpHeaders.CONTENT_TYPE);
+            return response.setComplete();
+        }
+
+        response.setStatusCode(cached.status());
+        headers.setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    /**
+     * Response decorator that buffers a cacheable downstream body so it can be stored.
+     */
+    private static class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+        private final Config config;
+        private volatile CachedResponse captured;
+
+        CachingResponse(ServerWebExchange exchange, Config config) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+            this.config = config;
+        }
+
+        CachedResponse getCaptured() {
+            return captured;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatusCode status = getStatusCode();
+            Duration ttl = status != null && status.value() == HttpStatus.OK.value()
+                    ? freshnessLifetime(getHeaders(), config.getDefaultTtl())
+                    : Duration.ZERO;
+            if (ttl.isZero() || ttl.isNegative() || exceedsMaxBody(getHeaders())) {
+                getHeaders().set(CACHE_STATUS_HEADER, "BYPASS");
+                return super.writeWith(body);
+            }
+
+            return DataBufferUtils.join(Flux.from(body)).flatMap(joined -> {
+                byte[] bytes = new byte[joined.readableByteCount()];
+                joined.read(bytes);
+                DataBufferUtils.release(joined);
+
+                HttpHeaders headers = getHeaders();
+                String etag = headers.getETag();
+                if (etag == null) {
+                    etag = "\"" + DigestUtils.md5DigestAsHex(bytes) + "\"";
+                    headers.setETag(etag);
+                }
+                headers.set(CACHE_STATUS_HEADER, "MISS");
+
+                if (bytes.length <= config.getMaxBodySize()) {
+                    captured = new CachedResponse(status, cacheableHeaders(headers), bytes, etag,
+                            System.nanoTime() + ttl.toNanos());
+                }
+
+                String ifNoneMatch = exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+                if (captured != null && captured.matches(ifNoneMatch)) {
+                    setStatusCode(HttpStatus.NOT_MODIFIED);
+                    headers.remove(HttpHeaders.CONTENT_TYPE);
+                    headers.remove(HttpHeaders.CONTENT_LENGTH);
+                    return setComplete();
+                }
+                headers.setContentLength(bytes.length);
+                return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+            });
+        }
+
+        private boolean exceedsMaxBody(HttpHeaders headers) {
+            long contentLength = headers.getContentLength();
+            return contentLength > config.getMaxBodySize();
+        }
+
+        private static HttpHeaders cacheableHeaders(HttpHeaders source) {
+            HttpHeaders copy = new HttpHeaders();
+            source.forEach((name, values) -> {
+                if (UNCACHED_HEADERS.stream().noneMatch(name::equalsIgnoreCase)
+                        && !CACHE_STATUS_HEADER.equalsIgnoreCase(name)) {
+                    copy.put(name, List.copyOf(values));
+                }
+            });
+            return HttpHeaders.readOnlyHttpHeaders(copy);
+        }
+    }
+
+    /**
+     * How long a response may be served from the cache, per its Cache-Control and Vary headers.
+     */
+    static Duration freshnessLifetime(HttpHeaders headers, Duration defaultTtl) {
+        if (headers.containsKey(HttpHeaders.SET_COOKIE) || !isCacheableVary(headers.getVary())) {
+            return Duration.ZERO;
+        }
+
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl == null) {
+            return defaultTtl;
+        }
+
+        long maxAge = -1;
+        long sharedMaxAge = -1;
+        for (String directive : cacheControl.toLowerCase(Locale.ROOT).split(",")) {
+            String value = directive.trim();
+            if (value.equals("no-store") || value.equals("no-cache") || value.equals("private")) {
+                return Duration.ZERO;
+            }
+            if (value.startsWith("s-maxage=")) {
+                sharedMaxAge = parseSeconds(value.substring("s-maxage=".length()));
+            } else if (value.startsWith("max-age=")) {
+                maxAge = parseSeconds(value.substring("max-age=".length()));
+            }
+        }
+
+        if (sharedMaxAge >= 0) {
+            return Duration.ofSeconds(sharedMaxAge);
+        }
+        return maxAge >= 0 ? Duration.ofSeconds(maxAge) : defaultTtl;
+    }
+
+    private static boolean isCacheableVary(List<String> vary) {
+        // CORS is handled by the gateway itself, so CORS-related Vary values don't split the cache
+        return vary.stream().allMatch(name -> name.equalsIgnoreCase(HttpHeaders.ORIGIN)
+                || name.toLowerCase(Locale.ROOT).startsWith("access-control-request-"));
+    }
+
+    private static long parseSeconds(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    @Data
+    public static class Config {
+        /** Maximum number of cached responses for the route. */
+        private int maxEntries = 1000;
+        /** TTL for responses without Cache-Control; zero means only cache what downstream marks cacheable. */
+        private Duration defaultTtl = Duration.ZERO;
+        /** Largest body kept in the cache, in bytes. */
+        private long maxBodySize = 256 * 1024;
+        /** How long coalesced requests wait for the in-flight request before going downstream. */
+        private Duration coalesceTimeout = Duration.ofSeconds(5);
+    }
+}
@@ -0,0 +1,36 @@
+package com.atlas.gateway.filter;
+
+import com.atlas.gateway.metrics.RequestTimings;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Records the upstream phase of {@link RequestTimings}: from handing the request to
+ * the routing filters until the downstream's response headers arrive (or, for
+ * hedged requests, its buffered response).
+ */
+@Component
+public class UpstreamTimingFilter implements GlobalFilter, Ordered {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        RequestTimings timings = RequestTimings.from(exchange);
+        if (timings == null) {
+            return chain.filter(exchange);
+        }
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> timings.record(RequestTimings.Phase.UPSTREAM, System.nanoTime() - start));
+    }
+
+    @Override
+    public int getOrder() {
+        // Ahead of HedgedRoutingFilter and NettyRoutingFilter
+        return NettyRoutingFilter.ORDER - 2;
+    }
+}
@@ -0,0 +1,106 @@
+package com.atlas.gateway.hedge;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-route hedging state: when to send a hedge, and whether the budget allows one.
+ *
+ * The hedge delay is the configured percentile of recent primary request latency,
+ * recomputed from an HdrHistogram interval once per refresh period and clamped to
+ * {@code [minDelay, maxDelay]}. The budget is a credit counter: every request earns
+ * {@code budgetRatio} of a hedge and every hedge spends one, so hedges stay below
+ * that share of traffic even when a whole downstream slows down.
+ */
+public class HedgePolicy {
+
+    private static final long CREDIT_UNIT = 1_000_000L;
+    private static final long MAX_BANKED_HEDGES = 10;
+    private static final long MIN_SAMPLES = 20;
+    private static final long REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final double percentile;
+    private final long minDelayNanos;
+    private final long maxDelayNanos;
+    private final long creditPerRequest;
+
+    private final Recorder recorder = new Recorder(TimeUnit.MINUTES.toNanos(1), 2);
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final AtomicLong credits = new AtomicLong();
+    private Histogram recycled;
+    private volatile long hedgeDelayNanos;
+    private volatile long nextRefreshNanos;
+
+    public HedgePolicy(double percentile, Duration minDelay, Duration maxDelay, double budgetRatio) {
+        this.percentile = percentile * 100;
+        this.minDelayNanos = minDelay.toNanos();
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.creditPerRequest = Math.round(budgetRatio * CREDIT_UNIT);
+        this.hedgeDelayNanos = maxDelayNanos;
+        this.nextRefreshNanos = System.nanoTime() + REFRESH_NANOS;
+    }
+
+    /**
+     * Delay after which an unanswered request is hedged.
+     */
+    public Duration hedgeDelay() {
+        long now = System.nanoTime();
+        if (now - nextRefreshNanos >= 0 && refreshing.compareAndSet(false, true)) {
+            try {
+                refresh(now);
+            } finally {
+                refreshing.set(false);
+            }
+        }
+        return Duration.ofNanos(hedgeDelayNanos);
+    }
+
+    /**
+     * Record the latency of a primary request.
+     */
+    public void recordLatency(long nanos) {
+        recorder.recordValue(Math.max(1, Math.min(nanos, TimeUnit.MINUTES.toNanos(1))));
+    }
+
+    /**
+     * Earn budget for one request.
+     */
+    public void onRequest() {
+        long cap = MAX_BANKED_HEDGES * CREDIT_UNIT;
+        long current = credits.get();
+        if (current < cap) {
+            credits.compareAndSet(current, Math.min(cap, current + creditPerRequest));
+        }
+    }
+
+    /**
+     * Spend budget for one hedge.
+     *
+     * @return whether the hedge may be sent
+     */
+    public boolean tryAcquireHedge() {
+        while (true) {
+            long current = credits.get();
+            if (current < CREDIT_UNIT) {
+                return false;
+            }
+            if (credits.compareAndSet(current, current - CREDIT_UNIT)) {
+                return true;
+            }
+        }
+    }
+
+    private void refresh(long now) {
+        recycled = recorder.getIntervalHistogram(recycled);
+        if (recycled.getTotalCount() >= MIN_SAMPLES) {
+            long value = recycled.getValueAtPercentile(percentile);
+            hedgeDelayNanos = Math.max(minDelayNanos, Math.min(maxDelayNanos, value));
+        }
+        nextRefreshNanos = now + REFRESH_NANOS;
+    }
+}
@@ -0,0 +1,56 @@
+package com.atlas.gateway.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-route, per-phase request timers, exported as {@code gateway.request.phase}.
+ *
+ * Timers publish a percentile histogram for server-side aggregation plus local
+ * p50/p95/p99, both kept in Micrometer's HdrHistogram-based time windows. Timers
+ * are resolved once per route and then cached, so recording is a map lookup and
+ * one update per phase.
+ */
+@Component
+public class GatewayRequestMetrics {
+
+    static final String METER_NAME = "gateway.request.phase";
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, Timer[]> timers = new ConcurrentHashMap<>();
+
+    public GatewayRequestMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void record(String routeId, RequestTimings timings) {
+        Timer[] routeTimers = timers.computeIfAbsent(routeId, this::register);
+        for (RequestTimings.Phase phase : RequestTimings.Phase.values()) {
+            if (timings.isRecorded(phase)) {
+                routeTimers[phase.ordinal()].record(timings.get(phase), TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private Timer[] register(String routeId) {
+        RequestTimings.Phase[] phases = RequestTimings.Phase.values();
+        Timer[] routeTimers = new Timer[phases.length];
+        for (RequestTimings.Phase phase : phases) {
+            routeTimers[phase.ordinal()] = Timer.builder(METER_NAME)
+                    .description("Time spent in each phase of a gateway request")
+                    .tag("route", routeId)
+                    .tag("phase", phase.tag())
+                    .publishPercentileHistogram()
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofSeconds(30))
+                    .register(meterRegistry);
+        }
+        return routeTimers;
+    }
+}
@@ -0,0 +1,72 @@
+package com.atlas.gateway.metrics;
+
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.Arrays;
+
+/**
+ * Where one request's time went inside the gateway.
+ *
+ * Created by {@code RequestTimingFilter} for every request and available both as an
+ * exchange attribute and in the Reactor context, so filters and components without
+ * access to the exchange can record their phase. Phases that did not run stay unset.
+ */
+public class RequestTimings {
+
+    /** Exchange attribute and Reactor context key. */
+    public static final String ATTRIBUTE = RequestTimings.class.getName();
+
+    public enum Phase {
+        AUTH("auth"),
+        RATE_LIMIT("rate_limit"),
+        UPSTREAM("upstream"),
+        TOTAL("total");
+
+        private final String tag;
+
+        Phase(String tag) {
+            this.tag = tag;
+        }
+
+        public String tag() {
+            return tag;
+        }
+    }
+
+    private static final int UNSET = -1;
+
+    private final long startNanos;
+    private final long[] phaseNanos = new long[Phase.values().length];
+
+    public RequestTimings(long startNanos) {
+        this.startNanos = startNanos;
+        Arrays.fill(phaseNanos, UNSET);
+    }
+
+    /**
+     * The exchange's timings, or {@code null} if timing is not active.
+     */
+    public static RequestTimings from(ServerWebExchange exchange) {
+        return exchange.getAttribute(ATTRIBUTE);
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    /**
+     * Add {@code nanos} to a phase; a phase may run more than once per request.
+     */
+    public void record(Phase phase, long nanos) {
+        long current = phaseNanos[phase.ordinal()];
+        phaseNanos[phase.ordinal()] = current == UNSET ? nanos : current + nanos;
+    }
+
+    public boolean isRecorded(Phase phase) {
+        return phaseNanos[phase.ordinal()] != UNSET;
+    }
+
+    public long get(Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+}
@@ -0,0 +1,243 @@
+package com.atlas.gateway.ratelimit;
+
+import com.atlas.gateway.metrics.RequestTimings;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rate limiter that decides locally and shares quota through Redis in the background.
+ *
+ * Each gateway instance keeps an in-memory {@link LocalTokenBucket} per route and key,
+ * so admitting a request never waits on Redis. Every {@code sync-interval} the admitted
+ * counts are taken from a cluster-wide token bucket per key in Redis with the same
+ * {@code replenishRate} and {@code burstCapacity}, one script call per key so each call
+ * touches a single cluster slot. A key whose cluster-wide bucket ran dry is blocked
+ * locally until it has refilled, so all instances together admit bursts of up to
+ * {@code burstCapacity} and {@code replenishRate} sustained, give or take what they
+ * admit within one sync interval. When Redis is unreachable, routes either keep
+ * enforcing only their local buckets ({@code failOpen}) or reject all traffic.
+ */
+@Slf4j
+@Primary
+@Component
+public class HybridRateLimiter extends AbstractRateLimiter<HybridRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "hybrid-rate-limiter";
+
+    private static final String KEY_PREFIX = "rate_limiter.hybrid.{";
+    private static final String PROBE_KEY = "rate_limiter.hybrid.probe";
+    private static final int SYNC_CONCURRENCY = 64;
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final RedisScript<Long> script;
+    private final Duration syncInterval;
+    private final Duration idleTimeout;
+    private final ConcurrentHashMap<String, KeyState> keys = new ConcurrentHashMap<>();
+    private final Queue<KeyState> retired = new ConcurrentLinkedQueue<>();
+    private volatile boolean redisAvailable = true;
+    private Disposable syncTask;
+
+    public HybridRateLimiter(ReactiveStringRedisTemplate redisTemplate,
+                             ConfigurationService configurationService,
+                             @Value("${atlas.gateway.rate-limiter.sync-interval:100ms}") Duration syncInterval,
+                             @Value("${atlas.gateway.rate-limiter.idle-timeout:10m}") Duration idleTimeout) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.redisTemplate = redisTemplate;
+        this.syncInterval = syncInterval;
+        this.idleTimeout = idleTimeout;
+
+        DefaultRedisScript<Long> redisScript = new DefaultRedisScript<>();
+        redisScript.setScriptSource(new ResourceScriptSource(new ClassPathResource("scripts/hybrid_rate_limiter.lua")));
+        redisScript.setResultType(Long.class);
+        this.script = redisScript;
+    }
+
+    @PostConstruct
+    public void start() {
+        syncTask = Flux.interval(syncInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> sync())
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (syncTask != null) {
+            syncTask.dispose();
+        }
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        return Mono.deferContextual(context -> {
+            long start = System.nanoTime();
+            Mono<Response> response = decide(routeId, id);
+            context.<RequestTimings>getOrEmpty(RequestTimings.ATTRIBUTE)
+                    .ifPresent(timings -> timings.record(RequestTimings.Phase.RATE_LIMIT, System.nanoTime() - start));
+            return response;
+        });
+    }
+
+    private Mono<Response> decide(String routeId, String id) {
+        Config config = getConfig().get(routeId);
+        if (config == null) {
+            throw new IllegalArgumentException("No Configuration found for route " + routeId);
+        }
+
+        if (!redisAvailable && !config.isFailOpen()) {
+            return Mono.just(new Response(false, headers(config, 0)));
+        }
+
+        long now = System.nanoTime();
+        String key = routeId + ':' + id;
+        KeyState state = keys.get(key);
+        if (state == null) {
+            state = keys.computeIfAbsent(key, k -> new KeyState(k, config, now));
+        }
+        if (now - state.blockedUntilNanos < 0) {
+            return Mono.just(new Response(false, headers(config, 0)));
+        }
+
+        long remaining = state.bucket.tryAcquire(config.getRequestedTokens(), now);
+        if (remaining < 0) {
+            return Mono.just(new Response(false, headers(config, 0)));
+        }
+        state.unsynced.addAndGet(config.getRequestedTokens());
+        return Mono.just(new Response(true, headers(config, remaining)));
+    }
+
+    /**
+     * Report admitted counts to Redis, apply cluster-wide blocks, and drop idle buckets.
+     *
+     * An idle bucket is removed from the map first and flushed once more on the next sync,
+     * so a request that picked it up just before the removal is still counted.
+     */
+    Mono<Void> sync() {
+        long nowNanos = System.nanoTime();
+        long idleNanos = idleTimeout.toNanos();
+
+        List<Flush> batch = new ArrayList<>();
+        for (KeyState state = retired.poll(); state != null; state = retired.poll()) {
+            long count = state.unsynced.getAndSet(0);
+            if (count > 0) {
+                batch.add(new Flush(state, count));
+            }
+        }
+        keys.forEach((key, state) -> {
+            long count = state.unsynced.getAndSet(0);
+            if (count > 0) {
+                batch.add(new Flush(state, count));
+            } else if (state.bucket.isIdle(idleNanos, nowNanos) && keys.remove(key, state)) {
+                retired.add(state);
+            }
+        });
+
+        if (batch.isEmpty()) {
+            // Nothing to report, but an unavailable Redis still needs probing so fail-closed routes recover
+            return redisAvailable ? Mono.empty() : track(redisTemplate.hasKey(PROBE_KEY).then());
+        }
+        return track(Flux.fromIterable(batch)
+                .flatMap(flush -> redisTemplate.execute(script, List.of(flush.state().redisKey),
+                                        List.of(flush.state().rate, flush.state().capacity, Long.toString(flush.count())))
+                                .next()
+                                .doOnNext(waitMillis -> {
+                                    if (waitMillis > 0) {
+                                        flush.state().blockedUntilNanos = nowNanos + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+                                    }
+                                }),
+                        SYNC_CONCURRENCY)
+                .then());
+    }
+
+    private Mono<Void> track(Mono<Void> redisCall) {
+        return redisCall
+                .doOnSuccess(done -> markRedisAvailable(true, null))
+                .onErrorResume(e -> {
+                    markRedisAvailable(false, e);
+                    return Mono.empty();
+                });
+    }
+
+    private void markRedisAvailable(boolean available, Throwable error) {
+        if (redisAvailable == available) {
+            return;
+        }
+        redisAvailable = available;
+        if (available) {
+            log.info("Rate limiter quota sync to Redis recovered");
+        } else {
+            log.warn("Rate limiter quota sync to Redis failed: {}", error.getMessage());
+        }
+    }
+
+    private Map<String, String> headers(Config config, long remaining) {
+        if (!config.isIncludeHeaders()) {
+            return Map.of();
+        }
+        return Map.of(
+                RedisRateLimiter.REMAINING_HEADER, Long.toString(remaining),
+                RedisRateLimiter.REPLENISH_RATE_HEADER, Integer.toString(config.getReplenishRate()),
+                RedisRateLimiter.BURST_CAPACITY_HEADER, Integer.toString(config.getBurstCapacity()),
+                RedisRateLimiter.REQUESTED_TOKENS_HEADER, Integer.toString(config.getRequestedTokens())
+        );
+    }
+
+    private static class KeyState {
+        final String redisKey;
+        final String rate;
+        final String capacity;
+        final LocalTokenBucket bucket;
+        final AtomicLong unsynced = new AtomicLong();
+        volatile long blockedUntilNanos;
+
+        KeyState(String key, Config config, long nowNanos) {
+            this.redisKey = KEY_PREFIX + key + '}';
+            this.rate = Integer.toString(config.getReplenishRate());
+            this.capacity = Integer.toString(config.getBurstCapacity());
+            this.bucket = new LocalTokenBucket(config.getReplenishRate(), config.getBurstCapacity(), nowNanos);
+            this.blockedUntilNanos = nowNanos;
+        }
+    }
+
+    private record Flush(KeyState state, long count) {
+    }
+
+    @Data
+    public static class Config {
+        /** Tokens added to each key's buckets per second, locally and cluster-wide. */
+        private int replenishRate;
+        /** Bucket size; the most a key can use in a burst, on one instance and cluster-wide. */
+        private int burstCapacity;
+        /** Tokens taken by each request. */
+        private int requestedTokens = 1;
+        /** Keep admitting on local limits alone when Redis is unavailable; otherwise reject. */
+        private boolean failOpen = true;
+        private boolean includeHeaders = true;
+    }
+}
@@ -0,0 +1,55 @@
+package com.atlas.gateway.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket for a single rate limit key.
+ *
+ * Implemented as a generic cell rate algorithm: the whole bucket state is one
+ * "theoretical arrival time" updated with a CAS, which behaves exactly like a token
+ * bucket of {@code burstCapacity} tokens refilled at {@code replenishRate} per second.
+ */
+public class LocalTokenBucket {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    public LocalTokenBucket(int replenishRate, int burstCapacity, long nowNanos) {
+        if (replenishRate <= 0 || burstCapacity <= 0) {
+            throw new IllegalArgumentException("replenishRate and burstCapacity must be positive");
+        }
+        this.emissionIntervalNanos = NANOS_PER_SECOND / replenishRate;
+        this.burstToleranceNanos = emissionIntervalNanos * burstCapacity;
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Try to take {@code permits} tokens.
+     *
+     * @return tokens left after the acquisition, or -1 if the request is rejected
+     */
+    public long tryAcquire(int permits, long nowNanos) {
+        long cost = emissionIntervalNanos * permits;
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long next = Math.max(arrival, nowNanos) + cost;
+            long used = next - nowNanos;
+            if (used > burstToleranceNanos) {
+                return -1;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, next)) {
+                return (burstToleranceNanos - used) / emissionIntervalNanos;
+            }
+        }
+    }
+
+    /**
+     * Whether the bucket has been full for at least {@code idleNanos}, so dropping it loses nothing.
+     */
+    public boolean isIdle(long idleNanos, long nowNanos) {
+        return nowNanos - theoreticalArrival.get() > idleNanos;
+    }
+}
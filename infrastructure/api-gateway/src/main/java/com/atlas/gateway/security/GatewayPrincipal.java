@@ -0,0 +1,24 @@
+package com.atlas.gateway.security;
+
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * Authenticated caller resolved from the request's bearer token.
+ * {@code familyId} is the refresh token family the token was issued under, if any.
+ */
+public record GatewayPrincipal(String userId, String email, String role, String familyId) {
+
+    /** Exchange attribute holding the principal of an authenticated request. */
+    public static final String ATTRIBUTE = GatewayPrincipal.class.getName();
+
+    public GatewayPrincipal(String userId, String email, String role) {
+        this(userId, email, role, null);
+    }
+
+    /**
+     * The exchange's principal, or {@code null} for anonymous requests.
+     */
+    public static GatewayPrincipal from(ServerWebExchange exchange) {
+        return exchange.getAttribute(ATTRIBUTE);
+    }
+}
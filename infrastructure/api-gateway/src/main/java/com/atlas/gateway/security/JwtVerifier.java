@@ -0,0 +1,56 @@
+package com.atlas.gateway.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import org.springframework.stereotype.Component;
+
+import java.security.Key;
+
+/**
+ * Verifies access tokens issued by the user service.
+ * The signature is checked against the cached public key named by the token's {@code kid};
+ * the parser is built once and shared across requests.
+ */
+@Component
+public class JwtVerifier {
+
+    private final JwtParser parser;
+
+    public JwtVerifier(SigningKeys signingKeys) {
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        Key key = signingKeys.find(header.getKeyId());
+                        if (key == null) {
+                            throw new UnsupportedJwtException("Unknown signing key id: " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Verify an access token and return its principal.
+     *
+     * @throws JwtException if the token is invalid, expired, or not an access token
+     */
+    public GatewayPrincipal verify(String token) {
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        if ("refresh".equals(claims.get("type", String.class))) {
+            throw new JwtException("Refresh tokens cannot be used for authentication");
+        }
+        return new GatewayPrincipal(
+                claims.getSubject(),
+                claims.get("email", String.class),
+                claims.get("role", String.class),
+                claims.get("fam", String.class)
+        );
+    }
+}
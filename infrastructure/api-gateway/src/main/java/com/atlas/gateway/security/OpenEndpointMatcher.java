@@ -0,0 +1,278 @@
+package com.atlas.gateway.security;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.web.util.UriUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Compiled set of public endpoints for a route.
+ *
+ * Rules have the form {@code [METHOD[|METHOD...]] pattern}, e.g. {@code GET /api/products/**}
+ * or {@code POST /api/auth/login}; without a method the rule applies to every method.
+ * Patterns are matched segment by segment: {@code *} matches exactly one segment and a
+ * trailing {@code **} matches zero or more. Rules are compiled into a path trie whose nodes
+ * carry a bitmask of the methods that are open there and keep their children sorted by
+ * segment hash, so matching walks the request path in place without allocating and a
+ * lookup costs a binary search per segment regardless of how many rules share a prefix.
+ *
+ * Rules are matched against the percent-decoded path, so an encoded {@code %2e%2e} or
+ * {@code %2f} cannot smuggle a path past them. Paths containing {@code .} or {@code ..}
+ * segments never match, nor do paths a backend might read differently: with path
+ * parameters ({@code ;}), backslashes, or a {@code %} left after decoding.
+ */
+public final class OpenEndpointMatcher {
+
+    private static final int ALL_METHODS = -1;
+    private static final String SINGLE_WILDCARD = "*";
+    private static final String MULTI_WILDCARD = "**";
+
+    private static final OpenEndpointMatcher NONE = new OpenEndpointMatcher(new Node());
+
+    private final Node root;
+
+    private OpenEndpointMatcher(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Compile rules into a matcher. Blank rules are ignored.
+     *
+     * @throws IllegalArgumentException if a rule is malformed
+     */
+    public static OpenEndpointMatcher compile(Collection<String> rules) {
+        if (rules == null || rules.isEmpty()) {
+            return NONE;
+        }
+        Node root = new Node();
+        for (String rule : rules) {
+            if (rule != null && !rule.isBlank()) {
+                addRule(root, rule.trim());
+            }
+        }
+        return new OpenEndpointMatcher(root);
+    }
+
+    /**
+     * Whether a request with the given method and raw path is public.
+     */
+    public boolean matches(HttpMethod method, String rawPath) {
+        String path = decode(rawPath);
+        if (path == null || path.isEmpty() || path.charAt(0) != '/') {
+            return false;
+        }
+        return matches(root, path, 0, methodBit(method));
+    }
+
+    /**
+     * The percent-decoded path, or {@code null} if it is malformed or ambiguous. Paths
+     * without escapes are returned as they are.
+     */
+    private static String decode(String rawPath) {
+        if (rawPath == null) {
+            return null;
+        }
+        String path = rawPath;
+        if (path.indexOf('%') >= 0) {
+            try {
+                path = UriUtils.decode(path, StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+            if (path.indexOf('%') >= 0) {
+                // Double encoded; a backend decoding again would see another path
+                return null;
+            }
+        }
+        return path.indexOf(';') >= 0 || path.indexOf('\\') >= 0 ? null : path;
+    }
+
+    private static boolean matches(Node node, String path, int pos, int methodBit) {
+        if ((node.multiWildcardMethods & methodBit) != 0 && isSafe(path, pos)) {
+            return true;
+        }
+
+        // pos is at a '/' or the end of the path; a trailing slash counts as the end
+        int start = pos + 1;
+        if (start >= path.length()) {
+            return (node.terminalMethods & methodBit) != 0;
+        }
+        int end = path.indexOf('/', start);
+        if (end < 0) {
+            end = path.length();
+        }
+        int length = end - start;
+        if (length == 0 || isDotSegment(path, start, length)) {
+            return false;
+        }
+
+        // Literal children are sorted by hash: binary search, then compare the candidates in place
+        int hash = hash(path, start, end);
+        String[] names = node.literalNames;
+        for (int i = node.firstIndexOf(hash); i < names.length && node.literalHashes[i] == hash; i++) {
+            if (names[i].length() == length && path.regionMatches(start, names[i], 0, length)
+                    && matches(node.literalChildren[i], path, end, methodBit)) {
+                return true;
+            }
+        }
+        return node.singleWildcard != null && matches(node.singleWildcard, path, end, methodBit);
+    }
+
+    /**
+     * Same value as {@link String#hashCode()} of the substring, without creating it.
+     */
+    private static int hash(String path, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + path.charAt(i);
+        }
+        return hash;
+    }
+
+    /**
+     * Whether the remainder of the path after {@code pos} is free of dot segments.
+     */
+    private static boolean isSafe(String path, int pos) {
+        int start = pos + 1;
+        while (start < path.length()) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = path.length();
+            }
+            if (isDotSegment(path, start, end - start)) {
+                return false;
+            }
+            start = end + 1;
+        }
+        return true;
+    }
+
+    private static boolean isDotSegment(String path, int start, int length) {
+        return (length == 1 && path.charAt(start) == '.')
+                || (length == 2 && path.charAt(start) == '.' && path.charAt(start + 1) == '.');
+    }
+
+    private static void addRule(Node root, String rule) {
+        int space = rule.indexOf(' ');
+        int methods = space < 0 ? ALL_METHODS : parseMethods(rule.substring(0, space));
+        String pattern = space < 0 ? rule : rule.substring(space + 1).trim();
+        if (!pattern.startsWith("/")) {
+            throw new IllegalArgumentException("Open endpoint pattern must start with '/': " + rule);
+        }
+
+        Node node = root;
+        String[] segments = pattern.substring(1).split("/");
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (segment.isEmpty()) {
+                if (i == segments.length - 1) {
+                    break;
+                }
+                throw new IllegalArgumentException("Empty path segment in open endpoint pattern: " + rule);
+            }
+            if (MULTI_WILDCARD.equals(segment)) {
+                if (i != segments.length - 1) {
+                    throw new IllegalArgumentException("'**' is only supported as the last segment: " + rule);
+                }
+                node.multiWildcardMethods |= methods;
+                return;
+            }
+            node = SINGLE_WILDCARD.equals(segment) ? node.singleWildcard() : node.literal(segment);
+        }
+        node.terminalMethods |= methods;
+    }
+
+    private static int parseMethods(String spec) {
+        int mask = 0;
+        for (String name : spec.split("\\|")) {
+            HttpMethod method = HttpMethod.valueOf(name.trim().toUpperCase(Locale.ROOT));
+            int bit = methodBit(method);
+            if (bit == 0) {
+                throw new IllegalArgumentException("Unsupported HTTP method in open endpoint rule: " + spec);
+            }
+            mask |= bit;
+        }
+        return mask;
+    }
+
+    private static int methodBit(HttpMethod method) {
+        if (method == null) {
+            return 0;
+        }
+        return switch (method.name()) {
+            case "GET" -> 1;
+            case "HEAD" -> 1 << 1;
+            case "POST" -> 1 << 2;
+            case "PUT" -> 1 << 3;
+            case "PATCH" -> 1 << 4;
+            case "DELETE" -> 1 << 5;
+            case "OPTIONS" -> 1 << 6;
+            case "TRACE" -> 1 << 7;
+            default -> 0;
+        };
+    }
+
+    private static final class Node {
+        int[] literalHashes = new int[0];
+        String[] literalNames = new String[0];
+        Node[] literalChildren = new Node[0];
+        Node singleWildcard;
+        int terminalMethods;
+        int multiWildcardMethods;
+
+        int firstIndexOf(int hash) {
+            int low = 0;
+            int high = literalHashes.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (literalHashes[mid] < hash) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        Node literal(String name) {
+            int hash = name.hashCode();
+            int index = firstIndexOf(hash);
+            for (int i = index; i < literalNames.length && literalHashes[i] == hash; i++) {
+                if (literalNames[i].equals(name)) {
+                    return literalChildren[i];
+                }
+            }
+
+            Node child = new Node();
+            literalHashes = insert(literalHashes, index, hash);
+            literalNames = insert(literalNames, index, name);
+            literalChildren = insert(literalChildren, index, child);
+            return child;
+        }
+
+        Node singleWildcard() {
+            if (singleWildcard == null) {
+                singleWildcard = new Node();
+            }
+            return singleWildcard;
+        }
+
+        private static int[] insert(int[] array, int index, int value) {
+            int[] copy = new int[array.length + 1];
+            System.arraycopy(array, 0, copy, 0, index);
+            copy[index] = value;
+            System.arraycopy(array, index, copy, index + 1, array.length - index);
+            return copy;
+        }
+
+        private static <T> T[] insert(T[] array, int index, T value) {
+            T[] copy = Arrays.copyOf(array, array.length + 1);
+            System.arraycopy(array, index, copy, index + 1, array.length - index);
+            copy[index] = value;
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.atlas.gateway.security;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read-only Bloom filter of revoked token families, as published by the user service.
+ *
+ * The format and hashing mirror the user service's {@code RevocationBloomFilter}: the
+ * number of hash functions and of 64-bit words, then the words, with bit positions
+ * from double hashing a 64-bit FNV-1a hash of the UTF-8 id. A miss is definite; a hit
+ * may be a false positive and has to be confirmed.
+ */
+public final class RevocationFilter {
+
+    /** Filter used until the first one is fetched; nothing is revoked. */
+    public static final RevocationFilter EMPTY = new RevocationFilter(new long[1], 0);
+
+    private final long[] bits;
+    private final int hashFunctions;
+
+    private RevocationFilter(long[] bits, int hashFunctions) {
+        this.bits = bits;
+        this.hashFunctions = hashFunctions;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not a serialized filter
+     */
+    public static RevocationFilter parse(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (bytes.length < 8) {
+            throw new IllegalArgumentException("Revocation filter is truncated");
+        }
+        int hashFunctions = buffer.getInt();
+        int words = buffer.getInt();
+        if (hashFunctions < 0 || words < 1 || buffer.remaining() != words * 8L) {
+            throw new IllegalArgumentException("Malformed revocation filter");
+        }
+        long[] bits = new long[words];
+        for (int i = 0; i < words; i++) {
+            bits[i] = buffer.getLong();
+        }
+        return new RevocationFilter(bits, hashFunctions);
+    }
+
+    public boolean mightContain(String id) {
+        if (hashFunctions == 0) {
+            return false;
+        }
+        long hash = hash(id);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long bitCount = (long) bits.length * 64;
+        for (int i = 1; i <= hashFunctions; i++) {
+            int combined = h1 + i * h2;
+            long index = (combined < 0 ? ~combined : combined) % bitCount;
+            if ((bits[(int) (index >>> 6)] & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long hash(String id) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : id.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,115 @@
+package com.atlas.gateway.security;
+
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.Jwks;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.reactive.LoadBalancedExchangeFilterFunction;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.security.Key;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Locally cached token signing keys from the user service's JWKS, looked up by {@code kid}.
+ *
+ * The key set is refreshed in the background every {@code refresh-interval}, so
+ * verifying a token never leaves the gateway. The user service publishes a new key
+ * well before signing with it, so a rotation is picked up by the regular refresh; an
+ * unknown {@code kid} additionally triggers an early refresh, at most once per
+ * {@code min-refresh-interval}. While the user service is unreachable the last key
+ * set stays in use.
+ */
+@Slf4j
+@Component
+public class SigningKeys {
+
+    private final WebClient webClient;
+    private final AtomicLong lastRefreshNanos = new AtomicLong(System.nanoTime());
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private Disposable refreshTask;
+
+    @Value("${atlas.gateway.jwks.url:http://user-service/.well-known/jwks.json}")
+    private String url;
+
+    @Value("${atlas.gateway.jwks.refresh-interval:5m}")
+    private Duration refreshInterval;
+
+    @Value("${atlas.gateway.jwks.min-refresh-interval:30s}")
+    private Duration minRefreshInterval;
+
+    public SigningKeys(WebClient.Builder webClientBuilder, LoadBalancedExchangeFilterFunction loadBalancerFunction) {
+        this.webClient = webClientBuilder.clone().filter(loadBalancerFunction).build();
+    }
+
+    @PostConstruct
+    public void start() {
+        refreshTask = Flux.interval(Duration.ZERO, refreshInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> refresh())
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (refreshTask != null) {
+            refreshTask.dispose();
+        }
+    }
+
+    /**
+     * Public key for {@code kid}, or {@code null} if it is not in the cached key set.
+     */
+    public PublicKey find(String kid) {
+        PublicKey key = kid != null ? keys.get(kid) : null;
+        if (key == null) {
+            refreshEarly();
+        }
+        return key;
+    }
+
+    private void refreshEarly() {
+        long last = lastRefreshNanos.get();
+        long now = System.nanoTime();
+        if (now - last >= minRefreshInterval.toNanos() && lastRefreshNanos.compareAndSet(last, now)) {
+            refresh().subscribe();
+        }
+    }
+
+    Mono<Void> refresh() {
+        return webClient.get()
+                .uri(url)
+                .retrieve()
+                .bodyToMono(String.class)
+                .doOnNext(json -> {
+                    keys = parse(json);
+                    lastRefreshNanos.set(System.nanoTime());
+                })
+                .onErrorResume(e -> {
+                    log.warn("Could not refresh token signing keys: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    static Map<String, PublicKey> parse(String json) {
+        Map<String, PublicKey> parsed = new HashMap<>();
+        for (Jwk<?> jwk : Jwks.setParser().build().parse(json).getKeys()) {
+            Key key = jwk.toKey();
+            if (jwk.getId() != null && key instanceof PublicKey publicKey) {
+                parsed.put(jwk.getId(), publicKey);
+            }
+        }
+        return Map.copyOf(parsed);
+    }
+}
@@ -0,0 +1,97 @@
+package com.atlas.gateway.security;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.reactive.LoadBalancedExchangeFilterFunction;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Revoked token families, checked without a network call for almost every request.
+ *
+ * The user service's Bloom filter of revoked families is pulled every
+ * {@code refresh-interval} and checked in memory. Only a filter hit, i.e. a revoked
+ * family or a rare false positive, is confirmed against the revocation set in Redis.
+ * Revocations therefore take effect within one refresh interval. Until the first pull
+ * succeeds, and while the user service is unreachable, the last filter stays in use.
+ */
+@Slf4j
+@Component
+public class TokenRevocations {
+
+    private static final String REVOKED_KEY = "auth:revoked-families";
+
+    private final WebClient webClient;
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private volatile RevocationFilter filter = RevocationFilter.EMPTY;
+    private Disposable refreshTask;
+
+    @Value("${atlas.gateway.revocation.url:http://user-service/internal/auth/revocations}")
+    private String url;
+
+    @Value("${atlas.gateway.revocation.refresh-interval:5s}")
+    private Duration refreshInterval;
+
+    public TokenRevocations(WebClient.Builder webClientBuilder,
+                            LoadBalancedExchangeFilterFunction loadBalancerFunction,
+                            ReactiveStringRedisTemplate redisTemplate) {
+        this.webClient = webClientBuilder.clone().filter(loadBalancerFunction).build();
+        this.redisTemplate = redisTemplate;
+    }
+
+    @PostConstruct
+    public void start() {
+        refreshTask = Flux.interval(Duration.ZERO, refreshInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> refresh())
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (refreshTask != null) {
+            refreshTask.dispose();
+        }
+    }
+
+    /**
+     * In-memory check; {@code false} means the family is definitely not revoked.
+     */
+    public boolean mightBeRevoked(String familyId) {
+        return familyId != null && filter.mightContain(familyId);
+    }
+
+    /**
+     * Confirm a filter hit against Redis. Treated as revoked if Redis cannot answer.
+     */
+    public Mono<Boolean> isRevoked(String familyId) {
+        return redisTemplate.opsForZSet().score(REVOKED_KEY, familyId)
+                .map(revokedUntil -> revokedUntil > System.currentTimeMillis())
+                .defaultIfEmpty(false)
+                .onErrorResume(e -> {
+                    log.warn("Could not confirm revocation of token family {}: {}", familyId, e.getMessage());
+                    return Mono.just(true);
+                });
+    }
+
+    Mono<Void> refresh() {
+        return webClient.get()
+                .uri(url)
+                .retrieve()
+                .bodyToMono(byte[].class)
+                .doOnNext(bytes -> filter = RevocationFilter.parse(bytes))
+                .onErrorResume(e -> {
+                    log.warn("Could not refresh token revocation filter: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+}
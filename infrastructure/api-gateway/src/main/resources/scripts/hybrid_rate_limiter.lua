@@ -0,0 +1,24 @@
+-- Takes tokens admitted locally by one instance from a key's cluster-wide token bucket.
+-- KEYS[1]: bucket key; ARGV[1]: tokens per second; ARGV[2]: capacity; ARGV[3]: admitted tokens.
+-- Requests are admitted before they are reported, so the bucket may go into debt.
+-- Returns the milliseconds until the bucket is out of debt, 0 if it is not in debt.
+local rate = tonumber(ARGV[1])
+local capacity = tonumber(ARGV[2])
+local admitted = tonumber(ARGV[3])
+
+local time = redis.call('time')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local state = redis.call('hmget', KEYS[1], 'tokens', 'ts')
+local tokens = tonumber(state[1]) or capacity
+local last = tonumber(state[2]) or now
+
+tokens = math.min(capacity, tokens + math.max(0, now - last) * rate / 1000) - admitted
+redis.call('hset', KEYS[1], 'tokens', tostring(tokens), 'ts', now)
+-- Once refilled the bucket is the same as a missing one
+redis.call('pexpire', KEYS[1], math.ceil((capacity - tokens) * 1000 / rate) + 1000)
+
+if tokens >= 0 then
+  return 0
+end
+return math.ceil(-tokens * 1000 / rate)
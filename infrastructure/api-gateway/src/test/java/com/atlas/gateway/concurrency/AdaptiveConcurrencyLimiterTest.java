@@ -0,0 +1,80 @@
+package com.atlas.gateway.concurrency;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    @DisplayName("Should reject requests once the limit is in flight")
+    void tryAcquire_AtLimit_Rejects() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 1.5, 0.2, 0.9);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        limiter.onIgnore();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should grow the limit while latency stays flat under load")
+    void onComplete_StableLatency_GrowsLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100, 1.5, 0.2, 0.9);
+
+        for (int i = 0; i < 200; i++) {
+            saturateAndComplete(limiter, 10 * MILLIS);
+        }
+
+        assertThat(limiter.getLimit()).isGreaterThan(10);
+    }
+
+    @Test
+    @DisplayName("Should shrink the limit when downstream latency starts queueing")
+    void onComplete_RisingLatency_ShrinksLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(50, 1, 100, 1.5, 0.2, 0.9);
+        for (int i = 0; i < 600; i++) {
+            saturateAndComplete(limiter, 10 * MILLIS);
+        }
+        int before = limiter.getLimit();
+
+        for (int i = 0; i < 50; i++) {
+            saturateAndComplete(limiter, 100 * MILLIS);
+        }
+
+        assertThat(limiter.getLimit()).isLessThan(before);
+    }
+
+    @Test
+    @DisplayName("Should back off multiplicatively on failures but not below the minimum")
+    void onComplete_Dropped_BacksOff() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 5, 100, 1.5, 0.2, 0.5);
+
+        limiter.tryAcquire();
+        limiter.onComplete(10 * MILLIS, true);
+        assertThat(limiter.getLimit()).isEqualTo(10);
+
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire();
+            limiter.onComplete(10 * MILLIS, true);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(5);
+    }
+
+    private void saturateAndComplete(AdaptiveConcurrencyLimiter limiter, long rttNanos) {
+        int acquired = 0;
+        while (limiter.tryAcquire()) {
+            acquired++;
+        }
+        limiter.onComplete(rttNanos, false);
+        for (int i = 1; i < acquired; i++) {
+            limiter.onIgnore();
+        }
+    }
+}
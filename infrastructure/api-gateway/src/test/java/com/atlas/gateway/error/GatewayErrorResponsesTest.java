@@ -0,0 +1,51 @@
+package com.atlas.gateway.error;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GatewayErrorResponsesTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Should write the pre-encoded error body with a current timestamp")
+    void write_ProducesApiResponseErrorShape() throws Exception {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/api/orders"));
+
+        GatewayErrorResponses.write(exchange, GatewayError.ORDER_SERVICE_UNAVAILABLE).block();
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(exchange.getResponse().getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+
+        String body = exchange.getResponse().getBodyAsString().block();
+        assertThat(exchange.getResponse().getHeaders().getContentLength()).isEqualTo(body.length());
+
+        JsonNode json = objectMapper.readTree(body);
+        assertThat(json.get("success").asBoolean()).isFalse();
+        assertThat(json.get("message").asText()).isEqualTo("Order service is temporarily unavailable");
+        assertThat(json.at("/error/code").asText()).isEqualTo("SERVICE_UNAVAILABLE");
+        assertThat(LocalDateTime.parse(json.get("timestamp").asText()))
+                .isAfter(LocalDateTime.now().minusMinutes(1));
+    }
+
+    @Test
+    @DisplayName("Should use 401 for authentication errors")
+    void write_AuthenticationError_Returns401() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/orders"));
+
+        GatewayErrorResponses.write(exchange, GatewayError.MISSING_TOKEN).block();
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(exchange.getResponse().getBodyAsString().block()).contains("\"code\":\"UNAUTHORIZED\"");
+    }
+}
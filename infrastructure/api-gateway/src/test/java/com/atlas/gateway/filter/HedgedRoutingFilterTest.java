@@ -0,0 +1,140 @@
+package com.atlas.gateway.filter;
+
+import com.atlas.gateway.hedge.HedgePolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerProperties;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+class HedgedRoutingFilterTest {
+
+    private static final GatewayFilterChain END_OF_CHAIN = exchange -> Mono.empty();
+
+    private final LoadBalancerClientFactory clientFactory = mock(LoadBalancerClientFactory.class);
+    private final ReactorServiceInstanceLoadBalancer loadBalancer = mock(ReactorServiceInstanceLoadBalancer.class);
+    private final LoadBalancerLifecycle<?, ?, ?> lifecycle = mock(LoadBalancerLifecycle.class);
+
+    private DisposableServer slow;
+    private DisposableServer fast;
+    private HedgedRoutingFilter filter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        slow = backend("slow", Duration.ofSeconds(2));
+        fast = backend("fast", Duration.ZERO);
+
+        ObjectProvider<java.util.List<org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter>> headersFilters =
+                mock(ObjectProvider.class);
+        when(headersFilters.getIfAvailable(any())).thenReturn(java.util.List.of());
+        when(clientFactory.getInstance("product-service", ReactorServiceInstanceLoadBalancer.class))
+                .thenReturn(loadBalancer);
+        when(clientFactory.getInstances("product-service", LoadBalancerLifecycle.class))
+                .thenReturn(Map.of("stats", lifecycle));
+        when(clientFactory.getProperties("product-service")).thenReturn(new LoadBalancerProperties());
+        when(lifecycle.supports(any(), any(), any())).thenReturn(true);
+        ServiceInstance fastInstance = new DefaultServiceInstance("fast", "product-service", "localhost", fast.port(), false);
+        when(loadBalancer.choose(any())).thenReturn(Mono.just(new DefaultResponse(fastInstance)));
+
+        filter = new HedgedRoutingFilter(HttpClient.create(), new HttpClientProperties(), clientFactory, headersFilters);
+    }
+
+    @AfterEach
+    void tearDown() {
+        slow.disposeNow();
+        fast.disposeNow();
+    }
+
+    @Test
+    @DisplayName("Should answer from the hedge and report it to the load balancer lifecycle")
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void filter_SlowPrimary_HedgeWins() {
+        MockServerWebExchange exchange = exchange(Map.of(), 1.0);
+
+        filter.filter(exchange, END_OF_CHAIN).block(Duration.ofSeconds(5));
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(exchange.getResponse().getHeaders().getFirst("X-Instance")).isEqualTo("fast");
+        Connection connection = exchange.getAttribute(CLIENT_RESPONSE_CONN_ATTR);
+        assertThat(connection.inbound().receive().aggregate().asString().block(Duration.ofSeconds(5)))
+                .isEqualTo("fast");
+        ArgumentCaptor<CompletionContext> completion = ArgumentCaptor.forClass(CompletionContext.class);
+        verify(lifecycle).onStartRequest(any(), any());
+        verify((LoadBalancerLifecycle) lifecycle, timeout(1000)).onComplete(completion.capture());
+        assertThat(completion.getValue().status()).isEqualTo(CompletionContext.Status.SUCCESS);
+    }
+
+    @Test
+    @DisplayName("Should apply the route's response timeout")
+    void filter_RouteResponseTimeout_GatewayTimeout() {
+        MockServerWebExchange exchange = exchange(Map.of(RESPONSE_TIMEOUT_ATTR, 100), 0.0);
+
+        assertThatThrownBy(() -> filter.filter(exchange, END_OF_CHAIN).block(Duration.ofSeconds(5)))
+                .isInstanceOf(ResponseStatusException.class)
+                .satisfies(e -> assertThat(((ResponseStatusException) e).getStatusCode())
+                        .isEqualTo(HttpStatus.GATEWAY_TIMEOUT));
+    }
+
+    private MockServerWebExchange exchange(Map<String, Object> metadata, double budgetRatio) {
+        HedgePolicy policy = new HedgePolicy(0.95, Duration.ofMillis(10), Duration.ofMillis(50), budgetRatio);
+        policy.onRequest();
+        Route route = Route.async()
+                .id("product-service")
+                .uri(URI.create("lb://product-service"))
+                .predicate(exchange -> true)
+                .metadata(metadata)
+                .build();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/products/1"));
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, route);
+        exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR,
+                URI.create("http://localhost:" + slow.port() + "/api/products/1"));
+        exchange.getAttributes().put(HedgeFilter.HEDGE_POLICY_ATTR, policy);
+        return exchange;
+    }
+
+    private static DisposableServer backend(String name, Duration delay) {
+        return HttpServer.create()
+                .port(0)
+                .route(routes -> routes.get("/api/products/1", (request, response) -> Mono.delay(delay)
+                        .then(response.header("X-Instance", name).sendString(Mono.just(name)).then())))
+                .bindNow();
+    }
+}
@@ -0,0 +1,135 @@
+package com.atlas.gateway.filter;
+
+import com.atlas.gateway.security.GatewayPrincipal;
+import com.atlas.gateway.security.JwtVerifier;
+import com.atlas.gateway.security.SigningKeys;
+import com.atlas.gateway.security.TokenRevocations;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.security.KeyPair;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PrincipalResolutionFilterTest {
+
+    private static final KeyPair KEY_PAIR = Jwts.SIG.ES256.keyPair().build();
+
+    private final SigningKeys signingKeys = mock(SigningKeys.class);
+    private final TokenRevocations tokenRevocations = mock(TokenRevocations.class);
+    private final PrincipalResolutionFilter filter =
+            new PrincipalResolutionFilter(new JwtVerifier(signingKeys), tokenRevocations);
+
+    @BeforeEach
+    void setUp() {
+        when(signingKeys.find("key-1")).thenReturn(KEY_PAIR.getPublic());
+    }
+
+    @Test
+    @DisplayName("Should expose the verified principal and forward identity headers")
+    void filter_ValidToken_SetsPrincipal() {
+        ServerWebExchange forwarded = run(MockServerHttpRequest.get("/api/products")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token("access")));
+
+        GatewayPrincipal principal = GatewayPrincipal.from(forwarded);
+        assertThat(principal).isEqualTo(new GatewayPrincipal("user-1", "user@atlas.com", "CUSTOMER"));
+        assertThat(forwarded.getRequest().getHeaders().getFirst("X-User-Id")).isEqualTo("user-1");
+        assertThat(forwarded.getRequest().getHeaders().getFirst("X-User-Role")).isEqualTo("CUSTOMER");
+    }
+
+    @Test
+    @DisplayName("Should strip client-supplied identity headers from anonymous requests")
+    void filter_SpoofedHeaders_AreRemoved() {
+        ServerWebExchange forwarded = run(MockServerHttpRequest.get("/api/products")
+                .header("X-User-Id", "someone-else")
+                .header("X-User-Role", "ADMIN"));
+
+        assertThat(GatewayPrincipal.from(forwarded)).isNull();
+        assertThat(forwarded.getRequest().getHeaders().containsKey("X-User-Id")).isFalse();
+        assertThat(forwarded.getRequest().getHeaders().containsKey("X-User-Role")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should treat refresh tokens and invalid tokens as anonymous")
+    void filter_RefreshOrInvalidToken_IsAnonymous() {
+        ServerWebExchange withRefresh = run(MockServerHttpRequest.get("/api/orders")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token("refresh")));
+        ServerWebExchange withGarbage = run(MockServerHttpRequest.get("/api/orders")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer not-a-token"));
+
+        assertThat(GatewayPrincipal.from(withRefresh)).isNull();
+        assertThat(GatewayPrincipal.from(withGarbage)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should treat tokens signed with an unknown key as anonymous")
+    void filter_UnknownKeyId_IsAnonymous() {
+        String token = Jwts.builder()
+                .header().keyId("key-2").and()
+                .subject("user-1")
+                .signWith(Jwts.SIG.ES256.keyPair().build().getPrivate(), Jwts.SIG.ES256)
+                .compact();
+
+        ServerWebExchange forwarded = run(MockServerHttpRequest.get("/api/orders")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+
+        assertThat(GatewayPrincipal.from(forwarded)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should treat tokens of a revoked family as anonymous once confirmed")
+    void filter_RevokedFamily_IsAnonymous() {
+        when(tokenRevocations.mightBeRevoked("family-1")).thenReturn(true);
+        when(tokenRevocations.isRevoked("family-1")).thenReturn(Mono.just(true));
+        when(tokenRevocations.mightBeRevoked("family-2")).thenReturn(true);
+        when(tokenRevocations.isRevoked("family-2")).thenReturn(Mono.just(false));
+
+        ServerWebExchange revoked = run(MockServerHttpRequest.get("/api/orders")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token("access", "family-1")));
+        ServerWebExchange falsePositive = run(MockServerHttpRequest.get("/api/orders")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token("access", "family-2")));
+
+        assertThat(GatewayPrincipal.from(revoked)).isNull();
+        assertThat(revoked.getRequest().getHeaders().containsKey("X-User-Id")).isFalse();
+        assertThat(GatewayPrincipal.from(falsePositive).familyId()).isEqualTo("family-2");
+    }
+
+    private ServerWebExchange run(MockServerHttpRequest.BaseBuilder<?> request) {
+        AtomicReference<ServerWebExchange> forwarded = new AtomicReference<>();
+        GatewayFilterChain chain = exchange -> {
+            forwarded.set(exchange);
+            return Mono.empty();
+        };
+        filter.filter(MockServerWebExchange.from(request), chain).block();
+        return forwarded.get();
+    }
+
+    private String token(String type) {
+        return token(type, null);
+    }
+
+    private String token(String type, String familyId) {
+        return Jwts.builder()
+                .header().keyId("key-1").and()
+                .subject("user-1")
+                .claim("fam", familyId)
+                .claim("email", "user@atlas.com")
+                .claim("role", "CUSTOMER")
+                .claim("type", type)
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(KEY_PAIR.getPrivate(), Jwts.SIG.ES256)
+                .compact();
+    }
+}
@@ -0,0 +1,83 @@
+package com.atlas.gateway.filter;
+
+import com.atlas.gateway.metrics.GatewayRequestMetrics;
+import com.atlas.gateway.metrics.RequestTimings;
+import com.atlas.gateway.security.GatewayPrincipal;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+class RequestTimingFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestTimingFilter filter = new RequestTimingFilter(new GatewayRequestMetrics(meterRegistry), 0);
+
+    @Test
+    @DisplayName("Should record total time and every phase that ran, tagged by route")
+    void filter_PhasesRecorded_RegistersRouteTimers() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/products"));
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, route("product-service"));
+
+        GatewayFilterChain chain = ex -> {
+            RequestTimings.from(ex).record(RequestTimings.Phase.AUTH, TimeUnit.MILLISECONDS.toNanos(2));
+            return Mono.deferContextual(context -> {
+                context.<RequestTimings>get(RequestTimings.ATTRIBUTE)
+                        .record(RequestTimings.Phase.UPSTREAM, TimeUnit.MILLISECONDS.toNanos(40));
+                return Mono.empty();
+            });
+        };
+        filter.filter(exchange, chain).block();
+
+        assertThat(timer("product-service", "total").count()).isEqualTo(1);
+        assertThat(timer("product-service", "auth").totalTime(TimeUnit.MILLISECONDS)).isEqualTo(2);
+        assertThat(timer("product-service", "upstream").totalTime(TimeUnit.MILLISECONDS)).isEqualTo(40);
+        assertThat(timer("product-service", "rate_limit").count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should attribute requests without a route to the unmatched route")
+    void filter_NoRoute_RecordsUnmatched() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/nowhere"));
+
+        filter.filter(exchange, ex -> Mono.empty()).block();
+
+        assertThat(timer("unmatched", "total").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should write access log entries as escaped single-line JSON")
+    void accessLogLine_EscapesAndIncludesPhases() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/products"));
+        exchange.getAttributes().put(GatewayPrincipal.ATTRIBUTE, new GatewayPrincipal("user-\"1\\", null, null));
+        RequestTimings timings = new RequestTimings(System.nanoTime());
+        timings.record(RequestTimings.Phase.TOTAL, TimeUnit.MICROSECONDS.toNanos(1500));
+
+        String line = RequestTimingFilter.accessLogLine(exchange, "product-service", HttpStatus.BAD_GATEWAY, timings);
+
+        assertThat(line).startsWith("{\"timestamp\":\"")
+                .contains("\"method\":\"GET\"", "\"path\":\"/api/products\"", "\"route\":\"product-service\"",
+                        "\"status\":502", "\"userId\":\"user-\\\"1\\\\\"", "\"total_ms\":1.5")
+                .doesNotContain("auth_ms")
+                .endsWith("}");
+    }
+
+    private Timer timer(String route, String phase) {
+        return meterRegistry.get("gateway.request.phase").tag("route", route).tag("phase", phase).timer();
+    }
+
+    private static Route route(String id) {
+        return Route.async().id(id).uri("lb://" + id).predicate(exchange -> true).build();
+    }
+}
@@ -0,0 +1,84 @@
+package com.atlas.gateway.filter;
+
+import com.atlas.gateway.cache.CachedResponse;
+import com.atlas.gateway.cache.ResponseCacheStore;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheFilterTest {
+
+    @Test
+    @DisplayName("Should prefer s-maxage over max-age for the shared cache lifetime")
+    void freshnessLifetime_PrefersSharedMaxAge() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl("public, max-age=60, s-maxage=120");
+
+        assertThat(ResponseCacheFilter.freshnessLifetime(headers, Duration.ZERO)).isEqualTo(Duration.ofSeconds(120));
+    }
+
+    @Test
+    @DisplayName("Should not cache private, cookie-setting or varying responses")
+    void freshnessLifetime_UncacheableResponses_ReturnsZero() {
+        HttpHeaders privateResponse = new HttpHeaders();
+        privateResponse.setCacheControl("private, max-age=60");
+
+        HttpHeaders withCookie = new HttpHeaders();
+        withCookie.setCacheControl("max-age=60");
+        withCookie.add(HttpHeaders.SET_COOKIE, "session=abc");
+
+        HttpHeaders varying = new HttpHeaders();
+        varying.setCacheControl("max-age=60");
+        varying.add(HttpHeaders.VARY, "Accept-Language");
+
+        assertThat(ResponseCacheFilter.freshnessLifetime(privateResponse, Duration.ZERO)).isZero();
+        assertThat(ResponseCacheFilter.freshnessLifetime(withCookie, Duration.ZERO)).isZero();
+        assertThat(ResponseCacheFilter.freshnessLifetime(varying, Duration.ZERO)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should fall back to the default TTL when downstream sends no Cache-Control")
+    void freshnessLifetime_NoCacheControl_UsesDefault() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.VARY, HttpHeaders.ORIGIN);
+
+        assertThat(ResponseCacheFilter.freshnessLifetime(headers, Duration.ofSeconds(30))).isEqualTo(Duration.ofSeconds(30));
+    }
+
+    @Test
+    @DisplayName("Should match weak and listed If-None-Match values")
+    void cachedResponse_MatchesIfNoneMatch() {
+        CachedResponse cached = response("\"abc\"", Duration.ofMinutes(1));
+
+        assertThat(cached.matches("\"abc\"")).isTrue();
+        assertThat(cached.matches("W/\"abc\"")).isTrue();
+        assertThat(cached.matches("\"xyz\", \"abc\"")).isTrue();
+        assertThat(cached.matches("*")).isTrue();
+        assertThat(cached.matches("\"xyz\"")).isFalse();
+        assertThat(cached.matches(null)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should evict the oldest entry and hide expired ones")
+    void store_EvictsOldestAndSkipsExpired() {
+        ResponseCacheStore store = new ResponseCacheStore(2);
+        store.put("/a", response("\"a\"", Duration.ofMinutes(1)));
+        store.put("/b", response("\"b\"", Duration.ofMinutes(1)));
+        store.put("/c", response("\"c\"", Duration.ofMinutes(1)));
+        store.put("/c", response("\"c\"", Duration.ofNanos(-1)));
+
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(store.get("/a")).isNull();
+        assertThat(store.get("/b")).isNotNull();
+        assertThat(store.get("/c")).isNull();
+    }
+
+    private CachedResponse response(String etag, Duration ttl) {
+        return new CachedResponse(HttpStatus.OK, new HttpHeaders(), new byte[0], etag, System.nanoTime() + ttl.toNanos());
+    }
+}
@@ -0,0 +1,79 @@
+package com.atlas.gateway.hedge;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HedgePolicyTest {
+
+    @Test
+    @DisplayName("Should use the maximum delay until enough latency samples exist")
+    void hedgeDelay_NoSamples_UsesMaxDelay() {
+        HedgePolicy policy = new HedgePolicy(0.95, Duration.ofMillis(10), Duration.ofSeconds(1), 0.05);
+
+        assertThat(policy.hedgeDelay()).isEqualTo(Duration.ofSeconds(1));
+    }
+
+    @Test
+    @DisplayName("Should track the configured latency percentile within the bounds")
+    void hedgeDelay_AfterRefresh_TracksPercentile() {
+        HedgePolicy policy = new HedgePolicy(0.95, Duration.ofMillis(10), Duration.ofSeconds(1), 0.05);
+        for (int i = 1; i <= 100; i++) {
+            policy.recordLatency(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        ReflectionTestUtils.setField(policy, "nextRefreshNanos", System.nanoTime() - 1);
+
+        Duration delay = policy.hedgeDelay();
+
+        assertThat(delay.toMillis()).isBetween(94L, 96L);
+    }
+
+    @Test
+    @DisplayName("Should not hedge below the minimum delay")
+    void hedgeDelay_FastDownstream_ClampsToMinDelay() {
+        HedgePolicy policy = new HedgePolicy(0.95, Duration.ofMillis(10), Duration.ofSeconds(1), 0.05);
+        for (int i = 0; i < 100; i++) {
+            policy.recordLatency(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        ReflectionTestUtils.setField(policy, "nextRefreshNanos", System.nanoTime() - 1);
+
+        assertThat(policy.hedgeDelay()).isEqualTo(Duration.ofMillis(10));
+    }
+
+    @Test
+    @DisplayName("Should allow hedges for at most the budgeted share of requests")
+    void tryAcquireHedge_Budget_CapsHedges() {
+        HedgePolicy policy = new HedgePolicy(0.95, Duration.ofMillis(10), Duration.ofSeconds(1), 0.05);
+
+        int hedges = 0;
+        for (int i = 0; i < 100; i++) {
+            policy.onRequest();
+            if (policy.tryAcquireHedge()) {
+                hedges++;
+            }
+        }
+
+        assertThat(hedges).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should bank only a bounded number of hedges while idle")
+    void onRequest_ManyRequests_CapsBankedHedges() {
+        HedgePolicy policy = new HedgePolicy(0.95, Duration.ofMillis(10), Duration.ofSeconds(1), 0.5);
+        for (int i = 0; i < 1000; i++) {
+            policy.onRequest();
+        }
+
+        int hedges = 0;
+        while (policy.tryAcquireHedge()) {
+            hedges++;
+        }
+
+        assertThat(hedges).isEqualTo(10);
+    }
+}
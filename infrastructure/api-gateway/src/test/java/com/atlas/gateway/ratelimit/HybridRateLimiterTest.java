@@ -0,0 +1,118 @@
+package com.atlas.gateway.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HybridRateLimiterTest {
+
+    private final ReactiveStringRedisTemplate redisTemplate = mock(ReactiveStringRedisTemplate.class);
+    private final HybridRateLimiter limiter = new HybridRateLimiter(redisTemplate, mock(ConfigurationService.class),
+            Duration.ofMillis(100), Duration.ofMinutes(10));
+
+    @BeforeEach
+    void setUp() {
+        limiter.getConfig().put("products", config(true));
+        limiter.getConfig().put("payments", config(false));
+    }
+
+    @Test
+    @DisplayName("Should take each key's admitted count from its own cluster-wide bucket")
+    @SuppressWarnings("unchecked")
+    void sync_AdmittedCounts_OneCallPerKey() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList())).thenReturn(Flux.just(0L));
+        allowed("products", "alice");
+        allowed("products", "alice");
+        allowed("products", "bob");
+
+        limiter.sync().block();
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("rate_limiter.hybrid.{products:alice}")),
+                eq(List.of("10", "20", "2")));
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("rate_limiter.hybrid.{products:bob}")),
+                eq(List.of("10", "20", "1")));
+    }
+
+    @Test
+    @DisplayName("Should block a key locally while its cluster-wide bucket is in debt")
+    @SuppressWarnings("unchecked")
+    void sync_ClusterBucketInDebt_BlocksKey() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList())).thenReturn(Flux.just(60_000L));
+        assertThat(allowed("products", "alice")).isTrue();
+
+        limiter.sync().block();
+
+        assertThat(allowed("products", "alice")).isFalse();
+        assertThat(allowed("products", "bob")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should not report anything when nothing was admitted")
+    @SuppressWarnings("unchecked")
+    void sync_NothingAdmitted_SkipsRedis() {
+        limiter.sync().block();
+
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), anyList());
+        verify(redisTemplate, never()).hasKey(anyString());
+    }
+
+    @Test
+    @DisplayName("Should keep fail-open routes on local limits and reject fail-closed ones while Redis is down")
+    @SuppressWarnings("unchecked")
+    void sync_RedisDown_FailOpenOnlyWhereConfigured() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList()))
+                .thenReturn(Flux.error(new RedisConnectionFailureException("down")));
+        allowed("products", "alice");
+
+        limiter.sync().block();
+
+        assertThat(allowed("products", "alice")).isTrue();
+        assertThat(allowed("payments", "alice")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should probe Redis while it is down and reopen fail-closed routes once it answers")
+    @SuppressWarnings("unchecked")
+    void sync_RedisRecovers_ReopensFailClosedRoutes() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList()))
+                .thenReturn(Flux.error(new RedisConnectionFailureException("down")));
+        allowed("products", "alice");
+        limiter.sync().block();
+        when(redisTemplate.hasKey(anyString())).thenReturn(Mono.just(false));
+
+        limiter.sync().block();
+
+        assertThat(allowed("payments", "alice")).isTrue();
+    }
+
+    private boolean allowed(String routeId, String id) {
+        return limiter.isAllowed(routeId, id).block().isAllowed();
+    }
+
+    private static HybridRateLimiter.Config config(boolean failOpen) {
+        HybridRateLimiter.Config config = new HybridRateLimiter.Config();
+        config.setReplenishRate(10);
+        config.setBurstCapacity(20);
+        config.setFailOpen(failOpen);
+        return config;
+    }
+}
@@ -0,0 +1,70 @@
+package com.atlas.gateway.ratelimit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalTokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    @DisplayName("Should admit a full burst and then reject")
+    void tryAcquire_Burst_AdmitsCapacityThenRejects() {
+        LocalTokenBucket bucket = new LocalTokenBucket(10, 20, 0);
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(bucket.tryAcquire(1, 0)).isEqualTo(19 - i);
+        }
+        assertThat(bucket.tryAcquire(1, 0)).isEqualTo(-1);
+    }
+
+    @Test
+    @DisplayName("Should replenish tokens at the configured rate")
+    void tryAcquire_AfterWaiting_Replenishes() {
+        LocalTokenBucket bucket = new LocalTokenBucket(10, 10, 0);
+        for (int i = 0; i < 10; i++) {
+            bucket.tryAcquire(1, 0);
+        }
+
+        assertThat(bucket.tryAcquire(1, SECOND / 20)).isEqualTo(-1);
+        assertThat(bucket.tryAcquire(1, SECOND / 10)).isZero();
+        assertThat(bucket.tryAcquire(5, SECOND)).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Should report idle only once the bucket has been full for the idle period")
+    void isIdle_AfterRefill() {
+        LocalTokenBucket bucket = new LocalTokenBucket(10, 10, 0);
+        bucket.tryAcquire(10, 0);
+
+        assertThat(bucket.isIdle(SECOND, SECOND)).isFalse();
+        assertThat(bucket.isIdle(SECOND, 3 * SECOND)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should never admit more than the capacity under contention")
+    void tryAcquire_Concurrent_AdmitsExactlyCapacity() throws Exception {
+        LocalTokenBucket bucket = new LocalTokenBucket(1, 500, 0);
+        AtomicInteger admitted = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 2000; i++) {
+            executor.execute(() -> {
+                if (bucket.tryAcquire(1, 0) >= 0) {
+                    admitted.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(admitted.get()).isEqualTo(500);
+    }
+}
@@ -0,0 +1,79 @@
+package com.atlas.gateway.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpMethod;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matcher cost against the number of open-endpoint rules on a route.
+ *
+ * Not part of the test suite. Run {@link #main} or {@code org.openjdk.jmh.Main} on the
+ * module's test classpath after {@code mvn test-compile}; pass {@code -prof gc} to
+ * confirm that matching does not allocate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OpenEndpointMatcherBenchmark {
+
+    @Param({"4", "32", "256"})
+    private int routeCount;
+
+    private OpenEndpointMatcher matcher;
+    private List<String> prefixes;
+    private String openPath;
+
+    @Setup
+    public void setUp() {
+        List<String> rules = new ArrayList<>();
+        prefixes = new ArrayList<>();
+        for (int i = 0; i < routeCount; i++) {
+            rules.add("GET /api/service" + i + "/**");
+            rules.add("POST /api/service" + i + "/public/*/submit");
+            prefixes.add("/api/service" + i);
+        }
+        matcher = OpenEndpointMatcher.compile(rules);
+        openPath = "/api/service" + (routeCount - 1) + "/items/42";
+    }
+
+    @Benchmark
+    public boolean trieOpenHit() {
+        return matcher.matches(HttpMethod.GET, openPath);
+    }
+
+    @Benchmark
+    public boolean trieProtectedMiss() {
+        return matcher.matches(HttpMethod.POST, "/api/orders/42/cancel");
+    }
+
+    @Benchmark
+    public boolean prefixScanMiss() {
+        String path = "/api/orders/42/cancel";
+        return prefixes.stream().anyMatch(path::startsWith);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OpenEndpointMatcherBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
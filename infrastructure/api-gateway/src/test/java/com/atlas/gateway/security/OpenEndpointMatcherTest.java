@@ -0,0 +1,77 @@
+package com.atlas.gateway.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OpenEndpointMatcherTest {
+
+    private final OpenEndpointMatcher matcher = OpenEndpointMatcher.compile(List.of(
+            "GET|HEAD /api/products/**",
+            "POST /api/auth/login",
+            "GET /api/categories/*/products",
+            "/api/health"
+    ));
+
+    @Test
+    @DisplayName("Should open multi-segment wildcards only for the listed methods")
+    void matches_MultiWildcard_IsMethodAware() {
+        assertThat(matcher.matches(HttpMethod.GET, "/api/products")).isTrue();
+        assertThat(matcher.matches(HttpMethod.GET, "/api/products/")).isTrue();
+        assertThat(matcher.matches(HttpMethod.HEAD, "/api/products/123/reviews")).isTrue();
+        assertThat(matcher.matches(HttpMethod.POST, "/api/products")).isFalse();
+        assertThat(matcher.matches(HttpMethod.DELETE, "/api/products/123")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should match whole segments rather than string prefixes")
+    void matches_SegmentBoundaries() {
+        assertThat(matcher.matches(HttpMethod.GET, "/api/productsXYZ")).isFalse();
+        assertThat(matcher.matches(HttpMethod.POST, "/api/auth/login")).isTrue();
+        assertThat(matcher.matches(HttpMethod.POST, "/api/auth/login/extra")).isFalse();
+        assertThat(matcher.matches(HttpMethod.POST, "/api/auth/loginx")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should match single-segment wildcards and method-less rules")
+    void matches_SingleWildcardAndAnyMethod() {
+        assertThat(matcher.matches(HttpMethod.GET, "/api/categories/42/products")).isTrue();
+        assertThat(matcher.matches(HttpMethod.GET, "/api/categories/42/7/products")).isFalse();
+        assertThat(matcher.matches(HttpMethod.PUT, "/api/health")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should reject dot segments and malformed paths")
+    void matches_DotSegments_AreNotOpen() {
+        assertThat(matcher.matches(HttpMethod.GET, "/api/products/../orders")).isFalse();
+        assertThat(matcher.matches(HttpMethod.GET, "/api/products/./1")).isFalse();
+        assertThat(matcher.matches(HttpMethod.GET, "api/products")).isFalse();
+        assertThat(matcher.matches(HttpMethod.GET, "//api/products")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should match the decoded path and reject encoded dot segments")
+    void matches_EncodedPath_MatchesDecoded() {
+        assertThat(matcher.matches(HttpMethod.GET, "/api/%70roducts/1")).isTrue();
+        assertThat(matcher.matches(HttpMethod.GET, "/api/products/%2e%2e/orders")).isFalse();
+        assertThat(matcher.matches(HttpMethod.GET, "/api/products/%2E%2E%2Forders")).isFalse();
+        assertThat(matcher.matches(HttpMethod.GET, "/api/products/%252e%252e/orders")).isFalse();
+        assertThat(matcher.matches(HttpMethod.GET, "/api/products/..;/orders")).isFalse();
+        assertThat(matcher.matches(HttpMethod.GET, "/api/products/..%5corders")).isFalse();
+        assertThat(matcher.matches(HttpMethod.GET, "/api/products/%zz")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should reject rules with a non-terminal multi-segment wildcard")
+    void compile_InvalidRule_Throws() {
+        assertThatThrownBy(() -> OpenEndpointMatcher.compile(List.of("GET /api/**/products")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> OpenEndpointMatcher.compile(List.of("GET api/products")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
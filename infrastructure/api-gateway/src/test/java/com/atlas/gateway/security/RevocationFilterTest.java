@@ -0,0 +1,41 @@
+package com.atlas.gateway.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RevocationFilterTest {
+
+    /** Filter for 10 ids at 1% written by the user service after adding family-1 and family-2. */
+    private static final String PUBLISHED = "0000000900000002000600200004000c0e000050110380a0";
+
+    @Test
+    @DisplayName("Should read the filter the user service publishes")
+    void parse_PublishedFilter_MatchesSameIds() {
+        RevocationFilter filter = RevocationFilter.parse(HexFormat.of().parseHex(PUBLISHED));
+
+        assertThat(filter.mightContain("family-1")).isTrue();
+        assertThat(filter.mightContain("family-2")).isTrue();
+        assertThat(filter.mightContain("family-3")).isFalse();
+        assertThat(filter.mightContain("other")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should contain nothing before the first filter is fetched")
+    void empty_ContainsNothing() {
+        assertThat(RevocationFilter.EMPTY.mightContain("family-1")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should reject truncated or inconsistent filters")
+    void parse_Malformed_Throws() {
+        assertThatThrownBy(() -> RevocationFilter.parse(new byte[4]))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RevocationFilter.parse(HexFormat.of().parseHex("000000090000000300")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,31 @@
+package com.atlas.gateway.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SigningKeysTest {
+
+    @Test
+    @DisplayName("Should index the public keys of a JWKS document by key id")
+    void parse_Jwks_IndexesByKeyId() {
+        KeyPair first = Jwts.SIG.ES256.keyPair().build();
+        KeyPair second = Jwts.SIG.ES256.keyPair().build();
+        String json = "{\"keys\":["
+                + Jwks.json(Jwks.builder().key(first.getPublic()).id("key-1").build()) + ","
+                + Jwks.json(Jwks.builder().key(second.getPublic()).id("key-2").build()) + "]}";
+
+        Map<String, PublicKey> keys = SigningKeys.parse(json);
+
+        assertThat(keys).containsOnlyKeys("key-1", "key-2");
+        assertThat(keys.get("key-1").getEncoded()).isEqualTo(first.getPublic().getEncoded());
+        assertThat(keys.get("key-2").getEncoded()).isEqualTo(second.getPublic().getEncoded());
+    }
+}
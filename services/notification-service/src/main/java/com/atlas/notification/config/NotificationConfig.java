@@ -0,0 +1,78 @@
+package com.atlas.notification.config;
+
+import com.atlas.notification.service.PooledJavaMailSender;
+import com.atlas.notification.service.SendRateLimiter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mail.MailProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Properties;
+
+/**
+ * Sending limits and the SMTP connection pool for notification delivery.
+ */
+@Configuration
+@EnableConfigurationProperties(MailProperties.class)
+public class NotificationConfig {
+
+    /**
+     * Cap on low priority sends (campaigns, digests), leaving SMTP capacity for the rest.
+     */
+    @Bean
+    public SendRateLimiter lowPriorityRateLimiter(
+            @Value("${atlas.notification.priority.low.max-per-second:20}") double maxPerSecond) {
+        return new SendRateLimiter(maxPerSecond);
+    }
+
+    /**
+     * Replaces Boot's per-message-connection mail sender; configured from the same
+     * {@code spring.mail.*} properties. Pool usage is exported as
+     * {@code notification.smtp.connections} and {@code notification.smtp.connections.opened}.
+     */
+    @Bean
+    public PooledJavaMailSender mailSender(
+            MailProperties properties,
+            MeterRegistry meterRegistry,
+            @Value("${atlas.notification.smtp.pool.max-connections:8}") int maxConnections,
+            @Value("${atlas.notification.smtp.pool.reserved-for-urgent:2}") int reservedForUrgent,
+            @Value("${atlas.notification.smtp.pool.max-messages-per-connection:100}") int maxMessagesPerConnection,
+            @Value("${atlas.notification.smtp.pool.idle-timeout:60s}") Duration idleTimeout,
+            @Value("${atlas.notification.smtp.pool.validate-after-idle:5s}") Duration validateAfterIdle,
+            @Value("${atlas.notification.smtp.pool.borrow-timeout:30s}") Duration borrowTimeout) {
+        PooledJavaMailSender sender = new PooledJavaMailSender(maxConnections, reservedForUrgent, maxMessagesPerConnection,
+                idleTimeout, validateAfterIdle, borrowTimeout);
+        sender.setHost(properties.getHost());
+        if (properties.getPort() != null) {
+            sender.setPort(properties.getPort());
+        }
+        sender.setUsername(properties.getUsername());
+        sender.setPassword(properties.getPassword());
+        sender.setProtocol(properties.getProtocol());
+        if (properties.getDefaultEncoding() != null) {
+            sender.setDefaultEncoding(properties.getDefaultEncoding().name());
+        }
+        Properties javaMailProperties = new Properties();
+        javaMailProperties.putAll(properties.getProperties());
+        sender.setJavaMailProperties(javaMailProperties);
+
+        Gauge.builder("notification.smtp.connections", sender, PooledJavaMailSender::activeConnections)
+                .description("SMTP connections by state")
+                .tag("state", "active")
+                .register(meterRegistry);
+        Gauge.builder("notification.smtp.connections", sender, PooledJavaMailSender::idleConnections)
+                .description("SMTP connections by state")
+                .tag("state", "idle")
+                .register(meterRegistry);
+        FunctionCounter.builder("notification.smtp.connections.opened", sender,
+                        PooledJavaMailSender::openedConnections)
+                .description("SMTP connections opened")
+                .register(meterRegistry);
+        return sender;
+    }
+}
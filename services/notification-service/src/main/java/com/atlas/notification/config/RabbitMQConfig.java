@@ -1,19 +1,30 @@
 package com.atlas.notification.config;
 
+import com.atlas.common.event.NotificationEvent;
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 /**
  * RabbitMQ configuration for receiving notification events.
  */
 @Configuration
 public class RabbitMQConfig {
 
+    /** Container factory for the notification listeners, which take messages in batches. */
+    public static final String BATCH_LISTENER_FACTORY = "batchListenerContainerFactory";
+
+    /** Container factory for urgent notifications, handled one by one without batching delay. */
+    public static final String URGENT_LISTENER_FACTORY = "urgentListenerContainerFactory";
+
     // Order events
     public static final String ORDER_EXCHANGE = "order.exchange";
     public static final String ORDER_CREATED_QUEUE = "order.created.queue";
@@ -23,9 +34,20 @@ public class RabbitMQConfig {
     public static final String PAYMENT_COMPLETED_QUEUE = "payment.completed.queue";
     public static final String PAYMENT_FAILED_QUEUE = "payment.failed.queue";
 
-    // Notification queue
+    // User events, replicated into the local user contact table
+    public static final String USER_EXCHANGE = "user.exchange";
+    public static final String USER_CREATED_QUEUE = "user.created.queue";
+
+    // Notification queue; messages published here are forwarded to the priority queues
     public static final String NOTIFICATION_QUEUE = "notification.queue";
 
+    // Notification requests by priority, routed with NotificationEvent.Priority#routingKey
+    public static final String NOTIFICATION_EXCHANGE = "notification.exchange";
+    public static final String NOTIFICATION_URGENT_QUEUE = "notification.urgent.queue";
+    public static final String NOTIFICATION_HIGH_QUEUE = "notification.high.queue";
+    public static final String NOTIFICATION_NORMAL_QUEUE = "notification.normal.queue";
+    public static final String NOTIFICATION_LOW_QUEUE = "notification.low.queue";
+
     @Bean
     public TopicExchange orderExchange() {
         return new TopicExchange(ORDER_EXCHANGE);
@@ -36,6 +58,16 @@ public class RabbitMQConfig {
         return new TopicExchange(PAYMENT_EXCHANGE);
     }
 
+    @Bean
+    public TopicExchange userExchange() {
+        return new TopicExchange(USER_EXCHANGE);
+    }
+
+    @Bean
+    public DirectExchange notificationExchange() {
+        return new DirectExchange(NOTIFICATION_EXCHANGE);
+    }
+
     @Bean
     public Queue orderCreatedQueue() {
         return QueueBuilder.durable(ORDER_CREATED_QUEUE).build();
@@ -51,11 +83,36 @@ public class RabbitMQConfig {
         return QueueBuilder.durable(PAYMENT_FAILED_QUEUE).build();
     }
 
+    @Bean
+    public Queue userCreatedQueue() {
+        return QueueBuilder.durable(USER_CREATED_QUEUE).build();
+    }
+
     @Bean
     public Queue notificationQueue() {
         return QueueBuilder.durable(NOTIFICATION_QUEUE).build();
     }
 
+    @Bean
+    public Queue notificationUrgentQueue() {
+        return QueueBuilder.durable(NOTIFICATION_URGENT_QUEUE).build();
+    }
+
+    @Bean
+    public Queue notificationHighQueue() {
+        return QueueBuilder.durable(NOTIFICATION_HIGH_QUEUE).build();
+    }
+
+    @Bean
+    public Queue notificationNormalQueue() {
+        return QueueBuilder.durable(NOTIFICATION_NORMAL_QUEUE).build();
+    }
+
+    @Bean
+    public Queue notificationLowQueue() {
+        return QueueBuilder.durable(NOTIFICATION_LOW_QUEUE).build();
+    }
+
     @Bean
     public Binding orderCreatedBinding() {
         return BindingBuilder.bind(orderCreatedQueue()).to(orderExchange()).with("order.created");
@@ -71,15 +128,94 @@ public class RabbitMQConfig {
         return BindingBuilder.bind(paymentFailedQueue()).to(paymentExchange()).with("payment.failed");
     }
 
+    @Bean
+    public Binding userCreatedBinding() {
+        return BindingBuilder.bind(userCreatedQueue()).to(userExchange()).with("user.created");
+    }
+
+    @Bean
+    public Binding notificationUrgentBinding() {
+        return BindingBuilder.bind(notificationUrgentQueue()).to(notificationExchange())
+                .with(NotificationEvent.Priority.URGENT.routingKey());
+    }
+
+    @Bean
+    public Binding notificationHighBinding() {
+        return BindingBuilder.bind(notificationHighQueue()).to(notificationExchange())
+                .with(NotificationEvent.Priority.HIGH.routingKey());
+    }
+
+    @Bean
+    public Binding notificationNormalBinding() {
+        return BindingBuilder.bind(notificationNormalQueue()).to(notificationExchange())
+                .with(NotificationEvent.Priority.NORMAL.routingKey());
+    }
+
+    @Bean
+    public Binding notificationLowBinding() {
+        return BindingBuilder.bind(notificationLowQueue()).to(notificationExchange())
+                .with(NotificationEvent.Priority.LOW.routingKey());
+    }
+
     @Bean
     public MessageConverter jsonMessageConverter() {
         return new Jackson2JsonMessageConverter();
     }
 
+    /**
+     * Consumers collect up to {@code batch-size} messages, or as many as arrive within
+     * {@code receive-timeout}, and hand them to the listener as one list. Acknowledgement is
+     * manual: the listener passes the batch and its channel to
+     * {@link com.atlas.notification.service.NotificationBatchProcessor}, which acks each
+     * message once it was handled. Concurrency is set per listener.
+     */
+    @Bean(BATCH_LISTENER_FACTORY)
+    public SimpleRabbitListenerContainerFactory batchListenerContainerFactory(
+            ConnectionFactory connectionFactory,
+            @Value("${atlas.notification.consumer.batch-size:50}") int batchSize,
+            @Value("${atlas.notification.consumer.receive-timeout:200ms}") Duration receiveTimeout,
+            @Value("${atlas.notification.consumer.prefetch:100}") int prefetch) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(jsonMessageConverter());
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(receiveTimeout.toMillis());
+        // A consumer needs at least a full batch in flight to ever fill one
+        factory.setPrefetchCount(Math.max(prefetch, batchSize));
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        factory.setDefaultRequeueRejected(false);
+        return factory;
+    }
+
+    /**
+     * Urgent notifications skip batching, so one never waits for a batch to fill, and are
+     * sent on the consumer threads, which serve nothing else. Each is acked after the
+     * listener returns; one that fails is requeued, and the listener rejects it for good
+     * if it fails again.
+     */
+    @Bean(URGENT_LISTENER_FACTORY)
+    public SimpleRabbitListenerContainerFactory urgentListenerContainerFactory(
+            ConnectionFactory connectionFactory,
+            @Value("${atlas.notification.priority.urgent.prefetch:1}") int prefetch) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(jsonMessageConverter());
+        factory.setPrefetchCount(prefetch);
+        factory.setDefaultRequeueRejected(true);
+        return factory;
+    }
+
+    /**
+     * Publishes as mandatory, so with {@code publisher-returns} an unroutable message is
+     * returned to the publisher rather than dropped by the broker.
+     */
     @Bean
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
         rabbitTemplate.setMessageConverter(jsonMessageConverter());
+        rabbitTemplate.setMandatory(true);
         return rabbitTemplate;
     }
 }
@@ -0,0 +1,63 @@
+package com.atlas.notification.entity;
+
+import com.atlas.common.event.NotificationEvent.Priority;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * An email notification held back to be merged with others for the same user, see
+ * {@link com.atlas.notification.service.NotificationCoalescer}.
+ */
+@Entity
+@Table(name = "pending_notifications", indexes = {
+        @Index(name = "idx_pending_notifications_due_at", columnList = "due_at"),
+        @Index(name = "idx_pending_notifications_user_id", columnList = "user_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PendingNotification {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "recipient_email", nullable = false)
+    private String recipientEmail;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(name = "template_name", nullable = false)
+    private String templateName;
+
+    /** Template variables as JSON. */
+    @Column(name = "template_data", columnDefinition = "text")
+    private String templateData;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Priority priority;
+
+    /** When the notifications of this user are sent, unless another one of theirs is due earlier. */
+    @Column(name = "due_at", nullable = false)
+    private LocalDateTime dueAt;
+
+    /** Set while an instance is sending this notification; another may take it over after this time. */
+    @Column(name = "claimed_until")
+    private LocalDateTime claimedUntil;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private int attempts;
+}
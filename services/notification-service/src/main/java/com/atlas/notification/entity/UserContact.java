@@ -0,0 +1,49 @@
+package com.atlas.notification.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Local replica of a user's contact details, filled from user-service's
+ * {@code user.created} events; users that existed before the replica are added by
+ * user-service's contact backfill.
+ */
+@Entity
+@Table(name = "user_contacts")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserContact {
+
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(nullable = false)
+    private String email;
+
+    @Column(name = "first_name")
+    private String firstName;
+
+    @Column(name = "last_name")
+    private String lastName;
+
+    @Column(name = "phone_number")
+    private String phoneNumber;
+
+    /** Version of the user in user-service when this copy was taken. */
+    @Column(name = "source_version", nullable = false)
+    private Long sourceVersion;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public String getFullName() {
+        return firstName + " " + lastName;
+    }
+}
@@ -1,29 +1,68 @@
 package com.atlas.notification.listener;
 
 import com.atlas.common.event.NotificationEvent;
+import com.atlas.common.event.NotificationEvent.Priority;
 import com.atlas.common.event.OrderCreatedEvent;
 import com.atlas.common.event.PaymentProcessedEvent;
-import com.atlas.notification.service.EmailService;
+import com.atlas.notification.config.RabbitMQConfig;
+import com.atlas.notification.service.NotificationBatchProcessor;
+import com.atlas.notification.service.NotificationCoalescer;
+import com.atlas.notification.service.SendRateLimiter;
+import com.atlas.notification.service.UserContactService;
+import com.rabbitmq.client.Channel;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Event listener for processing notification events from other services.
+ *
+ * Messages arrive in batches (see {@link RabbitMQConfig#batchListenerContainerFactory});
+ * the messages of a batch are handled in parallel by {@link NotificationBatchProcessor},
+ * which acks each one only after it was sent, or stored by {@link NotificationCoalescer}
+ * to be merged with the user's next notifications. A send that fails is retried once
+ * through redelivery.
+ * Notification requests are consumed from one queue per {@link Priority}, each with its
+ * own consumers and workers; urgent ones are handled one at a time as they arrive.
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class NotificationEventListener {
 
-    private final EmailService emailService;
+    private final NotificationCoalescer coalescer;
+    private final UserContactService userContactService;
+    private final NotificationBatchProcessor batchProcessor;
+    private final SendRateLimiter lowPriorityRateLimiter;
+    private final RabbitTemplate rabbitTemplate;
 
-    @RabbitListener(queues = "order.created.queue")
-    public void handleOrderCreated(OrderCreatedEvent event) {
+    @Value("${atlas.notification.consumer.forward-confirm-timeout:5s}")
+    private Duration forwardConfirmTimeout;
+
+    @RabbitListener(queues = RabbitMQConfig.ORDER_CREATED_QUEUE, containerFactory = RabbitMQConfig.BATCH_LISTENER_FACTORY,
+            concurrency = "${atlas.notification.consumer.concurrency.order-created:1-4}")
+    public void onOrderCreated(List<Message<OrderCreatedEvent>> events, Channel channel) {
+        batchProcessor.process(RabbitMQConfig.ORDER_CREATED_QUEUE, events, channel, this::handleOrderCreated);
+    }
+
+    private void handleOrderCreated(OrderCreatedEvent event) {
         log.info("Received order created event: {}", event.getOrderId());
 
         Map<String, Object> templateData = new HashMap<>();
@@ -33,13 +72,24 @@ public class NotificationEventListener {
         templateData.put("totalAmount", event.getTotalAmount());
         templateData.put("shippingAddress", event.getShippingAddress());
 
-        // Note: In production, we would fetch user email from User Service
-        // For demo, this would be triggered with user email from the event
-        log.info("Order confirmation notification queued for order: {}", event.getOrderId());
+        userContactService.findContact(event.getUserId()).ifPresentOrElse(
+                contact -> {
+                    templateData.put("customerName", contact.getFullName());
+                    coalescer.send(event.getUserId(), contact.getEmail(), "Order Confirmation",
+                            "order-confirmation", templateData, Priority.HIGH);
+                    log.info("Order confirmation notification queued for order: {}", event.getOrderId());
+                },
+                () -> log.warn("No contact details for user {}; skipping confirmation of order {}",
+                        event.getUserId(), event.getOrderId()));
+    }
+
+    @RabbitListener(queues = RabbitMQConfig.PAYMENT_COMPLETED_QUEUE, containerFactory = RabbitMQConfig.BATCH_LISTENER_FACTORY,
+            concurrency = "${atlas.notification.consumer.concurrency.payment-completed:1-4}")
+    public void onPaymentCompleted(List<Message<PaymentProcessedEvent>> events, Channel channel) {
+        batchProcessor.process(RabbitMQConfig.PAYMENT_COMPLETED_QUEUE, events, channel, this::handlePaymentCompleted);
     }
 
-    @RabbitListener(queues = "payment.completed.queue")
-    public void handlePaymentCompleted(PaymentProcessedEvent event) {
+    private void handlePaymentCompleted(PaymentProcessedEvent event) {
         log.info("Received payment completed event: {}", event.getPaymentId());
 
         Map<String, Object> templateData = new HashMap<>();
@@ -51,8 +101,13 @@ public class NotificationEventListener {
         log.info("Payment confirmation notification queued for payment: {}", event.getPaymentId());
     }
 
-    @RabbitListener(queues = "payment.failed.queue")
-    public void handlePaymentFailed(PaymentProcessedEvent event) {
+    @RabbitListener(queues = RabbitMQConfig.PAYMENT_FAILED_QUEUE, containerFactory = RabbitMQConfig.BATCH_LISTENER_FACTORY,
+            concurrency = "${atlas.notification.consumer.concurrency.payment-failed:1-4}")
+    public void onPaymentFailed(List<Message<PaymentProcessedEvent>> events, Channel channel) {
+        batchProcessor.process(RabbitMQConfig.PAYMENT_FAILED_QUEUE, events, channel, this::handlePaymentFailed);
+    }
+
+    private void handlePaymentFailed(PaymentProcessedEvent event) {
         log.warn("Received payment failed event: {}", event.getPaymentId());
 
         Map<String, Object> templateData = new HashMap<>();
@@ -64,29 +119,129 @@ public class NotificationEventListener {
         log.info("Payment failure notification queued for payment: {}", event.getPaymentId());
     }
 
-    @RabbitListener(queues = "notification.queue")
-    public void handleNotificationRequest(NotificationEvent event) {
+    /**
+     * Requests published straight to {@code notification.queue} are forwarded to the queue of
+     * their priority, so they get the same isolation as requests routed there directly. A
+     * request is acked only once the broker confirmed the forwarded copy and did not return
+     * it as unroutable; otherwise it is handled as a failed send.
+     */
+    @RabbitListener(queues = RabbitMQConfig.NOTIFICATION_QUEUE, containerFactory = RabbitMQConfig.BATCH_LISTENER_FACTORY,
+            concurrency = "${atlas.notification.consumer.concurrency.notification:1-2}")
+    public void onNotificationRequests(List<Message<NotificationEvent>> events, Channel channel) {
+        batchProcessor.process(RabbitMQConfig.NOTIFICATION_QUEUE, events, channel, this::forward);
+    }
+
+    private void forward(NotificationEvent event) {
+        Priority priority = event.getPriority() != null ? event.getPriority() : Priority.NORMAL;
+        CorrelationData correlation = new CorrelationData();
+        rabbitTemplate.convertAndSend(RabbitMQConfig.NOTIFICATION_EXCHANGE, priority.routingKey(), event, correlation);
+        CorrelationData.Confirm confirm;
+        try {
+            confirm = correlation.getFuture().get(forwardConfirmTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmqpException("Interrupted while waiting for the broker to confirm a forwarded notification", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new AmqpException("Broker did not confirm forwarded " + priority + " notification", e);
+        }
+        if (!confirm.isAck()) {
+            throw new AmqpException("Broker rejected forwarded " + priority + " notification: " + confirm.getReason());
+        }
+        // A return is always recorded before the confirm completes
+        if (correlation.getReturned() != null) {
+            throw new AmqpException("Forwarded " + priority + " notification was unroutable: "
+                    + correlation.getReturned().getReplyText());
+        }
+    }
+
+    @RabbitListener(queues = RabbitMQConfig.NOTIFICATION_URGENT_QUEUE,
+            containerFactory = RabbitMQConfig.URGENT_LISTENER_FACTORY,
+            concurrency = "${atlas.notification.priority.urgent.concurrency:2-4}")
+    public void onUrgentNotification(NotificationEvent event,
+                                     @Header(AmqpHeaders.REDELIVERED) boolean redelivered) {
+        try {
+            handleNotificationRequest(event);
+        } catch (RuntimeException e) {
+            if (redelivered) {
+                log.error("Dropping urgent notification for user {} after it failed on redelivery",
+                        event.getUserId(), e);
+                throw new AmqpRejectAndDontRequeueException(e);
+            }
+            throw e;
+        }
+    }
+
+    @RabbitListener(queues = RabbitMQConfig.NOTIFICATION_HIGH_QUEUE, containerFactory = RabbitMQConfig.BATCH_LISTENER_FACTORY,
+            concurrency = "${atlas.notification.priority.high.concurrency:1-4}")
+    public void onHighPriorityNotifications(List<Message<NotificationEvent>> events, Channel channel) {
+        batchProcessor.process(RabbitMQConfig.NOTIFICATION_HIGH_QUEUE, events, channel, this::handleNotificationRequest);
+    }
+
+    @RabbitListener(queues = RabbitMQConfig.NOTIFICATION_NORMAL_QUEUE, containerFactory = RabbitMQConfig.BATCH_LISTENER_FACTORY,
+            concurrency = "${atlas.notification.priority.normal.concurrency:1-4}")
+    public void onNormalPriorityNotifications(List<Message<NotificationEvent>> events, Channel channel) {
+        batchProcessor.process(RabbitMQConfig.NOTIFICATION_NORMAL_QUEUE, events, channel, this::handleNotificationRequest);
+    }
+
+    /**
+     * Low priority requests are held for the next digest (see {@link NotificationCoalescer}),
+     * whose sends the coalescer paces. Without coalescing they are paced here by
+     * {@code lowPriorityRateLimiter}, so the backlog of a campaign stays in the broker
+     * rather than competing for SMTP with urgent mail.
+     */
+    @RabbitListener(queues = RabbitMQConfig.NOTIFICATION_LOW_QUEUE, containerFactory = RabbitMQConfig.BATCH_LISTENER_FACTORY,
+            concurrency = "${atlas.notification.priority.low.concurrency:1}")
+    public void onLowPriorityNotifications(List<Message<NotificationEvent>> events, Channel channel) {
+        batchProcessor.process(RabbitMQConfig.NOTIFICATION_LOW_QUEUE, events, channel, event -> {
+            try {
+                if (!coalescer.isEnabled()) {
+                    lowPriorityRateLimiter.acquire();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting to send", e);
+            }
+            handleNotificationRequest(event);
+        });
+    }
+
+    private void handleNotificationRequest(NotificationEvent event) {
         log.info("Received notification request: {} for user {}", 
                 event.getType(), event.getUserId());
+        fillRecipient(event);
 
         switch (event.getChannel()) {
-            case EMAIL -> emailService.sendEmail(
-                    event.getRecipientEmail(),
-                    event.getSubject(),
-                    event.getTemplateName(),
-                    event.getTemplateData()
-            );
+            case EMAIL -> sendEmail(event);
             case SMS -> log.info("SMS notification would be sent to: {}", event.getRecipientPhone());
             case ALL -> {
-                emailService.sendEmail(
-                        event.getRecipientEmail(),
-                        event.getSubject(),
-                        event.getTemplateName(),
-                        event.getTemplateData()
-                );
+                sendEmail(event);
                 log.info("SMS notification would be sent to: {}", event.getRecipientPhone());
             }
             default -> log.warn("Unknown notification channel: {}", event.getChannel());
         }
     }
+
+    private void sendEmail(NotificationEvent event) {
+        coalescer.send(event.getUserId(), event.getRecipientEmail(), event.getSubject(),
+                event.getTemplateName(), event.getTemplateData(), event.getPriority());
+    }
+
+    /**
+     * Take missing recipient details from the local contact replica, so producers only
+     * need to know the user id.
+     */
+    private void fillRecipient(NotificationEvent event) {
+        if (event.getRecipientEmail() != null && event.getRecipientPhone() != null) {
+            return;
+        }
+        userContactService.findContact(event.getUserId()).ifPresentOrElse(contact -> {
+            if (event.getRecipientEmail() == null) {
+                event.setRecipientEmail(contact.getEmail());
+            }
+            if (event.getRecipientPhone() == null) {
+                event.setRecipientPhone(contact.getPhoneNumber());
+            }
+        }, () -> log.warn("No contact details for user {}; {} notification has only the recipient its producer set",
+                event.getUserId(), event.getType()));
+    }
 }
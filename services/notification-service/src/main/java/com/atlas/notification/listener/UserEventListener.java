@@ -0,0 +1,26 @@
+package com.atlas.notification.listener;
+
+import com.atlas.common.event.UserCreatedEvent;
+import com.atlas.notification.service.UserContactService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the local user contact replica in sync with user-service.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserEventListener {
+
+    private final UserContactService userContactService;
+
+    @RabbitListener(queues = "user.created.queue")
+    public void handleUserCreated(UserCreatedEvent event) {
+        log.debug("Received user created event: {}", event.getUserId());
+        userContactService.apply(event.getUserId(), event.getEmail(), event.getFirstName(),
+                event.getLastName(), event.getPhoneNumber(), event.getAggregateVersion(), event.getTimestamp());
+    }
+}
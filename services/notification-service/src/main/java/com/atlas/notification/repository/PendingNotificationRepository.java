@@ -0,0 +1,35 @@
+package com.atlas.notification.repository;
+
+import com.atlas.notification.entity.PendingNotification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for notifications waiting to be merged and sent.
+ */
+@Repository
+public interface PendingNotificationRepository extends JpaRepository<PendingNotification, UUID> {
+
+    /**
+     * Lock all unclaimed pending notifications of up to {@code limit} users that have at
+     * least one notification due, oldest first per user. Users with a due notification
+     * other than a low priority one are taken first, so a digest run does not hold back
+     * everyone else. Rows another instance is claiming are skipped and claimed rows are
+     * left out until their claim expires, so each notification is sent by one instance
+     * only. Must run in a transaction.
+     */
+    @Query(value = "SELECT * FROM pending_notifications WHERE user_id IN ("
+            + "SELECT user_id FROM pending_notifications WHERE due_at <= :now "
+            + "AND (claimed_until IS NULL OR claimed_until <= :now) "
+            + "GROUP BY user_id ORDER BY bool_or(priority <> 'LOW') DESC, min(due_at) LIMIT :limit) "
+            + "AND (claimed_until IS NULL OR claimed_until <= :now) "
+            + "ORDER BY user_id, created_at FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<PendingNotification> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
@@ -0,0 +1,44 @@
+package com.atlas.notification.repository;
+
+import com.atlas.notification.entity.UserContact;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Repository for the replicated user contacts.
+ */
+@Repository
+public interface UserContactRepository extends JpaRepository<UserContact, UUID> {
+
+    /**
+     * Insert or update a contact in one statement, unless the stored copy is already at
+     * {@code sourceVersion} or newer.
+     *
+     * @return 1 if the contact was written, 0 if the event was stale or a duplicate
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO user_contacts "
+            + "(user_id, email, first_name, last_name, phone_number, source_version, updated_at) "
+            + "VALUES (:userId, :email, :firstName, :lastName, :phoneNumber, :sourceVersion, :updatedAt) "
+            + "ON CONFLICT (user_id) DO UPDATE SET email = EXCLUDED.email, "
+            + "first_name = EXCLUDED.first_name, last_name = EXCLUDED.last_name, "
+            + "phone_number = EXCLUDED.phone_number, source_version = EXCLUDED.source_version, "
+            + "updated_at = EXCLUDED.updated_at "
+            + "WHERE user_contacts.source_version < EXCLUDED.source_version",
+            nativeQuery = true)
+    int upsert(@Param("userId") UUID userId,
+               @Param("email") String email,
+               @Param("firstName") String firstName,
+               @Param("lastName") String lastName,
+               @Param("phoneNumber") String phoneNumber,
+               @Param("sourceVersion") long sourceVersion,
+               @Param("updatedAt") LocalDateTime updatedAt);
+}
@@ -3,16 +3,19 @@ package com.atlas.notification.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
 
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * Service for sending email notifications.
@@ -22,8 +25,8 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class EmailService {
 
-    private final JavaMailSender mailSender;
-    private final TemplateEngine templateEngine;
+    private final PooledJavaMailSender mailSender;
+    private final TemplateRenderer templateRenderer;
 
     @Value("${atlas.notification.email.from:noreply@atlas-commerce.com}")
     private String fromEmail;
@@ -31,41 +34,108 @@ public class EmailService {
     @Value("${atlas.notification.email.enabled:false}")
     private boolean emailEnabled;
 
+    @Value("${atlas.notification.smtp.bulk-chunk-size:50}")
+    private int bulkChunkSize;
+
     /**
      * Send an email using a Thymeleaf template.
+     *
+     * Sends on the calling thread, so a listener acks the request only once the mail
+     * server accepted it.
+     *
+     * @throws MailException if the email could not be built or sent
      */
-    @Async
     public void sendEmail(String to, String subject, String templateName, Map<String, Object> variables) {
+        sendEmail(to, subject, templateName, variables, false);
+    }
+
+    /**
+     * Send an urgent email using a Thymeleaf template, over the SMTP connections reserved
+     * for urgent mail if all others are busy.
+     *
+     * @throws MailException if the email could not be built or sent
+     */
+    public void sendUrgentEmail(String to, String subject, String templateName, Map<String, Object> variables) {
+        sendEmail(to, subject, templateName, variables, true);
+    }
+
+    private void sendEmail(String to, String subject, String templateName, Map<String, Object> variables,
+                           boolean urgent) {
         if (!emailEnabled) {
             log.info("Email disabled - would send to {} with subject: {}", to, subject);
             return;
         }
 
         try {
-            Context context = new Context();
-            context.setVariables(variables);
-            String htmlContent = templateEngine.process(templateName, context);
-
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            
-            helper.setFrom(fromEmail);
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(htmlContent, true);
-
-            mailSender.send(message);
+            MimeMessage message = createHtmlMessage(to, subject, templateRenderer.render(templateName, variables));
+            if (urgent) {
+                mailSender.sendUrgent(message);
+            } else {
+                mailSender.send(message);
+            }
             log.info("Email sent successfully to: {}", to);
 
         } catch (MessagingException e) {
-            log.error("Failed to send email to {}: {}", to, e.getMessage());
+            throw new MailPreparationException("Failed to build email to " + to, e);
+        }
+    }
+
+    /**
+     * Send the same template to many recipients, rendering it only once.
+     *
+     * {@code sharedVariables} are the same for everyone and identified by {@code campaign},
+     * which keys the rendered template (see {@link TemplateRenderer#prepare}); each
+     * recipient's own variables are filled into the rendered HTML, so they may only be
+     * output as text. Every recipient must supply the same variable names. With a
+     * {@code pace}, each email waits for its slot before it is built.
+     *
+     * @return the recipients whose email could not be built or sent
+     */
+    public List<Recipient> sendBulkEmail(String subject, String templateName, String campaign,
+                                         Map<String, Object> sharedVariables, List<Recipient> recipients,
+                                         SendRateLimiter pace) {
+        if (recipients.isEmpty()) {
+            return List.of();
+        }
+        if (!emailEnabled) {
+            log.info("Email disabled - would send {} emails with subject: {}", recipients.size(), subject);
+            return List.of();
+        }
+
+        TemplateRenderer.PreparedTemplate template = templateRenderer.prepare(templateName, campaign,
+                sharedVariables, recipients.get(0).variables().keySet());
+        // Each chunk goes over one pooled SMTP connection
+        List<Recipient> failed = new ArrayList<>();
+        Map<MimeMessage, Recipient> chunk = new LinkedHashMap<>();
+        for (int i = 0; i < recipients.size(); i++) {
+            Recipient recipient = recipients.get(i);
+            if (pace != null && !awaitSlot(pace)) {
+                failed.addAll(recipients.subList(i, recipients.size()));
+                break;
+            }
+            try {
+                chunk.put(createHtmlMessage(recipient.email(), subject, template.personalize(recipient.variables())),
+                        recipient);
+            } catch (MessagingException e) {
+                log.error("Failed to build email to {}: {}", recipient.email(), e.getMessage());
+                failed.add(recipient);
+            }
+            if (chunk.size() == bulkChunkSize) {
+                failed.addAll(sendChunk(chunk));
+                chunk.clear();
+            }
         }
+        failed.addAll(sendChunk(chunk));
+        log.info("Bulk email '{}' sent to {} of {} recipients", subject, recipients.size() - failed.size(),
+                recipients.size());
+        return failed;
     }
 
     /**
-     * Send a simple text email.
+     * Send a simple text email on the calling thread.
+     *
+     * @throws MailException if the email could not be built or sent
      */
-    @Async
     public void sendSimpleEmail(String to, String subject, String text) {
         if (!emailEnabled) {
             log.info("Email disabled - would send simple email to {} with subject: {}", to, subject);
@@ -85,7 +155,58 @@ public class EmailService {
             log.info("Simple email sent successfully to: {}", to);
 
         } catch (MessagingException e) {
-            log.error("Failed to send simple email to {}: {}", to, e.getMessage());
+            throw new MailPreparationException("Failed to build email to " + to, e);
+        }
+    }
+
+    private MimeMessage createHtmlMessage(String to, String subject, String html) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+
+        helper.setFrom(fromEmail);
+        helper.setTo(to);
+        helper.setSubject(subject);
+        helper.setText(html, true);
+        return message;
+    }
+
+    /**
+     * @return the recipients of the messages that were not sent
+     */
+    private List<Recipient> sendChunk(Map<MimeMessage, Recipient> messages) {
+        if (messages.isEmpty()) {
+            return List.of();
         }
+        try {
+            mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+            return List.of();
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                log.error("Failed to send {} bulk emails: {}", messages.size(), e.getMessage());
+                return List.copyOf(messages.values());
+            }
+            log.error("Failed to send {} of {} bulk emails: {}", e.getFailedMessages().size(), messages.size(),
+                    e.getMessage());
+            return e.getFailedMessages().keySet().stream().map(messages::get).filter(Objects::nonNull).toList();
+        } catch (MailException e) {
+            log.error("Failed to send {} bulk emails: {}", messages.size(), e.getMessage());
+            return List.copyOf(messages.values());
+        }
+    }
+
+    private static boolean awaitSlot(SendRateLimiter pace) {
+        try {
+            pace.acquire();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * One recipient of a bulk email and the values of its personal template variables.
+     */
+    public record Recipient(String email, Map<String, Object> variables) {
     }
 }
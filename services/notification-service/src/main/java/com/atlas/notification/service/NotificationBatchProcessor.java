@@ -0,0 +1,195 @@
+package com.atlas.notification.service;
+
+import com.atlas.notification.config.RabbitMQConfig;
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Handles the messages of one consumer batch in parallel and settles them with the broker
+ * once all are done. The high, normal and low priority notification queues each have
+ * their own worker pool; all other queues share a default one.
+ *
+ * The batch listener containers use manual acknowledgement: a message is acked only
+ * after its handler returned, so a notification is not lost if the service stops while
+ * it is being sent. A failed message is requeued once and rejected if it fails again on
+ * redelivery, without redelivering the rest of its batch. Each pool takes at most
+ * {@code worker-queue-capacity} messages beyond its running ones; when it is full the
+ * listener thread waits, so its consumer stops taking deliveries and the backlog stays in
+ * the broker instead of memory. Processed messages are counted as
+ * {@code notification.messages} per queue and outcome, batch sizes are recorded as
+ * {@code notification.batch.size}, and waiting messages per pool as
+ * {@code notification.workers.queued}.
+ */
+@Slf4j
+@Component
+public class NotificationBatchProcessor {
+
+    private final WorkerPool defaultPool;
+    private final Map<String, WorkerPool> queuePools;
+    private final MeterRegistry meterRegistry;
+
+    public NotificationBatchProcessor(MeterRegistry meterRegistry,
+                                      @Value("${atlas.notification.consumer.worker-threads:16}") int workerThreads,
+                                      @Value("${atlas.notification.consumer.worker-queue-capacity:50}") int queueCapacity,
+                                      @Value("${atlas.notification.priority.high.worker-threads:8}") int highThreads,
+                                      @Value("${atlas.notification.priority.normal.worker-threads:8}") int normalThreads,
+                                      @Value("${atlas.notification.priority.low.worker-threads:2}") int lowThreads) {
+        this.meterRegistry = meterRegistry;
+        this.defaultPool = new WorkerPool("notification-worker", workerThreads, queueCapacity, meterRegistry);
+        // Each priority class has its own workers, so a bulk campaign cannot occupy the threads of higher ones
+        this.queuePools = Map.of(
+                RabbitMQConfig.NOTIFICATION_HIGH_QUEUE,
+                new WorkerPool("notification-high", highThreads, queueCapacity, meterRegistry),
+                RabbitMQConfig.NOTIFICATION_NORMAL_QUEUE,
+                new WorkerPool("notification-normal", normalThreads, queueCapacity, meterRegistry),
+                RabbitMQConfig.NOTIFICATION_LOW_QUEUE,
+                new WorkerPool("notification-low", lowThreads, queueCapacity, meterRegistry));
+    }
+
+    /**
+     * Run {@code handler} for every message of a batch from {@code queue}, wait for all of
+     * them and ack or reject each on {@code channel}.
+     */
+    public <T> void process(String queue, List<Message<T>> messages, Channel channel, Consumer<T> handler) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        DistributionSummary.builder("notification.batch.size")
+                .description("Messages per consumer batch")
+                .tag("queue", queue)
+                .register(meterRegistry)
+                .record(messages.size());
+        Counter succeeded = counter(queue, "success");
+        Counter failed = counter(queue, "failure");
+        WorkerPool pool = queuePools.getOrDefault(queue, defaultPool);
+
+        List<CompletableFuture<Boolean>> tasks = new ArrayList<>(messages.size());
+        try {
+            for (Message<T> message : messages) {
+                // Blocks while the pool is full, which holds back this consumer
+                pool.slots.acquire();
+                tasks.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        handler.accept(message.getPayload());
+                        succeeded.increment();
+                        return true;
+                    } catch (RuntimeException e) {
+                        failed.increment();
+                        log.error("Failed to process message from {}: {}", queue, e.getMessage(), e);
+                        return false;
+                    } finally {
+                        pool.slots.release();
+                    }
+                }, pool.executor));
+            }
+        } catch (InterruptedException e) {
+            // Shutting down; messages not yet started are requeued below
+            Thread.currentThread().interrupt();
+        }
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0])).exceptionally(e -> null).join();
+        settle(queue, messages, tasks, channel);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        queuePools.values().forEach(pool -> pool.executor.shutdown());
+        defaultPool.executor.shutdown();
+        for (WorkerPool pool : queuePools.values()) {
+            pool.executor.awaitTermination(30, TimeUnit.SECONDS);
+        }
+        defaultPool.executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Reject the failed messages, then ack the rest of the batch with one acknowledgement up
+     * to the highest handled delivery tag.
+     */
+    private <T> void settle(String queue, List<Message<T>> messages, List<CompletableFuture<Boolean>> tasks,
+                            Channel channel) {
+        long lastHandledTag = 0;
+        try {
+            for (int i = 0; i < messages.size(); i++) {
+                MessageHeaders headers = messages.get(i).getHeaders();
+                long tag = headers.get(AmqpHeaders.DELIVERY_TAG, Long.class);
+                if (i >= tasks.size()) {
+                    channel.basicNack(tag, false, true);
+                } else if (tasks.get(i).isCompletedExceptionally() || !tasks.get(i).join()) {
+                    boolean requeue = !Boolean.TRUE.equals(headers.get(AmqpHeaders.REDELIVERED, Boolean.class));
+                    if (!requeue) {
+                        log.error("Dropping message from {} after it failed on redelivery", queue);
+                    }
+                    channel.basicNack(tag, false, requeue);
+                } else {
+                    lastHandledTag = Math.max(lastHandledTag, tag);
+                }
+            }
+            // Acks every handled message; those rejected above are no longer outstanding, and
+            // acking a rejected tag would be an unknown delivery tag that closes the channel
+            if (lastHandledTag > 0) {
+                channel.basicAck(lastHandledTag, true);
+            }
+        } catch (IOException e) {
+            // The channel is gone; the broker redelivers everything it did not get an ack for
+            log.warn("Could not acknowledge batch from {}: {}", queue, e.getMessage());
+        }
+    }
+
+    private Counter counter(String queue, String outcome) {
+        return Counter.builder("notification.messages")
+                .description("Notification messages processed")
+                .tag("queue", queue)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Fixed number of worker threads with a bounded queue in front of them; a listener
+     * takes one of {@code slots} per message before handing it over, so the executor never
+     * has to reject.
+     */
+    private static final class WorkerPool {
+
+        private final ThreadPoolExecutor executor;
+        private final Semaphore slots;
+
+        private WorkerPool(String name, int threads, int queueCapacity, MeterRegistry meterRegistry) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            int capacity = threads + Math.max(queueCapacity, 1);
+            // A task frees its slot before its worker picks up the next one, so the queue
+            // has room for every slot rather than just the waiting ones
+            this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(capacity), runnable -> {
+                        Thread thread = new Thread(runnable, name + "-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            this.slots = new Semaphore(capacity);
+            Gauge.builder("notification.workers.queued", executor, e -> e.getQueue().size())
+                    .description("Messages waiting for a notification worker")
+                    .tag("pool", name)
+                    .register(meterRegistry);
+        }
+    }
+}
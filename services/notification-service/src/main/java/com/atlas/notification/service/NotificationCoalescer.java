@@ -0,0 +1,405 @@
+package com.atlas.notification.service;
+
+import com.atlas.common.event.NotificationEvent.Priority;
+import com.atlas.notification.entity.PendingNotification;
+import com.atlas.notification.repository.PendingNotificationRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Merges the email notifications a user gets in quick succession into one email.
+ *
+ * A notification is stored in {@code pending_notifications} rather than sent, due
+ * {@code window} later; a low priority one is due at the next {@code digest.cron} run
+ * instead. Every {@code flush-interval} the users with a due notification get all their
+ * pending ones at once, sent by {@code flush-threads} workers: a single notification is
+ * sent with its own template, several are merged into the digest template with the
+ * {@value #SECTION_FRAGMENT} fragment of each one's template; one whose template has no
+ * such fragment is sent on its own. A checkout's order and payment confirmations thus
+ * become one email, and a user's promotional mail is batched per digest run; emails with
+ * only low priority notifications are paced by {@code lowPriorityRateLimiter}, so a digest
+ * run does not send to every user at once. Digest-only users whose one notification has
+ * the same template, subject and data, such as a promotion to many customers, get it as
+ * one bulk send that renders the template once. Users with other notifications due are
+ * flushed ahead of digest-only ones, and a flush run sends at most one batch of the
+ * latter, so a digest run only delays them by one batch. Urgent notifications, and all
+ * of them while {@code enabled} is false, are sent right away.
+ *
+ * Template variables are stored as JSON and read back as maps, lists and plain values;
+ * decimals come back as {@link java.math.BigDecimal}. Templates must therefore only use
+ * properties of their variables, no methods of the producer's types.
+ *
+ * Stored notifications survive a restart, so a request is acked once it is stored. A
+ * flush claims due notifications for {@code lease} in a short transaction and sends them
+ * outside it, so no row lock or connection is held while talking to SMTP; if an instance
+ * dies mid-send, its claim expires and another instance sends them. A failed send is
+ * retried after {@code retry-delay}, up to {@code max-attempts} times.
+ * Buffered notifications and the emails they were sent in are counted as
+ * {@code notification.coalescing.buffered} and {@code notification.coalescing.emails}.
+ */
+@Slf4j
+@Service
+public class NotificationCoalescer {
+
+    static final String DIGEST_TEMPLATE = "notification-digest";
+    static final String SECTION_FRAGMENT = "content";
+
+    private static final TypeReference<Map<String, Object>> TEMPLATE_DATA = new TypeReference<>() {
+    };
+
+    private final PendingNotificationRepository repository;
+    private final EmailService emailService;
+    private final TemplateRenderer templateRenderer;
+    private final SendRateLimiter lowPriorityRateLimiter;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader templateDataReader;
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+    private final Duration window;
+    private final CronExpression digestSchedule;
+    private final String digestSubject;
+    private final Duration retryDelay;
+    private final int maxAttempts;
+    private final int flushBatchSize;
+    private final Duration lease;
+    private final ThreadPoolExecutor senders;
+
+    private final Counter buffered;
+    private final Counter emails;
+
+    public NotificationCoalescer(PendingNotificationRepository repository,
+                                 EmailService emailService,
+                                 TemplateRenderer templateRenderer,
+                                 SendRateLimiter lowPriorityRateLimiter,
+                                 ObjectMapper objectMapper,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${atlas.notification.coalescing.enabled:true}") boolean enabled,
+                                 @Value("${atlas.notification.coalescing.window:10s}") Duration window,
+                                 @Value("${atlas.notification.coalescing.digest.cron:0 0 * * * *}") String digestCron,
+                                 @Value("${atlas.notification.coalescing.digest.subject:Your updates from Atlas Commerce}")
+                                 String digestSubject,
+                                 @Value("${atlas.notification.coalescing.retry-delay:1m}") Duration retryDelay,
+                                 @Value("${atlas.notification.coalescing.max-attempts:5}") int maxAttempts,
+                                 @Value("${atlas.notification.coalescing.flush-batch-size:100}") int flushBatchSize,
+                                 @Value("${atlas.notification.coalescing.lease:5m}") Duration lease,
+                                 @Value("${atlas.notification.coalescing.flush-threads:4}") int flushThreads) {
+        this.repository = repository;
+        this.emailService = emailService;
+        this.templateRenderer = templateRenderer;
+        this.lowPriorityRateLimiter = lowPriorityRateLimiter;
+        this.objectMapper = objectMapper;
+        // Amounts are BigDecimal; read as Double they would lose trailing zeros ($99.9)
+        this.templateDataReader = objectMapper.readerFor(TEMPLATE_DATA)
+                .with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.window = window;
+        this.digestSchedule = CronExpression.parse(digestCron);
+        this.digestSubject = digestSubject;
+        this.retryDelay = retryDelay;
+        this.maxAttempts = maxAttempts;
+        this.flushBatchSize = flushBatchSize;
+        this.lease = lease;
+        AtomicInteger threadNumber = new AtomicInteger();
+        // A flush hands over at most one task per user of its batch and waits for them
+        this.senders = new ThreadPoolExecutor(flushThreads, flushThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(flushBatchSize, 1)), runnable -> {
+                    Thread thread = new Thread(runnable, "notification-flush-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.buffered = Counter.builder("notification.coalescing.buffered")
+                .description("Email notifications held back for merging")
+                .register(meterRegistry);
+        this.emails = Counter.builder("notification.coalescing.emails")
+                .description("Emails sent for held back notifications")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Send an email notification, or hold it back to merge it with the user's next ones.
+     *
+     * @throws org.springframework.mail.MailException if it was sent right away and failed
+     */
+    public void send(UUID userId, String to, String subject, String templateName,
+                     Map<String, Object> variables, Priority priority) {
+        if (priority == Priority.URGENT) {
+            emailService.sendUrgentEmail(to, subject, templateName, variables);
+            return;
+        }
+        if (!enabled || userId == null || to == null) {
+            emailService.sendEmail(to, subject, templateName, variables);
+            return;
+        }
+        String templateData;
+        try {
+            templateData = objectMapper.writeValueAsString(variables != null ? variables : Map.of());
+        } catch (JsonProcessingException e) {
+            log.warn("Cannot hold back notification for user {}, sending it now: {}", userId, e.getMessage());
+            emailService.sendEmail(to, subject, templateName, variables);
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        repository.save(PendingNotification.builder()
+                .userId(userId)
+                .recipientEmail(to)
+                .subject(subject)
+                .templateName(templateName)
+                .templateData(templateData)
+                .priority(priority != null ? priority : Priority.NORMAL)
+                .dueAt(dueAt(priority, now))
+                .createdAt(now)
+                .build());
+        buffered.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${atlas.notification.coalescing.flush-interval:1000}")
+    public void flushDue() {
+        if (!enabled) {
+            return;
+        }
+        // Once a batch reaches digest-only users, the rest wait for the next run, which
+        // takes users with other notifications due meanwhile first
+        int users;
+        do {
+            users = flush(LocalDateTime.now());
+        } while (users >= flushBatchSize);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        senders.shutdown();
+        senders.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Claim the pending notifications of users with one due at {@code now}, then send them
+     * per user and wait for all sends.
+     *
+     * @return the number of users handled that had notifications other than low priority ones
+     */
+    int flush(LocalDateTime now) {
+        List<PendingNotification> claimed = transactionTemplate.execute(status -> claim(now));
+        if (claimed == null || claimed.isEmpty()) {
+            return 0;
+        }
+        Map<UUID, List<PendingNotification>> byUser = new LinkedHashMap<>();
+        for (PendingNotification pending : claimed) {
+            byUser.computeIfAbsent(pending.getUserId(), id -> new ArrayList<>()).add(pending);
+        }
+        int users = (int) byUser.values().stream().filter(pending -> !digestOnly(pending)).count();
+
+        Map<Campaign, List<PendingNotification>> campaigns = new LinkedHashMap<>();
+        for (List<PendingNotification> pending : byUser.values()) {
+            if (pending.size() == 1 && digestOnly(pending)) {
+                campaigns.computeIfAbsent(Campaign.of(pending.get(0)), campaign -> new ArrayList<>())
+                        .add(pending.get(0));
+            }
+        }
+        List<CompletableFuture<Void>> sends = new ArrayList<>(byUser.size());
+        campaigns.forEach((campaign, pending) -> {
+            if (pending.size() > 1) {
+                pending.forEach(notification -> byUser.remove(notification.getUserId()));
+                sends.add(CompletableFuture.runAsync(() -> deliverCampaign(campaign, pending, now), senders));
+            }
+        });
+        byUser.forEach((userId, pending) ->
+                sends.add(CompletableFuture.runAsync(() -> deliver(userId, pending, now), senders)));
+        CompletableFuture.allOf(sends.toArray(new CompletableFuture<?>[0])).join();
+        return users;
+    }
+
+    /**
+     * Lock the due notifications and mark them claimed until the lease ends; the changes
+     * are flushed when the surrounding transaction commits.
+     */
+    private List<PendingNotification> claim(LocalDateTime now) {
+        List<PendingNotification> due = repository.lockDue(now, flushBatchSize);
+        LocalDateTime claimedUntil = now.plus(lease);
+        for (PendingNotification pending : due) {
+            pending.setClaimedUntil(claimedUntil);
+        }
+        return due;
+    }
+
+    LocalDateTime dueAt(Priority priority, LocalDateTime now) {
+        if (priority == Priority.LOW) {
+            LocalDateTime digestAt = digestSchedule.next(now);
+            if (digestAt != null) {
+                return digestAt;
+            }
+        }
+        return now.plus(window);
+    }
+
+    private void deliver(UUID userId, List<PendingNotification> pending, LocalDateTime now) {
+        // The most recent notification has the most recent address
+        String to = pending.get(pending.size() - 1).getRecipientEmail();
+        List<PendingNotification> unsent = new ArrayList<>(pending);
+        boolean paced = digestOnly(pending);
+        try {
+            if (pending.size() == 1) {
+                sendAlone(to, pending.get(0), paced);
+            } else {
+                List<PendingNotification> merged = new ArrayList<>(pending.size());
+                List<Map<String, Object>> sections = new ArrayList<>(pending.size());
+                for (PendingNotification notification : pending) {
+                    String html = templateRenderer.renderFragment(notification.getTemplateName(),
+                            SECTION_FRAGMENT, templateData(notification));
+                    if (html.isBlank()) {
+                        // The template has no section to merge
+                        sendAlone(to, notification, paced);
+                        unsent.remove(notification);
+                    } else {
+                        merged.add(notification);
+                        sections.add(Map.of("subject", notification.getSubject(), "html", html));
+                    }
+                }
+                if (!sections.isEmpty()) {
+                    awaitSendSlot(paced);
+                    emailService.sendEmail(to, digestSubject, DIGEST_TEMPLATE, Map.of("sections", sections));
+                    emails.increment();
+                    unsent.removeAll(merged);
+                }
+            }
+            delete(pending);
+        } catch (RuntimeException e) {
+            // Notifications sent on their own before the failure are not sent again
+            if (unsent.size() < pending.size()) {
+                delete(pending.stream().filter(notification -> !unsent.contains(notification)).toList());
+            }
+            retryOrDrop(unsent, "user " + userId, e, now);
+        }
+    }
+
+    /**
+     * Send one notification to each of its users in a single bulk send; each user has no
+     * other notification due.
+     */
+    private void deliverCampaign(Campaign campaign, List<PendingNotification> pending, LocalDateTime now) {
+        Map<EmailService.Recipient, PendingNotification> byRecipient = new IdentityHashMap<>();
+        for (PendingNotification notification : pending) {
+            byRecipient.put(new EmailService.Recipient(notification.getRecipientEmail(), Map.of()), notification);
+        }
+        try {
+            List<EmailService.Recipient> failed = emailService.sendBulkEmail(campaign.subject(),
+                    campaign.templateName(), campaign.templateData(), templateData(pending.get(0)),
+                    List.copyOf(byRecipient.keySet()), lowPriorityRateLimiter);
+            List<PendingNotification> unsent = failed.stream().map(byRecipient::get).toList();
+            emails.increment(pending.size() - unsent.size());
+            if (unsent.size() < pending.size()) {
+                delete(pending.stream().filter(notification -> !unsent.contains(notification)).toList());
+            }
+            if (!unsent.isEmpty()) {
+                retryOrDrop(unsent, "campaign '" + campaign.subject() + "'", null, now);
+            }
+        } catch (RuntimeException e) {
+            retryOrDrop(pending, "campaign '" + campaign.subject() + "'", e, now);
+        }
+    }
+
+    /**
+     * Reschedule notifications that failed to send, or drop them after {@code max-attempts}.
+     */
+    private void retryOrDrop(List<PendingNotification> unsent, String recipients, RuntimeException e,
+                             LocalDateTime now) {
+        int attempts = unsent.stream().mapToInt(PendingNotification::getAttempts).max().orElse(0) + 1;
+        if (attempts >= maxAttempts) {
+            log.error("Dropping {} notifications for {} after {} failed attempts",
+                    unsent.size(), recipients, attempts, e);
+            delete(unsent);
+            return;
+        }
+        log.warn("Failed to send {} notifications for {}, retrying in {}: {}",
+                unsent.size(), recipients, retryDelay, e != null ? e.getMessage() : "rejected by the mail server");
+        for (PendingNotification notification : unsent) {
+            notification.setAttempts(attempts);
+            notification.setDueAt(now.plus(retryDelay));
+            notification.setClaimedUntil(null);
+        }
+        repository.saveAll(unsent);
+    }
+
+    private static boolean digestOnly(List<PendingNotification> pending) {
+        return pending.stream().allMatch(notification -> notification.getPriority() == Priority.LOW);
+    }
+
+    private void sendAlone(String to, PendingNotification notification, boolean paced) {
+        awaitSendSlot(paced);
+        emailService.sendEmail(to, notification.getSubject(), notification.getTemplateName(),
+                templateData(notification));
+        emails.increment();
+    }
+
+    private void awaitSendSlot(boolean paced) {
+        if (!paced) {
+            return;
+        }
+        try {
+            lowPriorityRateLimiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to send", e);
+        }
+    }
+
+    private void delete(List<PendingNotification> pending) {
+        repository.deleteAllByIdInBatch(pending.stream().map(PendingNotification::getId).toList());
+    }
+
+    /**
+     * Notifications that render to the same email apart from the recipient.
+     */
+    private record Campaign(String templateName, String subject, String templateData) {
+
+        static Campaign of(PendingNotification notification) {
+            return new Campaign(notification.getTemplateName(), notification.getSubject(),
+                    notification.getTemplateData());
+        }
+    }
+
+    private Map<String, Object> templateData(PendingNotification notification) {
+        if (notification.getTemplateData() == null) {
+            return Map.of();
+        }
+        try {
+            return templateDataReader.readValue(notification.getTemplateData());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable data of pending notification " + notification.getId(), e);
+        }
+    }
+}
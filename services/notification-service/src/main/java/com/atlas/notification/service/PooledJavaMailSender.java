@@ -0,0 +1,254 @@
+package com.atlas.notification.service;
+
+import jakarta.mail.Address;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link JavaMailSenderImpl} that keeps authenticated SMTP connections open and reuses
+ * them, instead of connecting and authenticating for every {@code send} call.
+ *
+ * At most {@code maxConnections} connections exist; a sender waits up to
+ * {@code borrowTimeout} for one and then fails. {@code reservedForUrgent} of them are
+ * only used by {@link #sendUrgent}, so urgent mail does not queue behind bulk and
+ * digest sends that hold every other connection. Idle connections are reused most recently
+ * used first. One idle for longer than {@code validateAfterIdle} is checked with an SMTP
+ * NOOP before use, and one idle for longer than {@code idleTimeout} is closed, as is a
+ * connection that has sent {@code maxMessagesPerConnection} messages (many relays limit
+ * messages per session) or that broke while sending. All messages of one
+ * {@code send(MimeMessage...)} call go over the same connection.
+ */
+@Slf4j
+public class PooledJavaMailSender extends JavaMailSenderImpl implements DisposableBean {
+
+    private static final String HEADER_MESSAGE_ID = "Message-ID";
+
+    private final int maxConnections;
+    private final int maxMessagesPerConnection;
+    private final long idleTimeoutNanos;
+    private final long validateAfterIdleNanos;
+    private final Duration borrowTimeout;
+
+    /** One per connection; urgent sends only take one of these. */
+    private final Semaphore permits;
+    /** Caps other sends at the connections that are not reserved. */
+    private final Semaphore unreservedPermits;
+    private final ConcurrentLinkedDeque<PooledTransport> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicLong opened = new AtomicLong();
+
+    public PooledJavaMailSender(int maxConnections, int reservedForUrgent, int maxMessagesPerConnection,
+                                Duration idleTimeout, Duration validateAfterIdle, Duration borrowTimeout) {
+        if (reservedForUrgent < 0 || reservedForUrgent >= maxConnections) {
+            throw new IllegalArgumentException("reservedForUrgent must be at least 0 and below maxConnections");
+        }
+        this.maxConnections = maxConnections;
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.validateAfterIdleNanos = validateAfterIdle.toNanos();
+        this.borrowTimeout = borrowTimeout;
+        this.permits = new Semaphore(maxConnections, true);
+        this.unreservedPermits = new Semaphore(maxConnections - reservedForUrgent, true);
+    }
+
+    /**
+     * Send urgent messages, which may also use the connections reserved for them.
+     *
+     * @throws MailException as {@link #send(MimeMessage...)}
+     */
+    public void sendUrgent(MimeMessage... mimeMessages) throws MailException {
+        send(mimeMessages, null, true);
+    }
+
+    @Override
+    protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) throws MailException {
+        send(mimeMessages, originalMessages, false);
+    }
+
+    private void send(MimeMessage[] mimeMessages, Object[] originalMessages, boolean urgent) {
+        Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+        PooledTransport connection = borrow(urgent);
+        try {
+            for (int i = 0; i < mimeMessages.length; i++) {
+                if (connection == null) {
+                    try {
+                        connection = open();
+                    } catch (MessagingException e) {
+                        for (int j = i; j < mimeMessages.length; j++) {
+                            failedMessages.put(originalMessages != null ? originalMessages[j] : mimeMessages[j], e);
+                        }
+                        throw new MailSendException("Mail server connection failed", e, failedMessages);
+                    }
+                }
+                MimeMessage mimeMessage = mimeMessages[i];
+                try {
+                    if (mimeMessage.getSentDate() == null) {
+                        mimeMessage.setSentDate(new Date());
+                    }
+                    String messageId = mimeMessage.getMessageID();
+                    mimeMessage.saveChanges();
+                    if (messageId != null) {
+                        // Preserve an explicitly set message id
+                        mimeMessage.setHeader(HEADER_MESSAGE_ID, messageId);
+                    }
+                    Address[] addresses = mimeMessage.getAllRecipients();
+                    connection.transport.sendMessage(mimeMessage, addresses != null ? addresses : new Address[0]);
+                    connection.sent++;
+                } catch (Exception e) {
+                    failedMessages.put(originalMessages != null ? originalMessages[i] : mimeMessage, e);
+                    if (!connection.transport.isConnected()) {
+                        close(connection);
+                        connection = null;
+                    }
+                }
+                if (connection != null && connection.sent >= maxMessagesPerConnection) {
+                    close(connection);
+                    connection = null;
+                }
+            }
+        } finally {
+            release(connection, urgent);
+        }
+        if (!failedMessages.isEmpty()) {
+            throw new MailSendException(failedMessages);
+        }
+    }
+
+    /**
+     * Connections currently sending.
+     */
+    public int activeConnections() {
+        return maxConnections - permits.availablePermits();
+    }
+
+    public int idleConnections() {
+        return idle.size();
+    }
+
+    /**
+     * Connections opened since startup; compared with messages sent, this shows how well
+     * connections are reused.
+     */
+    public long openedConnections() {
+        return opened.get();
+    }
+
+    @Override
+    public void destroy() {
+        PooledTransport connection;
+        while ((connection = idle.pollFirst()) != null) {
+            close(connection);
+        }
+    }
+
+    /**
+     * Take a permit and, if one is usable, an idle connection; {@code null} means the
+     * caller opens a new one under the permit.
+     */
+    private PooledTransport borrow(boolean urgent) {
+        long deadline = System.nanoTime() + borrowTimeout.toNanos();
+        if (!urgent) {
+            acquire(unreservedPermits, borrowTimeout.toNanos());
+        }
+        try {
+            // Urgent sends may hold the connections other sends leave free, so this can still wait
+            acquire(permits, deadline - System.nanoTime());
+        } catch (MailSendException e) {
+            if (!urgent) {
+                unreservedPermits.release();
+            }
+            throw e;
+        }
+        long now = System.nanoTime();
+        PooledTransport connection;
+        while ((connection = idle.pollFirst()) != null) {
+            long idleNanos = now - connection.lastUsed;
+            if (idleNanos > idleTimeoutNanos) {
+                close(connection);
+            } else if (idleNanos > validateAfterIdleNanos && !connection.transport.isConnected()) {
+                // isConnected() sends a NOOP; the server may have dropped the session
+                close(connection);
+            } else {
+                return connection;
+            }
+        }
+        return null;
+    }
+
+    private void acquire(Semaphore semaphore, long timeoutNanos) {
+        try {
+            if (!semaphore.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new MailSendException("No SMTP connection available within " + borrowTimeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted while waiting for an SMTP connection", e);
+        }
+    }
+
+    private PooledTransport open() throws MessagingException {
+        try {
+            Transport transport = connectTransport();
+            opened.incrementAndGet();
+            return new PooledTransport(transport);
+        } catch (AuthenticationFailedException e) {
+            throw new MailAuthenticationException(e);
+        }
+    }
+
+    private void release(PooledTransport connection, boolean urgent) {
+        try {
+            if (connection != null) {
+                connection.lastUsed = System.nanoTime();
+                idle.offerFirst(connection);
+            }
+            // Least recently used connections sit at the tail; close those past the idle timeout
+            PooledTransport oldest;
+            while ((oldest = idle.peekLast()) != null && System.nanoTime() - oldest.lastUsed > idleTimeoutNanos) {
+                if (idle.removeLastOccurrence(oldest)) {
+                    close(oldest);
+                }
+            }
+        } finally {
+            permits.release();
+            if (!urgent) {
+                unreservedPermits.release();
+            }
+        }
+    }
+
+    private void close(PooledTransport connection) {
+        try {
+            connection.transport.close();
+        } catch (MessagingException e) {
+            log.debug("Error closing SMTP connection: {}", e.getMessage());
+        }
+    }
+
+    private static final class PooledTransport {
+
+        private final Transport transport;
+        private long lastUsed = System.nanoTime();
+        private int sent;
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+    }
+}
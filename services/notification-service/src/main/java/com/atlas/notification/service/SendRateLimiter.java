@@ -0,0 +1,49 @@
+package com.atlas.notification.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Blocking rate cap: each caller reserves the next free slot, spaced
+ * {@code 1 / permitsPerSecond} apart, and sleeps until it. Idle time does not
+ * accumulate into a burst.
+ */
+public class SendRateLimiter {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final long intervalNanos;
+    private final AtomicLong nextSlot = new AtomicLong(Long.MIN_VALUE);
+
+    public SendRateLimiter(double permitsPerSecond) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive");
+        }
+        this.intervalNanos = (long) (NANOS_PER_SECOND / permitsPerSecond);
+    }
+
+    /**
+     * Wait for the next slot.
+     */
+    public void acquire() throws InterruptedException {
+        long wait = reserve(System.nanoTime());
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    /**
+     * Reserve the next slot at {@code nowNanos}.
+     *
+     * @return nanoseconds to wait until the reserved slot
+     */
+    long reserve(long nowNanos) {
+        while (true) {
+            long next = nextSlot.get();
+            long slot = next == Long.MIN_VALUE || next - nowNanos < 0 ? nowNanos : next;
+            if (nextSlot.compareAndSet(next, slot + intervalNanos)) {
+                return slot - nowNanos;
+            }
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.atlas.notification.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.HtmlUtils;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.cache.ICache;
+import org.thymeleaf.cache.StandardCache;
+import org.thymeleaf.context.Context;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.ToLongFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Renders email templates, either per recipient or once for many recipients.
+ *
+ * Parsed templates are cached by Thymeleaf itself ({@code spring.thymeleaf.cache}); their
+ * count and cache hits are exported as {@code notification.template.parsed} and
+ * {@code notification.template.parsed.lookups}. {@link #prepare} goes a
+ * step further for bulk sends: it renders a template once with the shared variables and
+ * a marker in place of each recipient variable, and keeps the result as literal
+ * segments, so personalising it for a recipient is string concatenation. The
+ * {@code prepared-cache-size} most recently used prepared templates are cached by
+ * template, campaign and recipient variable names, counted as
+ * {@code notification.template.prepared} hits and misses. Render time is
+ * recorded as {@code notification.template.render}.
+ */
+@Slf4j
+@Component
+public class TemplateRenderer {
+
+    private final TemplateEngine templateEngine;
+    private final Map<PreparedKey, PreparedTemplate> prepared;
+
+    private final MeterRegistry meterRegistry;
+    private final Counter preparedHits;
+    private final Counter preparedMisses;
+
+    public TemplateRenderer(TemplateEngine templateEngine,
+                            MeterRegistry meterRegistry,
+                            @Value("${atlas.notification.templates.prepared-cache-size:256}") int preparedCacheSize) {
+        this.templateEngine = templateEngine;
+        this.meterRegistry = meterRegistry;
+        // Access-ordered, so the least recently used template is dropped when full
+        this.prepared = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PreparedKey, PreparedTemplate> eldest) {
+                return size() > preparedCacheSize;
+            }
+        });
+        this.preparedHits = preparedCounter(meterRegistry, "hit");
+        this.preparedMisses = preparedCounter(meterRegistry, "miss");
+        Gauge.builder("notification.template.parsed", templateEngine, TemplateRenderer::parsedTemplates)
+                .description("Parsed templates held in Thymeleaf's template cache")
+                .register(meterRegistry);
+        FunctionCounter.builder("notification.template.parsed.lookups", templateEngine,
+                        engine -> parsedTemplateCount(engine, StandardCache::getHitCount))
+                .description("Lookups in Thymeleaf's template cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("notification.template.parsed.lookups", templateEngine,
+                        engine -> parsedTemplateCount(engine, StandardCache::getMissCount))
+                .description("Lookups in Thymeleaf's template cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Render a template for one recipient.
+     */
+    public String render(String templateName, Map<String, Object> variables) {
+        Context context = new Context();
+        context.setVariables(variables);
+        return renderTimer(templateName, "full").record(() -> templateEngine.process(templateName, context));
+    }
+
+    /**
+     * Render only the {@code th:fragment} named {@code fragment} of a template, e.g. to
+     * embed it in another email. Empty if the template has no such fragment.
+     */
+    public String renderFragment(String templateName, String fragment, Map<String, Object> variables) {
+        Context context = new Context();
+        context.setVariables(variables);
+        return renderTimer(templateName, "fragment")
+                .record(() -> templateEngine.process(templateName, Set.of(fragment), context));
+    }
+
+    /**
+     * Render the recipient-independent part of a template once.
+     *
+     * The recipient variables may only be output as text ({@code th:text}, {@code th:value}
+     * and the like); they must not drive conditions or loops, which are evaluated here
+     * with the marker rather than the recipient's value.
+     *
+     * @param campaign           identifies the shared variables in the cache, e.g. their
+     *                           serialized form; it must not be reused for other values
+     * @param sharedVariables    values that are the same for every recipient
+     * @param recipientVariables names of the variables {@link PreparedTemplate#personalize} fills in
+     */
+    public PreparedTemplate prepare(String templateName, String campaign, Map<String, Object> sharedVariables,
+                                    Set<String> recipientVariables) {
+        PreparedKey key = new PreparedKey(templateName, campaign, Set.copyOf(recipientVariables));
+        PreparedTemplate cached = prepared.get(key);
+        if (cached != null) {
+            preparedHits.increment();
+            return cached;
+        }
+        preparedMisses.increment();
+
+        // Markers are unique per rendering, so template text cannot collide with them
+        String nonce = UUID.randomUUID().toString().replace("-", "");
+        Map<String, Object> variables = new HashMap<>(sharedVariables);
+        for (String name : recipientVariables) {
+            variables.put(name, "%%" + nonce + ":" + name + "%%");
+        }
+        Context context = new Context();
+        context.setVariables(variables);
+        String html = renderTimer(templateName, "prepare").record(() -> templateEngine.process(templateName, context));
+        PreparedTemplate template = PreparedTemplate.parse(html, nonce);
+
+        prepared.put(key, template);
+        return template;
+    }
+
+    private Timer renderTimer(String templateName, String mode) {
+        return Timer.builder("notification.template.render")
+                .description("Template rendering time")
+                .tag("template", templateName)
+                .tag("mode", mode)
+                .register(meterRegistry);
+    }
+
+    private static double parsedTemplates(TemplateEngine engine) {
+        ICache<?, ?> cache = engine.getCacheManager() != null ? engine.getCacheManager().getTemplateCache() : null;
+        if (cache instanceof StandardCache<?, ?> standard) {
+            return standard.size();
+        }
+        return cache != null ? cache.keySet().size() : 0;
+    }
+
+    private static double parsedTemplateCount(TemplateEngine engine, ToLongFunction<StandardCache<?, ?>> count) {
+        ICache<?, ?> cache = engine.getCacheManager() != null ? engine.getCacheManager().getTemplateCache() : null;
+        return cache instanceof StandardCache<?, ?> standard ? count.applyAsLong(standard) : 0;
+    }
+
+    private static Counter preparedCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("notification.template.prepared")
+                .description("Prepared template lookups")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record PreparedKey(String templateName, String campaign, Set<String> recipientVariables) {
+    }
+
+    /**
+     * A template rendered up to its recipient variables: literal HTML segments with the
+     * variable names between them.
+     */
+    public static final class PreparedTemplate {
+
+        private final List<String> literals;
+        private final List<String> variables;
+
+        private PreparedTemplate(List<String> literals, List<String> variables) {
+            this.literals = literals;
+            this.variables = variables;
+        }
+
+        static PreparedTemplate parse(String html, String nonce) {
+            Matcher matcher = Pattern.compile("%%" + nonce + ":([^%]+)%%").matcher(html);
+            List<String> literals = new ArrayList<>();
+            List<String> variables = new ArrayList<>();
+            int position = 0;
+            while (matcher.find()) {
+                literals.add(html.substring(position, matcher.start()));
+                variables.add(matcher.group(1));
+                position = matcher.end();
+            }
+            literals.add(html.substring(position));
+            return new PreparedTemplate(List.copyOf(literals), List.copyOf(variables));
+        }
+
+        /**
+         * The HTML for one recipient; values are HTML-escaped as {@code th:text} would.
+         */
+        public String personalize(Map<String, ?> recipientValues) {
+            StringBuilder html = new StringBuilder(estimateLength());
+            for (int i = 0; i < variables.size(); i++) {
+                html.append(literals.get(i));
+                Object value = recipientValues.get(variables.get(i));
+                if (value != null) {
+                    html.append(HtmlUtils.htmlEscape(value.toString()));
+                }
+            }
+            return html.append(literals.get(literals.size() - 1)).toString();
+        }
+
+        private int estimateLength() {
+            int length = 0;
+            for (String literal : literals) {
+                length += literal.length();
+            }
+            return length + variables.size() * 32;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.atlas.notification.service;
+
+import com.atlas.notification.entity.UserContact;
+import com.atlas.notification.repository.UserContactRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Recipient details for notifications, read from the local replica of user-service's
+ * users so that sending never waits on a call to another service.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserContactService {
+
+    private final UserContactRepository userContactRepository;
+
+    public Optional<UserContact> findContact(UUID userId) {
+        return userId == null ? Optional.empty() : userContactRepository.findById(userId);
+    }
+
+    /**
+     * Apply a user event. Idempotent, and an event older than the stored copy is ignored,
+     * so redelivered or out-of-order events cannot roll a contact back.
+     */
+    public void apply(UUID userId, String email, String firstName, String lastName,
+                      String phoneNumber, Long version, LocalDateTime occurredAt) {
+        int written = userContactRepository.upsert(userId, email, firstName, lastName, phoneNumber,
+                version != null ? version : 0L, occurredAt != null ? occurredAt : LocalDateTime.now());
+        if (written == 0) {
+            log.debug("Ignored stale contact update for user {} at version {}", userId, version);
+        }
+    }
+}
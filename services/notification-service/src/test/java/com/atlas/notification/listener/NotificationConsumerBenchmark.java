@@ -0,0 +1,67 @@
+package com.atlas.notification.listener;
+
+import com.atlas.common.event.NotificationEvent;
+import com.atlas.notification.config.RabbitMQConfig;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Consumer throughput of a running notification-service against a local broker.
+ *
+ * Not part of the test suite. Start RabbitMQ and notification-service (with
+ * {@code EMAIL_ENABLED=false}, so sends are only logged), then run {@link #main} on the
+ * module's test classpath after {@code mvn test-compile}. It publishes
+ * {@code messages} high priority notification requests and reports how fast the service
+ * drains them; compare runs with different {@code atlas.notification.consumer.*} and
+ * {@code atlas.notification.priority.high.*} settings.
+ *
+ * Arguments: {@code [messages] [host]}, default 20000 and localhost.
+ */
+public class NotificationConsumerBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        int messages = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        String host = args.length > 1 ? args[1] : "localhost";
+        // Order confirmations are HIGH priority and land on the high priority queue
+        String queue = RabbitMQConfig.NOTIFICATION_HIGH_QUEUE;
+
+        CachingConnectionFactory connectionFactory = new CachingConnectionFactory(host);
+        try {
+            RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
+            rabbitTemplate.setMessageConverter(new Jackson2JsonMessageConverter());
+            RabbitAdmin admin = new RabbitAdmin(connectionFactory);
+
+            long start = System.nanoTime();
+            for (int i = 0; i < messages; i++) {
+                NotificationEvent event = NotificationEvent.orderConfirmation(UUID.randomUUID(),
+                        "load-" + i + "@atlas.test", Map.of("orderNumber", "LOAD-" + i));
+                rabbitTemplate.convertAndSend(RabbitMQConfig.NOTIFICATION_EXCHANGE,
+                        event.getPriority().routingKey(), event);
+            }
+            long published = System.nanoTime();
+            System.out.printf("Published %d messages in %d ms (%.0f msg/s)%n", messages,
+                    (published - start) / 1_000_000, rate(messages, start, published));
+
+            // Ready count only; up to prefetch x consumers may still be in flight when it hits zero
+            QueueInformation info;
+            while ((info = admin.getQueueInfo(queue)) != null && info.getMessageCount() > 0) {
+                Thread.sleep(50);
+            }
+            long drained = System.nanoTime();
+            System.out.printf("Drained in %d ms after the first publish (%.0f msg/s end to end)%n",
+                    (drained - start) / 1_000_000, rate(messages, start, drained));
+        } finally {
+            connectionFactory.destroy();
+        }
+    }
+
+    private static double rate(int messages, long fromNanos, long toNanos) {
+        return messages * 1_000_000_000.0 / Math.max(1, toNanos - fromNanos);
+    }
+}
@@ -0,0 +1,121 @@
+package com.atlas.notification.service;
+
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class NotificationBatchProcessorTest {
+
+    private static final String QUEUE = "test.queue";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Channel channel = mock(Channel.class);
+    private final NotificationBatchProcessor processor = new NotificationBatchProcessor(meterRegistry, 1, 1, 1, 1, 1);
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        processor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should ack a batch with one acknowledgement once every message is handled")
+    void process_AllSucceed_AcksBatch() throws Exception {
+        AtomicInteger handled = new AtomicInteger();
+
+        processor.process(QUEUE, List.of(message("a", 1, false), message("b", 2, false)), channel,
+                payload -> handled.incrementAndGet());
+
+        assertThat(handled).hasValue(2);
+        verify(channel).basicAck(2, true);
+        verify(channel, never()).basicNack(anyLong(), anyBoolean(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("Should requeue a failed message once and reject it when it fails again")
+    void process_Failure_RequeuesFirstDeliveryOnly() throws Exception {
+        List<Message<String>> batch = List.of(
+                message("ok", 1, false), message("fail", 2, false), message("fail", 3, true));
+
+        processor.process(QUEUE, batch, channel, payload -> {
+            if (payload.equals("fail")) {
+                throw new IllegalStateException("SMTP unavailable");
+            }
+        });
+
+        verify(channel).basicNack(2, false, true);
+        verify(channel).basicNack(3, false, false);
+        verify(channel).basicAck(1, true);
+        verify(channel, never()).basicAck(3, true);
+        assertThat(meterRegistry.counter("notification.messages", "queue", QUEUE, "outcome", "failure").count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should not ack a batch in which every message failed")
+    void process_AllFail_NoAck() throws Exception {
+        processor.process(QUEUE, List.of(message("fail", 1, false), message("fail", 2, false)), channel,
+                payload -> {
+                    throw new IllegalStateException("SMTP unavailable");
+                });
+
+        verify(channel).basicNack(1, false, true);
+        verify(channel).basicNack(2, false, true);
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("Should hold back the listener while the worker pool is full")
+    void process_PoolFull_BlocksListener() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger started = new AtomicInteger();
+        // One worker thread and one queued message; the third message has to wait
+        List<Message<String>> batch = List.of(
+                message("a", 1, false), message("b", 2, false), message("c", 3, false));
+        Thread listener = new Thread(() -> processor.process(QUEUE, batch, channel, payload -> {
+            started.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        listener.start();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (listener.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(listener.getState()).isEqualTo(Thread.State.WAITING);
+        assertThat(meterRegistry.get("notification.workers.queued").tag("pool", "notification-worker")
+                .gauge().value()).isEqualTo(1);
+
+        release.countDown();
+        listener.join(5000);
+        assertThat(started).hasValue(3);
+        verify(channel).basicAck(3, true);
+    }
+
+    private static Message<String> message(String payload, long deliveryTag, boolean redelivered) {
+        return MessageBuilder.withPayload(payload)
+                .setHeader(AmqpHeaders.DELIVERY_TAG, deliveryTag)
+                .setHeader(AmqpHeaders.REDELIVERED, redelivered)
+                .build();
+    }
+}
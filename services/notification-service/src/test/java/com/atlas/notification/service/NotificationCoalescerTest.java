@@ -0,0 +1,285 @@
+package com.atlas.notification.service;
+
+import com.atlas.common.event.NotificationEvent.Priority;
+import com.atlas.common.event.OrderCreatedEvent;
+import com.atlas.notification.entity.PendingNotification;
+import com.atlas.notification.repository.PendingNotificationRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mail.MailSendException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationCoalescerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 1, 10, 15, 30);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final PendingNotificationRepository repository = mock(PendingNotificationRepository.class);
+    private final EmailService emailService = mock(EmailService.class);
+    private final TemplateRenderer templateRenderer = mock(TemplateRenderer.class);
+    private final SendRateLimiter rateLimiter = mock(SendRateLimiter.class);
+    private final NotificationCoalescer coalescer = new NotificationCoalescer(repository, emailService,
+            templateRenderer, rateLimiter, objectMapper, mock(PlatformTransactionManager.class),
+            new SimpleMeterRegistry(), true, Duration.ofSeconds(10), "0 0 * * * *", "Your updates",
+            Duration.ofMinutes(1), 3, 100, Duration.ofMinutes(5), 2);
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        coalescer.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should send urgent notifications right away")
+    void send_Urgent_SendsImmediately() {
+        UUID userId = UUID.randomUUID();
+
+        coalescer.send(userId, "user@atlas.com", "Reset", "password-reset", Map.of(), Priority.URGENT);
+
+        verify(emailService).sendUrgentEmail("user@atlas.com", "Reset", "password-reset", Map.of());
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should hold low priority notifications until the next digest run")
+    void dueAt_Low_NextDigestRun() {
+        assertThat(coalescer.dueAt(Priority.LOW, NOW)).isEqualTo(LocalDateTime.of(2024, 3, 1, 11, 0));
+        assertThat(coalescer.dueAt(Priority.HIGH, NOW)).isEqualTo(NOW.plusSeconds(10));
+    }
+
+    @Test
+    @DisplayName("Should merge several notifications of a user into one email")
+    void flush_SeveralForUser_SendsOneDigest() throws Exception {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        List<PendingNotification> due = List.of(
+                pending(first, "Order Confirmation", "order-confirmation"),
+                pending(first, "Payment Received", "payment-received"),
+                pending(second, "Order Shipped", "order-shipped"));
+        when(repository.lockDue(NOW, 100)).thenReturn(due);
+        when(templateRenderer.renderFragment(anyString(), eq("content"), anyMap())).thenReturn("<div>section</div>");
+
+        int users = coalescer.flush(NOW);
+
+        assertThat(users).isEqualTo(2);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> variables = ArgumentCaptor.forClass(Map.class);
+        verify(emailService).sendEmail(eq("user@atlas.com"), eq("Your updates"), eq("notification-digest"),
+                variables.capture());
+        assertThat((List<?>) variables.getValue().get("sections")).hasSize(2);
+        verify(emailService).sendEmail("user@atlas.com", "Order Shipped", "order-shipped", Map.of("orderId", "42"));
+        verify(repository).deleteAllByIdInBatch(List.of(due.get(0).getId(), due.get(1).getId()));
+        verify(repository).deleteAllByIdInBatch(List.of(due.get(2).getId()));
+    }
+
+    @Test
+    @DisplayName("Should send a notification on its own when its template has no section to merge")
+    void flush_NoFragment_SendsAlone() throws Exception {
+        UUID userId = UUID.randomUUID();
+        List<PendingNotification> due = List.of(
+                pending(userId, "Order Confirmation", "order-confirmation"),
+                pending(userId, "Payment Received", "payment-received"),
+                pending(userId, "Welcome", "welcome"));
+        when(repository.lockDue(NOW, 100)).thenReturn(due);
+        when(templateRenderer.renderFragment(anyString(), eq("content"), anyMap())).thenReturn("<div>section</div>");
+        when(templateRenderer.renderFragment(eq("welcome"), eq("content"), anyMap())).thenReturn("");
+
+        coalescer.flush(NOW);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> variables = ArgumentCaptor.forClass(Map.class);
+        verify(emailService).sendEmail(eq("user@atlas.com"), eq("Your updates"), eq("notification-digest"),
+                variables.capture());
+        assertThat((List<?>) variables.getValue().get("sections")).hasSize(2);
+        verify(emailService).sendEmail("user@atlas.com", "Welcome", "welcome", Map.of("orderId", "42"));
+    }
+
+    @Test
+    @DisplayName("Should pace emails with only low priority notifications")
+    void flush_LowPriorityOnly_Paced() throws Exception {
+        PendingNotification promotion = pending(UUID.randomUUID(), "Spring Sale", "promotion");
+        promotion.setPriority(Priority.LOW);
+        when(repository.lockDue(NOW, 100)).thenReturn(List.of(promotion));
+
+        int users = coalescer.flush(NOW);
+
+        assertThat(users).isZero();
+        verify(rateLimiter).acquire();
+        verify(emailService).sendEmail("user@atlas.com", "Spring Sale", "promotion", Map.of("orderId", "42"));
+    }
+
+    @Test
+    @DisplayName("Should end a flush run after a full batch of digest-only users")
+    void flushDue_DigestBatch_StopsRun() throws Exception {
+        List<PendingNotification> due = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            PendingNotification promotion = pending(UUID.randomUUID(), "Spring Sale", "promotion");
+            promotion.setPriority(Priority.LOW);
+            due.add(promotion);
+        }
+        when(repository.lockDue(any(LocalDateTime.class), eq(100))).thenReturn(due);
+
+        when(emailService.sendBulkEmail(anyString(), anyString(), anyString(), anyMap(), anyList(), any()))
+                .thenReturn(List.of());
+
+        coalescer.flushDue();
+
+        verify(repository, times(1)).lockDue(any(LocalDateTime.class), eq(100));
+        verify(emailService).sendBulkEmail(eq("Spring Sale"), eq("promotion"), anyString(), anyMap(),
+                argThat(recipients -> recipients.size() == 100), eq(rateLimiter));
+    }
+
+    @Test
+    @DisplayName("Should send one notification to many users as a bulk send and retry its failed recipients")
+    void flush_Campaign_SendsInBulk() throws Exception {
+        PendingNotification first = pending(UUID.randomUUID(), "Spring Sale", "promotion");
+        PendingNotification second = pending(UUID.randomUUID(), "Spring Sale", "promotion");
+        second.setRecipientEmail("other@atlas.com");
+        PendingNotification other = pending(UUID.randomUUID(), "Summer Sale", "promotion");
+        for (PendingNotification promotion : List.of(first, second, other)) {
+            promotion.setPriority(Priority.LOW);
+        }
+        when(repository.lockDue(NOW, 100)).thenReturn(List.of(first, second, other));
+        when(emailService.sendBulkEmail(anyString(), anyString(), anyString(), anyMap(), anyList(), any()))
+                .thenAnswer(invocation -> invocation.<List<EmailService.Recipient>>getArgument(4).stream()
+                        .filter(recipient -> recipient.email().equals("other@atlas.com"))
+                        .toList());
+
+        coalescer.flush(NOW);
+
+        verify(emailService).sendBulkEmail(eq("Spring Sale"), eq("promotion"), eq(first.getTemplateData()),
+                eq(Map.of("orderId", "42")), anyList(), eq(rateLimiter));
+        verify(emailService).sendEmail("user@atlas.com", "Summer Sale", "promotion", Map.of("orderId", "42"));
+        verify(repository).deleteAllByIdInBatch(List.of(first.getId()));
+        verify(repository).saveAll(List.of(second));
+        assertThat(second.getAttempts()).isEqualTo(1);
+        assertThat(second.getDueAt()).isEqualTo(NOW.plusMinutes(1));
+    }
+
+    @Test
+    @DisplayName("Should not pace emails with a higher priority notification")
+    void flush_NormalPriority_NotPaced() throws Exception {
+        PendingNotification shipped = pending(UUID.randomUUID(), "Order Shipped", "order-shipped");
+        when(repository.lockDue(NOW, 100)).thenReturn(List.of(shipped));
+
+        coalescer.flush(NOW);
+
+        verify(rateLimiter, never()).acquire();
+    }
+
+    @Test
+    @DisplayName("Should keep notifications for a retry when sending fails")
+    void flush_SendFails_Reschedules() throws Exception {
+        PendingNotification pending = pending(UUID.randomUUID(), "Order Shipped", "order-shipped");
+        when(repository.lockDue(NOW, 100)).thenReturn(List.of(pending));
+        doThrow(new MailSendException("SMTP unavailable"))
+                .when(emailService).sendEmail(anyString(), anyString(), anyString(), anyMap());
+
+        coalescer.flush(NOW);
+
+        assertThat(pending.getAttempts()).isEqualTo(1);
+        assertThat(pending.getDueAt()).isEqualTo(NOW.plusMinutes(1));
+        assertThat(pending.getClaimedUntil()).isNull();
+        verify(repository).saveAll(List.of(pending));
+        verify(repository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    @DisplayName("Should claim due notifications for the lease before sending them")
+    void flush_Due_ClaimsBeforeSending() throws Exception {
+        PendingNotification pending = pending(UUID.randomUUID(), "Order Shipped", "order-shipped");
+        when(repository.lockDue(NOW, 100)).thenReturn(List.of(pending));
+        LocalDateTime[] claimedWhileSending = new LocalDateTime[1];
+        doAnswer(invocation -> claimedWhileSending[0] = pending.getClaimedUntil())
+                .when(emailService).sendEmail(anyString(), anyString(), anyString(), anyMap());
+
+        coalescer.flush(NOW);
+
+        assertThat(claimedWhileSending[0]).isEqualTo(NOW.plusMinutes(5));
+        verify(repository).deleteAllByIdInBatch(List.of(pending.getId()));
+    }
+
+    @Test
+    @DisplayName("Should render an order confirmation from its stored data like the original")
+    void flush_StoredOrderConfirmation_RendersAmounts() throws Exception {
+        TemplateRenderer renderer = new TemplateRenderer(classpathEngine(), new SimpleMeterRegistry(), 16);
+        NotificationCoalescer rendering = new NotificationCoalescer(repository, emailService, renderer, rateLimiter,
+                objectMapper, mock(PlatformTransactionManager.class), new SimpleMeterRegistry(),
+                true, Duration.ofSeconds(10), "0 0 * * * *", "Your updates", Duration.ofMinutes(1), 3, 100,
+                Duration.ofMinutes(5), 1);
+        Map<String, Object> data = Map.of(
+                "orderNumber", "ORD-7",
+                "items", List.of(new OrderCreatedEvent.OrderItem(UUID.randomUUID(), "Desk Lamp", 2,
+                        new BigDecimal("49.95"), new BigDecimal("99.90"))),
+                "totalAmount", new BigDecimal("99.90"),
+                "shippingAddress", "1 Main St");
+        UUID userId = UUID.randomUUID();
+        PendingNotification order = pending(userId, "Order Confirmation", "order-confirmation");
+        order.setTemplateData(objectMapper.writeValueAsString(data));
+        PendingNotification second = pending(userId, "Order Confirmation", "order-confirmation");
+        second.setTemplateData(order.getTemplateData());
+        when(repository.lockDue(NOW, 100)).thenReturn(List.of(order, second));
+
+        rendering.flush(NOW);
+        rendering.shutdown();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> variables = ArgumentCaptor.forClass(Map.class);
+        verify(emailService).sendEmail(eq("user@atlas.com"), eq("Your updates"), eq("notification-digest"),
+                variables.capture());
+        Map<?, ?> section = (Map<?, ?>) ((List<?>) variables.getValue().get("sections")).get(0);
+        assertThat((String) section.get("html")).contains("Desk Lamp x 2").contains("$99.90")
+                .isEqualTo(renderer.renderFragment("order-confirmation", "content", data));
+    }
+
+    private static SpringTemplateEngine classpathEngine() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        return engine;
+    }
+
+    private PendingNotification pending(UUID userId, String subject, String template) throws Exception {
+        return PendingNotification.builder()
+                .id(UUID.randomUUID())
+                .userId(userId)
+                .recipientEmail("user@atlas.com")
+                .subject(subject)
+                .templateName(template)
+                .templateData(objectMapper.writeValueAsString(Map.of("orderId", "42")))
+                .priority(Priority.NORMAL)
+                .dueAt(NOW)
+                .createdAt(NOW.minusSeconds(10))
+                .build();
+    }
+}
@@ -0,0 +1,163 @@
+package com.atlas.notification.service;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PooledJavaMailSenderTest {
+
+    @Test
+    @DisplayName("Should reuse one connection for consecutive sends")
+    void send_Sequential_ReusesConnection() throws Exception {
+        TestSender sender = new TestSender(2, 100);
+
+        sender.send(message());
+        sender.send(message());
+        sender.send(message(), message());
+
+        assertThat(sender.openedConnections()).isEqualTo(1);
+        assertThat(sender.idleConnections()).isEqualTo(1);
+        verify(sender.transports.get(0), times(4)).sendMessage(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should replace a connection after its message limit")
+    void send_MessageLimitReached_OpensNewConnection() throws Exception {
+        TestSender sender = new TestSender(2, 2);
+
+        sender.send(message(), message(), message());
+
+        assertThat(sender.openedConnections()).isEqualTo(2);
+        verify(sender.transports.get(0)).close();
+    }
+
+    @Test
+    @DisplayName("Should drop a connection that broke while sending")
+    void send_ConnectionBroken_ReportsFailureAndReconnects() throws Exception {
+        TestSender sender = new TestSender(2, 100);
+        sender.send(message());
+        Transport broken = sender.transports.get(0);
+        doThrow(new MessagingException("connection reset")).when(broken).sendMessage(any(), any());
+        when(broken.isConnected()).thenReturn(false);
+
+        assertThatThrownBy(() -> sender.send(message())).isInstanceOf(MailSendException.class);
+        sender.send(message());
+
+        assertThat(sender.openedConnections()).isEqualTo(2);
+        verify(broken).close();
+    }
+
+    @Test
+    @DisplayName("Should fail fast when every connection is busy")
+    void send_PoolExhausted_TimesOut() throws Exception {
+        TestSender sender = new TestSender(1, 100, Duration.ofMillis(50));
+        sender.blockSends = true;
+        Thread first = new Thread(() -> sender.send(message()));
+        first.start();
+        while (sender.activeConnections() == 0) {
+            Thread.onSpinWait();
+        }
+
+        assertThatThrownBy(() -> sender.send(message()))
+                .isInstanceOf(MailSendException.class)
+                .hasMessageContaining("No SMTP connection available");
+
+        sender.blockSends = false;
+        first.join();
+    }
+
+    @Test
+    @DisplayName("Should keep reserved connections for urgent sends")
+    void sendUrgent_UnreservedBusy_UsesReservedConnection() throws Exception {
+        TestSender sender = new TestSender(2, 1, 100, Duration.ofMillis(50));
+        sender.blockSends = true;
+        Thread bulk = new Thread(() -> sender.send(message()));
+        bulk.start();
+        while (sender.activeConnections() == 0) {
+            Thread.onSpinWait();
+        }
+
+        assertThatThrownBy(() -> sender.send(message()))
+                .isInstanceOf(MailSendException.class)
+                .hasMessageContaining("No SMTP connection available");
+        Thread urgent = new Thread(() -> sender.sendUrgent(message()));
+        urgent.start();
+        while (sender.activeConnections() < 2) {
+            Thread.onSpinWait();
+        }
+
+        sender.blockSends = false;
+        bulk.join();
+        urgent.join();
+        assertThat(sender.openedConnections()).isEqualTo(2);
+        assertThat(sender.activeConnections()).isZero();
+    }
+
+    private MimeMessage message() {
+        try {
+            MimeMessage message = new TestSender(1, 1).createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+            helper.setFrom("noreply@atlas.test");
+            helper.setTo("user@atlas.test");
+            helper.setSubject("Test");
+            helper.setText("Hello");
+            return message;
+        } catch (MessagingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Hands out mocked transports instead of connecting to a server.
+     */
+    private static final class TestSender extends PooledJavaMailSender {
+
+        private final List<Transport> transports = new ArrayList<>();
+        private volatile boolean blockSends;
+
+        TestSender(int maxConnections, int maxMessagesPerConnection) {
+            this(maxConnections, maxMessagesPerConnection, Duration.ofSeconds(5));
+        }
+
+        TestSender(int maxConnections, int maxMessagesPerConnection, Duration borrowTimeout) {
+            this(maxConnections, 0, maxMessagesPerConnection, borrowTimeout);
+        }
+
+        TestSender(int maxConnections, int reservedForUrgent, int maxMessagesPerConnection, Duration borrowTimeout) {
+            super(maxConnections, reservedForUrgent, maxMessagesPerConnection, Duration.ofMinutes(1),
+                    Duration.ofSeconds(5), borrowTimeout);
+        }
+
+        @Override
+        protected Transport connectTransport() throws MessagingException {
+            Transport transport = mock(Transport.class);
+            when(transport.isConnected()).thenReturn(true);
+            doAnswer(invocation -> {
+                while (blockSends) {
+                    Thread.sleep(5);
+                }
+                return null;
+            }).when(transport).sendMessage(any(), any());
+            transports.add(transport);
+            return transport;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.atlas.notification.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SendRateLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    @DisplayName("Should space back-to-back sends one interval apart")
+    void reserve_BackToBack_SpacesSlots() {
+        SendRateLimiter limiter = new SendRateLimiter(10);
+
+        assertThat(limiter.reserve(0)).isZero();
+        assertThat(limiter.reserve(0)).isEqualTo(SECOND / 10);
+        assertThat(limiter.reserve(0)).isEqualTo(2 * SECOND / 10);
+    }
+
+    @Test
+    @DisplayName("Should not turn idle time into a burst")
+    void reserve_AfterIdle_NoBurst() {
+        SendRateLimiter limiter = new SendRateLimiter(10);
+        limiter.reserve(0);
+
+        assertThat(limiter.reserve(5 * SECOND)).isZero();
+        assertThat(limiter.reserve(5 * SECOND)).isEqualTo(SECOND / 10);
+    }
+
+    @Test
+    @DisplayName("Should reject a non-positive rate")
+    void constructor_NonPositiveRate_Throws() {
+        assertThatThrownBy(() -> new SendRateLimiter(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,96 @@
+package com.atlas.notification.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TemplateRendererTest {
+
+    // With a string resolver the template name is the template itself
+    private static final String TEMPLATE = "<p>Hi <span th:text=\"${name}\">x</span>,</p>"
+            + "<ul><li th:each=\"item : ${items}\" th:text=\"${item}\">item</li></ul>"
+            + "<p th:text=\"${code}\">code</p>";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TemplateRenderer renderer = new TemplateRenderer(engine(), meterRegistry, 16);
+
+    @Test
+    @DisplayName("Should personalise a prepared template exactly like a full render")
+    void prepare_Personalize_MatchesFullRender() {
+        Map<String, Object> shared = Map.of("items", List.of("Lamp", "Desk"));
+        Map<String, Object> recipient = Map.of("name", "Ada <Admin>", "code", "A&B");
+
+        TemplateRenderer.PreparedTemplate prepared = renderer.prepare(TEMPLATE, "lamps", shared, recipient.keySet());
+        Map<String, Object> all = new HashMap<>(shared);
+        all.putAll(recipient);
+
+        assertThat(prepared.personalize(recipient)).isEqualTo(renderer.render(TEMPLATE, all));
+    }
+
+    @Test
+    @DisplayName("Should reuse a prepared template for the same campaign")
+    void prepare_SameKey_CacheHit() {
+        Map<String, Object> shared = Map.of("items", List.of("Lamp"));
+
+        TemplateRenderer.PreparedTemplate first = renderer.prepare(TEMPLATE, "lamp", shared, Set.of("name", "code"));
+        TemplateRenderer.PreparedTemplate second = renderer.prepare(TEMPLATE, "lamp", shared, Set.of("name", "code"));
+        renderer.prepare(TEMPLATE, "desk", Map.of("items", List.of("Desk")), Set.of("name", "code"));
+
+        assertThat(second).isSameAs(first);
+        assertThat(meterRegistry.counter("notification.template.prepared", "result", "hit").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("notification.template.prepared", "result", "miss").count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should accept null shared variables")
+    void prepare_NullSharedValue_Prepares() {
+        Map<String, Object> shared = new HashMap<>();
+        shared.put("items", null);
+
+        TemplateRenderer.PreparedTemplate prepared = renderer.prepare(TEMPLATE, "none", shared, Set.of("name", "code"));
+
+        assertThat(prepared.personalize(Map.of("name", "Ada", "code", "A1"))).contains("Hi <span>Ada</span>");
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used prepared template when full")
+    void prepare_CacheFull_EvictsLeastRecentlyUsed() {
+        TemplateRenderer small = new TemplateRenderer(engine(), new SimpleMeterRegistry(), 2);
+        Map<String, Object> shared = Map.of("items", List.of("Lamp"));
+        TemplateRenderer.PreparedTemplate first = small.prepare(TEMPLATE, "first", shared, Set.of("name"));
+        TemplateRenderer.PreparedTemplate second = small.prepare(TEMPLATE, "second", shared, Set.of("name"));
+
+        small.prepare(TEMPLATE, "first", shared, Set.of("name"));
+        small.prepare(TEMPLATE, "third", shared, Set.of("name"));
+
+        assertThat(small.prepare(TEMPLATE, "first", shared, Set.of("name"))).isSameAs(first);
+        assertThat(small.prepare(TEMPLATE, "second", shared, Set.of("name"))).isNotSameAs(second);
+    }
+
+    @Test
+    @DisplayName("Should render only the named fragment of a template")
+    void renderFragment_RendersFragmentOnly() {
+        String template = "<html><body><h1>Title</h1>"
+                + "<div th:fragment=\"content\"><p th:text=\"${name}\">x</p></div></body></html>";
+
+        String html = renderer.renderFragment(template, "content", Map.of("name", "Ada"));
+
+        assertThat(html).contains("<p>Ada</p>").doesNotContain("Title");
+    }
+
+    private static TemplateEngine engine() {
+        TemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(new StringTemplateResolver());
+        return engine;
+    }
+}
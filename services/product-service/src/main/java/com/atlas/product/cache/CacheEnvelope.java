@@ -0,0 +1,22 @@
+package com.atlas.product.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cached value together with the metadata needed for probabilistic early refresh.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheEnvelope {
+
+    private Object value;
+
+    /** How long the value took to compute, in milliseconds. */
+    private long computeMillis;
+
+    /** Epoch millis at which the entry expires from the cache. */
+    private long expiresAt;
+}
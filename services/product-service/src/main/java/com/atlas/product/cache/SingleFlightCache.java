@@ -0,0 +1,216 @@
+package com.atlas.product.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Cache decorator that runs at most one loader per key at a time.
+ *
+ * Callers that miss while a load for the same key is in flight wait for that load
+ * instead of hitting the database themselves. Entries are also refreshed ahead of
+ * expiry using probabilistic early expiration (XFetch): the closer an entry is to
+ * its TTL, and the longer it took to compute, the more likely a caller is to reload
+ * it while everyone else keeps reading the current value.
+ *
+ * A load that overlaps an eviction or put of its key does not cache its result: it may
+ * have read the data before the change that caused the eviction, and would otherwise
+ * serve that until the entry expires.
+ */
+@Slf4j
+public class SingleFlightCache implements Cache {
+
+    private final Cache delegate;
+    private final Duration ttl;
+    private final double beta;
+    private final ConcurrentHashMap<Object, Flight> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @param ttl  entry lifetime in the delegate cache; {@code null} or zero disables early refresh
+     * @param beta early refresh aggressiveness, 1.0 being the XFetch default and 0 disabling it
+     */
+    public SingleFlightCache(Cache delegate, Duration ttl, double beta) {
+        this.delegate = delegate;
+        this.ttl = ttl;
+        this.beta = beta;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper wrapper = delegate.get(key);
+        if (wrapper != null && wrapper.get() instanceof CacheEnvelope envelope) {
+            return new SimpleValueWrapper(envelope.getValue());
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = delegate.get(key);
+        if (wrapper == null) {
+            return (T) loadOnce(key, valueLoader);
+        }
+
+        if (!(wrapper.get() instanceof CacheEnvelope envelope)) {
+            return (T) wrapper.get();
+        }
+        if (!shouldRefreshEarly(envelope)) {
+            return (T) envelope.getValue();
+        }
+
+        // This caller reloads ahead of expiry; anyone else keeps the current value meanwhile
+        Flight refresh = new Flight();
+        if (inFlight.putIfAbsent(key, refresh) != null) {
+            return (T) envelope.getValue();
+        }
+        try {
+            return (T) load(key, valueLoader, refresh);
+        } catch (ValueRetrievalException e) {
+            log.warn("Early refresh of {} in cache {} failed, serving current value: {}",
+                    key, getName(), e.getCause().getMessage());
+            return (T) envelope.getValue();
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        supersede(key);
+        delegate.put(key, envelope(value, 0));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = delegate.putIfAbsent(key, envelope(value, 0));
+        if (existing != null && existing.get() instanceof CacheEnvelope envelope) {
+            return new SimpleValueWrapper(envelope.getValue());
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        supersede(key);
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        supersede(key);
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        inFlight.values().forEach(flight -> flight.superseded = true);
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        inFlight.values().forEach(flight -> flight.superseded = true);
+        return delegate.invalidate();
+    }
+
+    private void supersede(Object key) {
+        Flight flight = inFlight.get(key);
+        if (flight != null) {
+            flight.superseded = true;
+        }
+    }
+
+    private Object loadOnce(Object key, Callable<?> valueLoader) {
+        Flight pending = new Flight();
+        Flight leader = inFlight.putIfAbsent(key, pending);
+        if (leader == null) {
+            return load(key, valueLoader, pending);
+        }
+
+        try {
+            return leader.result.join();
+        } catch (CompletionException e) {
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        }
+    }
+
+    private Object load(Object key, Callable<?> valueLoader, Flight pending) {
+        try {
+            long start = System.nanoTime();
+            Object value = valueLoader.call();
+            long computeMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+            if (!pending.superseded) {
+                delegate.put(key, envelope(value, computeMillis));
+                // An eviction between the check and the put may have missed the new entry
+                if (pending.superseded) {
+                    delegate.evict(key);
+                }
+            }
+            pending.result.complete(value);
+            return value;
+        } catch (Throwable e) {
+            pending.result.completeExceptionally(e);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            inFlight.remove(key, pending);
+        }
+    }
+
+    private CacheEnvelope envelope(Object value, long computeMillis) {
+        long expiresAt = hasTtl() ? System.currentTimeMillis() + ttl.toMillis() : Long.MAX_VALUE;
+        return new CacheEnvelope(value, computeMillis, expiresAt);
+    }
+
+    /**
+     * XFetch: refresh when {@code now - computeTime * beta * ln(rand)} reaches the expiry time.
+     */
+    boolean shouldRefreshEarly(CacheEnvelope envelope) {
+        if (!hasTtl() || beta <= 0 || envelope.getExpiresAt() == Long.MAX_VALUE) {
+            return false;
+        }
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble();
+        double gap = -envelope.getComputeMillis() * beta * Math.log(random);
+        return System.currentTimeMillis() + gap >= envelope.getExpiresAt();
+    }
+
+    private boolean hasTtl() {
+        return ttl != null && !ttl.isZero() && !ttl.isNegative();
+    }
+
+    /**
+     * A load in progress; {@code superseded} is set when its key is evicted or put meanwhile.
+     */
+    private static final class Flight {
+
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private volatile boolean superseded;
+    }
+}
@@ -8,13 +8,16 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
 
@@ -29,6 +32,10 @@ public class ProductController {
 
     private final ProductService productService;
 
+    // Catalog reads are identical for every anonymous caller, so shared caches may keep them
+    @Value("${atlas.product.http-cache.max-age:60s}")
+    private Duration cacheMaxAge;
+
     @PostMapping
     @Operation(summary = "Create a new product")
     public ResponseEntity<ApiResponse<ProductResponse>> createProduct(
@@ -42,7 +49,7 @@ public class ProductController {
     @Operation(summary = "Get product by ID")
     public ResponseEntity<ApiResponse<ProductResponse>> getProduct(@PathVariable UUID productId) {
         ProductResponse response = productService.getProduct(productId);
-        return ResponseEntity.ok(ApiResponse.success(response));
+        return cacheable(ApiResponse.success(response));
     }
 
     @GetMapping("/search")
@@ -60,7 +67,7 @@ public class ProductController {
         Pageable pageable = PageRequest.of(page, size, sort);
         
         PagedResponse<ProductResponse> response = productService.searchProducts(q, pageable);
-        return ResponseEntity.ok(ApiResponse.success(response));
+        return cacheable(ApiResponse.success(response));
     }
 
     @GetMapping("/category/{categoryId}")
@@ -72,13 +79,19 @@ public class ProductController {
         
         Pageable pageable = PageRequest.of(page, size);
         PagedResponse<ProductResponse> response = productService.getProductsByCategory(categoryId, pageable);
-        return ResponseEntity.ok(ApiResponse.success(response));
+        return cacheable(ApiResponse.success(response));
     }
 
     @GetMapping("/featured")
     @Operation(summary = "Get featured products")
     public ResponseEntity<ApiResponse<List<ProductResponse>>> getFeaturedProducts() {
         List<ProductResponse> response = productService.getFeaturedProducts();
-        return ResponseEntity.ok(ApiResponse.success(response));
+        return cacheable(ApiResponse.success(response));
+    }
+
+    private <T> ResponseEntity<T> cacheable(T body) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(cacheMaxAge).cachePublic())
+                .body(body);
     }
 }
@@ -58,6 +58,15 @@ public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpec
     @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :quantity, p.reservedQuantity = p.reservedQuantity - :quantity WHERE p.id = :productId")
     int confirmSale(@Param("productId") UUID productId, @Param("quantity") int quantity);
 
-    @Query("SELECT p FROM Product p WHERE p.stockQuantity - p.reservedQuantity <= p.lowStockThreshold AND p.status = 'ACTIVE'")
-    List<Product> findLowStockProducts();
+    @Query("SELECT new com.atlas.product.repository.StockLevel(p.id, p.sku, p.name, " +
+           "p.stockQuantity - p.reservedQuantity, p.lowStockThreshold) " +
+           "FROM Product p WHERE p.id = :productId AND p.status = 'ACTIVE'")
+    Optional<StockLevel> findActiveStockLevel(@Param("productId") UUID productId);
+
+    // Includes products within the hysteresis margin so callers can tell "still low" from "recovered"
+    @Query("SELECT new com.atlas.product.repository.StockLevel(p.id, p.sku, p.name, " +
+           "p.stockQuantity - p.reservedQuantity, p.lowStockThreshold) " +
+           "FROM Product p WHERE p.stockQuantity - p.reservedQuantity <= p.lowStockThreshold + :margin " +
+           "AND p.status = 'ACTIVE'")
+    List<StockLevel> findLowStockLevels(@Param("margin") int margin);
 }
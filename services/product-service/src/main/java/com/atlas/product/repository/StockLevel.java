@@ -0,0 +1,20 @@
+package com.atlas.product.repository;
+
+import java.util.UUID;
+
+/**
+ * Lightweight projection of a product's stock position, used by inventory
+ * monitoring so it does not have to load full product entities.
+ */
+public record StockLevel(
+        UUID productId,
+        String sku,
+        String name,
+        Integer availableQuantity,
+        Integer lowStockThreshold
+) {
+
+    public boolean isLow() {
+        return availableQuantity <= lowStockThreshold;
+    }
+}
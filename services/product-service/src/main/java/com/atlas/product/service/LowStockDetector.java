@@ -0,0 +1,163 @@
+package com.atlas.product.service;
+
+import com.atlas.common.event.LowStockEvent;
+import com.atlas.product.repository.ProductRepository;
+import com.atlas.product.repository.StockLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Detects low-stock threshold crossings as inventory changes and publishes a
+ * {@code LOW_STOCK} event once per crossing.
+ *
+ * An alert fires when available stock drops to the threshold and is only re-armed
+ * once stock recovers above {@code threshold + hysteresis}, so stock bouncing around
+ * the threshold does not produce an alert per order. Alert state is shared between
+ * instances through Redis; a local set avoids a Redis round trip for products that
+ * are nowhere near their threshold. A periodic reconciliation catches changes made
+ * outside the reserve/release/sale paths, and clears the Redis state of every product
+ * that recovered, including ones this instance never alerted for. Alert state also
+ * expires after {@code alert-ttl}, after which a product that is still low alerts again.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LowStockDetector {
+
+    private static final String PRODUCT_EXCHANGE = "product.exchange";
+    private static final String LOW_STOCK_ROUTING_KEY = "inventory.low-stock";
+    private static final String ALERT_KEY_PREFIX = "inventory:low-stock:";
+
+    private final ProductRepository productRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final StringRedisTemplate redisTemplate;
+
+    private final Set<UUID> alerted = ConcurrentHashMap.newKeySet();
+
+    @Value("${atlas.inventory.low-stock.hysteresis:5}")
+    private int hysteresis;
+
+    @Value("${atlas.inventory.low-stock.alert-ttl:24h}")
+    private Duration alertTtl;
+
+    /**
+     * Evaluate an active product's new stock position after an inventory change.
+     */
+    public void onStockLevelChanged(StockLevel level) {
+        if (level.isLow()) {
+            if (alerted.add(level.productId())) {
+                raiseAlert(level);
+            }
+        } else if (level.availableQuantity() > level.lowStockThreshold() + hysteresis) {
+            if (alerted.remove(level.productId())) {
+                clearAlert(level.productId());
+            }
+        }
+    }
+
+    /**
+     * Re-read the product's stock position and evaluate it. Called in the transaction that
+     * changed the stock, after the update, which holds the row lock: the level read is the
+     * one this change produced. Products that are not active are ignored, as in
+     * {@link #reconcile}, which also clears their alert state.
+     */
+    public void onStockLevelChanged(UUID productId) {
+        productRepository.findActiveStockLevel(productId).ifPresent(this::onStockLevelChanged);
+    }
+
+    /**
+     * Periodic reconciliation using a projection query, for changes this instance did not observe.
+     */
+    @Scheduled(fixedDelayString = "${atlas.inventory.low-stock.reconcile-interval:300000}",
+            initialDelayString = "${atlas.inventory.low-stock.reconcile-initial-delay:60000}")
+    @Transactional(readOnly = true)
+    public void reconcile() {
+        List<StockLevel> levels = productRepository.findLowStockLevels(hysteresis);
+
+        Set<UUID> nearThreshold = new HashSet<>();
+        for (StockLevel level : levels) {
+            nearThreshold.add(level.productId());
+            if (level.isLow()) {
+                // Redis is authoritative here: the local set may be stale if another instance re-armed it
+                alerted.add(level.productId());
+                raiseAlert(level);
+            }
+        }
+
+        // Alerted products missing from the result have recovered past the hysteresis band.
+        // Redis may hold alerts raised by other instances or before a restart, so check it too.
+        Set<UUID> recovered = new HashSet<>(alerted);
+        recovered.addAll(storedAlerts());
+        recovered.removeAll(nearThreshold);
+        alerted.removeAll(recovered);
+        recovered.forEach(this::clearAlert);
+
+        log.debug("Low-stock reconciliation checked {} products near threshold", levels.size());
+    }
+
+    private void raiseAlert(StockLevel level) {
+        if (!claimAlert(level.productId())) {
+            return;
+        }
+
+        LowStockEvent event = LowStockEvent.create(
+                level.productId(), level.sku(), level.name(),
+                level.availableQuantity(), level.lowStockThreshold()
+        );
+        rabbitTemplate.convertAndSend(PRODUCT_EXCHANGE, LOW_STOCK_ROUTING_KEY, event);
+        log.info("Low stock alert for product {} ({} available, threshold {})",
+                level.sku(), level.availableQuantity(), level.lowStockThreshold());
+    }
+
+    private boolean claimAlert(UUID productId) {
+        try {
+            return Boolean.TRUE.equals(
+                    redisTemplate.opsForValue().setIfAbsent(ALERT_KEY_PREFIX + productId, "1", alertTtl));
+        } catch (Exception e) {
+            // Prefer a possible duplicate alert over a missed one
+            log.warn("Could not record low-stock alert state for product {}: {}", productId, e.getMessage());
+            return true;
+        }
+    }
+
+    private Set<UUID> storedAlerts() {
+        Set<UUID> productIds = new HashSet<>();
+        ScanOptions options = ScanOptions.scanOptions().match(ALERT_KEY_PREFIX + "*").count(500).build();
+        try (Cursor<String> keys = redisTemplate.scan(options)) {
+            while (keys.hasNext()) {
+                String key = keys.next();
+                try {
+                    productIds.add(UUID.fromString(key.substring(ALERT_KEY_PREFIX.length())));
+                } catch (IllegalArgumentException e) {
+                    log.debug("Ignoring unexpected low-stock key {}", key);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Could not list low-stock alert state: {}", e.getMessage());
+        }
+        return productIds;
+    }
+
+    private void clearAlert(UUID productId) {
+        try {
+            redisTemplate.delete(ALERT_KEY_PREFIX + productId);
+        } catch (Exception e) {
+            log.warn("Could not clear low-stock alert state for product {}: {}", productId, e.getMessage());
+        }
+    }
+}
@@ -21,7 +21,9 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -36,6 +38,7 @@ public class ProductService {
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final RabbitTemplate rabbitTemplate;
+    private final LowStockDetector lowStockDetector;
 
     private static final String PRODUCT_EXCHANGE = "product.exchange";
 
@@ -85,7 +88,7 @@ public class ProductService {
      * Get product by ID.
      */
     @Transactional(readOnly = true)
-    @Cacheable(value = "products", key = "#productId")
+    @Cacheable(value = "products", key = "#productId", sync = true)
     public ProductResponse getProduct(UUID productId) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
@@ -105,7 +108,7 @@ public class ProductService {
      * Get products by category.
      */
     @Transactional(readOnly = true)
-    @Cacheable(value = "products", key = "'category-' + #categoryId + '-' + #pageable.pageNumber")
+    @Cacheable(value = "products", key = "'category-' + #categoryId + '-' + #pageable.pageNumber", sync = true)
     public PagedResponse<ProductResponse> getProductsByCategory(UUID categoryId, Pageable pageable) {
         Page<Product> page = productRepository.findByCategoryId(categoryId, pageable);
         return mapToPagedResponse(page);
@@ -138,6 +141,8 @@ public class ProductService {
         );
         rabbitTemplate.convertAndSend(PRODUCT_EXCHANGE, "inventory.reserved", event);
         log.info("Inventory reserved successfully");
+
+        lowStockDetector.onStockLevelChanged(productId);
     }
 
     /**
@@ -162,6 +167,10 @@ public class ProductService {
                 orderId
         );
         rabbitTemplate.convertAndSend(PRODUCT_EXCHANGE, "inventory.released", event);
+
+        if (updated > 0) {
+            lowStockDetector.onStockLevelChanged(productId);
+        }
     }
 
     /**
@@ -169,14 +178,17 @@ public class ProductService {
      */
     @Transactional
     public void confirmSale(UUID productId, int quantity) {
-        productRepository.confirmSale(productId, quantity);
+        int updated = productRepository.confirmSale(productId, quantity);
+        if (updated > 0) {
+            lowStockDetector.onStockLevelChanged(productId);
+        }
     }
 
     /**
      * Get featured products.
      */
     @Transactional(readOnly = true)
-    @Cacheable(value = "products", key = "'featured'")
+    @Cacheable(value = "products", key = "'featured'", sync = true)
     public List<ProductResponse> getFeaturedProducts() {
         return productRepository.findFeaturedProducts().stream()
                 .map(this::mapToResponse)
@@ -200,17 +212,22 @@ public class ProductService {
                 .lowStock(product.isLowStock())
                 .status(product.getStatus())
                 .imageUrl(product.getImageUrl())
-                .additionalImages(product.getAdditionalImages())
+                .additionalImages(copyOf(product.getAdditionalImages()))
                 .brand(product.getBrand())
                 .weight(product.getWeight())
                 .weightUnit(product.getWeightUnit())
                 .featured(product.getFeatured())
-                .tags(product.getTags())
+                .tags(copyOf(product.getTags()))
                 .createdAt(product.getCreatedAt())
                 .updatedAt(product.getUpdatedAt())
                 .build();
     }
 
+    // Detach element collections from the persistence context so responses can be cached
+    private static Set<String> copyOf(Set<String> values) {
+        return values != null ? new HashSet<>(values) : null;
+    }
+
     private PagedResponse<ProductResponse> mapToPagedResponse(Page<Product> page) {
         List<ProductResponse> content = page.getContent().stream()
                 .map(this::mapToResponse)
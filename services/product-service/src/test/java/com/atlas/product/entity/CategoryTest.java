@@ -12,48 +12,48 @@ class CategoryTest {
     @Test
     @DisplayName("Should create category with builder")
     void createCategory_WithBuilder() {
+        UUID id = UUID.randomUUID();
         Category category = Category.builder()
-                .id(UUID.randomUUID())
                 .name("Electronics")
                 .slug("electronics")
                 .description("Electronic products")
                 .active(true)
                 .build();
+        category.setId(id);
 
         assertThat(category.getName()).isEqualTo("Electronics");
+        assertThat(category.getId()).isEqualTo(id);
         assertThat(category.getSlug()).isEqualTo("electronics");
-        assertThat(category.isActive()).isTrue();
+        assertThat(category.getActive()).isTrue();
     }
 
     @Test
     @DisplayName("Should handle parent-child relationship")
     void parentChildRelationship() {
         Category parent = Category.builder()
-                .id(UUID.randomUUID())
                 .name("Electronics")
                 .slug("electronics")
                 .build();
 
         Category child = Category.builder()
-                .id(UUID.randomUUID())
                 .name("Phones")
                 .slug("phones")
                 .parent(parent)
                 .build();
 
         assertThat(child.getParent()).isEqualTo(parent);
-        assertThat(child.isRootCategory()).isFalse();
+        assertThat(child.isRoot()).isFalse();
     }
 
     @Test
     @DisplayName("Should identify root category")
-    void isRootCategory() {
+    void isRoot() {
         Category rootCategory = Category.builder()
                 .name("Root")
                 .slug("root")
                 .build();
 
-        assertThat(rootCategory.isRootCategory()).isTrue();
+        assertThat(rootCategory.isRoot()).isTrue();
     }
 
     @Test
@@ -64,8 +64,8 @@ class CategoryTest {
                 .slug("test")
                 .build();
 
-        assertThat(category.isActive()).isTrue();
-        assertThat(category.getSortOrder()).isZero();
+        assertThat(category.getActive()).isTrue();
+        assertThat(category.getDisplayOrder()).isZero();
     }
 
     @Test
@@ -0,0 +1,161 @@
+package com.atlas.product.service;
+
+import com.atlas.common.event.LowStockEvent;
+import com.atlas.product.repository.ProductRepository;
+import com.atlas.product.repository.StockLevel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LowStockDetectorTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @InjectMocks
+    private LowStockDetector lowStockDetector;
+
+    private UUID productId;
+
+    @BeforeEach
+    void setUp() {
+        productId = UUID.randomUUID();
+        ReflectionTestUtils.setField(lowStockDetector, "hysteresis", 5);
+        ReflectionTestUtils.setField(lowStockDetector, "alertTtl", Duration.ofHours(24));
+    }
+
+    @Test
+    @DisplayName("Should publish a single alert when stock crosses the threshold")
+    void onStockLevelChanged_CrossingThreshold_PublishesOnce() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+
+        lowStockDetector.onStockLevelChanged(level(12));
+        lowStockDetector.onStockLevelChanged(level(10));
+        lowStockDetector.onStockLevelChanged(level(8));
+
+        verify(rabbitTemplate, times(1))
+                .convertAndSend(eq("product.exchange"), eq("inventory.low-stock"), any(LowStockEvent.class));
+    }
+
+    @Test
+    @DisplayName("Should not re-arm until stock recovers past the hysteresis band")
+    void onStockLevelChanged_WithinHysteresisBand_DoesNotRealert() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+
+        lowStockDetector.onStockLevelChanged(level(9));
+        lowStockDetector.onStockLevelChanged(level(14));
+        lowStockDetector.onStockLevelChanged(level(9));
+        verify(rabbitTemplate, times(1)).convertAndSend(anyString(), anyString(), any(LowStockEvent.class));
+
+        lowStockDetector.onStockLevelChanged(level(16));
+        lowStockDetector.onStockLevelChanged(level(9));
+        verify(rabbitTemplate, times(2)).convertAndSend(anyString(), anyString(), any(LowStockEvent.class));
+        verify(redisTemplate).delete("inventory:low-stock:" + productId);
+    }
+
+    @Test
+    @DisplayName("Should skip publishing when another instance already raised the alert")
+    void onStockLevelChanged_AlreadyClaimed_DoesNotPublish() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+
+        lowStockDetector.onStockLevelChanged(level(3));
+
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    @Test
+    @DisplayName("Should reconcile from the projection query and clear recovered products")
+    void reconcile_UsesProjectionAndClearsRecovered() {
+        when(redisTemplate.scan(any(ScanOptions.class))).thenAnswer(invocation -> cursor());
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        when(productRepository.findLowStockLevels(5)).thenReturn(List.of(level(4)));
+
+        lowStockDetector.reconcile();
+        verify(rabbitTemplate).convertAndSend(anyString(), anyString(), any(LowStockEvent.class));
+
+        when(productRepository.findLowStockLevels(5)).thenReturn(List.of());
+        lowStockDetector.reconcile();
+
+        verify(redisTemplate).delete("inventory:low-stock:" + productId);
+        verify(productRepository, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("Should clear alert state left by another instance once the product recovered")
+    void reconcile_OrphanedAlertKey_ClearsIt() {
+        when(productRepository.findLowStockLevels(5)).thenReturn(List.of());
+        when(redisTemplate.scan(any(ScanOptions.class)))
+                .thenAnswer(invocation -> cursor("inventory:low-stock:" + productId));
+
+        lowStockDetector.reconcile();
+
+        verify(redisTemplate).delete("inventory:low-stock:" + productId);
+    }
+
+    @Test
+    @DisplayName("Should record alert state with a TTL")
+    void onStockLevelChanged_Alert_ClaimExpires() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+
+        lowStockDetector.onStockLevelChanged(level(3));
+
+        verify(valueOperations).setIfAbsent("inventory:low-stock:" + productId, "1", Duration.ofHours(24));
+    }
+
+    @Test
+    @DisplayName("Should ignore stock changes of products that are not active")
+    void onStockLevelChanged_InactiveProduct_Ignored() {
+        when(productRepository.findActiveStockLevel(productId)).thenReturn(Optional.empty());
+
+        lowStockDetector.onStockLevelChanged(productId);
+
+        verifyNoInteractions(redisTemplate, rabbitTemplate);
+    }
+
+    private static Cursor<String> cursor(String... keys) {
+        Iterator<String> it = List.of(keys).iterator();
+        @SuppressWarnings("unchecked")
+        Cursor<String> cursor = mock(Cursor.class);
+        lenient().when(cursor.hasNext()).thenAnswer(invocation -> it.hasNext());
+        lenient().when(cursor.next()).thenAnswer(invocation -> it.next());
+        return cursor;
+    }
+
+    private StockLevel level(int available) {
+        return new StockLevel(productId, "SKU-1", "Widget", available, 10);
+    }
+}
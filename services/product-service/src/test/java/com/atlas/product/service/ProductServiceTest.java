@@ -21,6 +21,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
@@ -42,6 +43,9 @@ class ProductServiceTest {
     @Mock
     private RabbitTemplate rabbitTemplate;
 
+    @Mock
+    private LowStockDetector lowStockDetector;
+
     @InjectMocks
     private ProductService productService;
 
@@ -52,14 +56,13 @@ class ProductServiceTest {
     @BeforeEach
     void setUp() {
         testCategory = Category.builder()
-                .id(UUID.randomUUID())
                 .name("Electronics")
                 .slug("electronics")
                 .active(true)
                 .build();
+        testCategory.setId(UUID.randomUUID());
 
         testProduct = Product.builder()
-                .id(UUID.randomUUID())
                 .sku("PROD-001")
                 .name("Test Product")
                 .description("Test Description")
@@ -69,6 +72,7 @@ class ProductServiceTest {
                 .status(ProductStatus.ACTIVE)
                 .category(testCategory)
                 .build();
+        testProduct.setId(UUID.randomUUID());
 
         createRequest = new CreateProductRequest();
         createRequest.setSku("NEW-001");
@@ -138,7 +142,7 @@ class ProductServiceTest {
         Page<Product> page = new PageImpl<>(List.of(testProduct));
         when(productRepository.searchProducts(anyString(), any(Pageable.class))).thenReturn(page);
 
-        PagedResponse<ProductResponse> response = productService.searchProducts("test", 0, 10);
+        PagedResponse<ProductResponse> response = productService.searchProducts("test", PageRequest.of(0, 10));
 
         assertThat(response.getContent()).hasSize(1);
         assertThat(response.getContent().get(0).getName()).isEqualTo("Test Product");
@@ -147,10 +151,9 @@ class ProductServiceTest {
     @Test
     @DisplayName("Should get featured products")
     void getFeaturedProducts_Success() {
-        when(productRepository.findFeaturedProducts(any(Pageable.class)))
-                .thenReturn(List.of(testProduct));
+        when(productRepository.findFeaturedProducts()).thenReturn(List.of(testProduct));
 
-        List<ProductResponse> response = productService.getFeaturedProducts(10);
+        List<ProductResponse> response = productService.getFeaturedProducts();
 
         assertThat(response).hasSize(1);
     }
@@ -159,19 +162,21 @@ class ProductServiceTest {
     @DisplayName("Should reserve inventory successfully")
     void reserveInventory_Success() {
         UUID orderId = UUID.randomUUID();
-        when(productRepository.findById(testProduct.getId())).thenReturn(Optional.of(testProduct));
+        when(productRepository.findByIdWithLock(testProduct.getId())).thenReturn(Optional.of(testProduct));
         when(productRepository.reserveStock(testProduct.getId(), 10)).thenReturn(1);
 
         productService.reserveInventory(testProduct.getId(), 10, orderId);
 
         verify(productRepository).reserveStock(testProduct.getId(), 10);
+        verify(rabbitTemplate).convertAndSend(eq("product.exchange"), eq("inventory.reserved"), any(Object.class));
+        verify(lowStockDetector).onStockLevelChanged(testProduct.getId());
     }
 
     @Test
     @DisplayName("Should throw exception when insufficient stock")
     void reserveInventory_InsufficientStock_ThrowsException() {
         UUID orderId = UUID.randomUUID();
-        when(productRepository.findById(testProduct.getId())).thenReturn(Optional.of(testProduct));
+        when(productRepository.findByIdWithLock(testProduct.getId())).thenReturn(Optional.of(testProduct));
         when(productRepository.reserveStock(testProduct.getId(), 10)).thenReturn(0);
 
         assertThatThrownBy(() -> productService.reserveInventory(testProduct.getId(), 10, orderId))
@@ -192,16 +197,14 @@ class ProductServiceTest {
     }
 
     @Test
-    @DisplayName("Should confirm inventory successfully")
-    void confirmInventory_Success() {
-        UUID orderId = UUID.randomUUID();
-        testProduct.setReservedQuantity(10);
-        when(productRepository.findById(testProduct.getId())).thenReturn(Optional.of(testProduct));
-        when(productRepository.confirmStock(testProduct.getId(), 5)).thenReturn(1);
+    @DisplayName("Should confirm sale successfully")
+    void confirmSale_Success() {
+        when(productRepository.confirmSale(testProduct.getId(), 5)).thenReturn(1);
 
-        productService.confirmInventory(testProduct.getId(), 5, orderId);
+        productService.confirmSale(testProduct.getId(), 5);
 
-        verify(productRepository).confirmStock(testProduct.getId(), 5);
+        verify(productRepository).confirmSale(testProduct.getId(), 5);
+        verify(lowStockDetector).onStockLevelChanged(testProduct.getId());
     }
 
     @Test
@@ -210,7 +213,8 @@ class ProductServiceTest {
         Page<Product> page = new PageImpl<>(List.of(testProduct));
         when(productRepository.findByCategoryId(any(UUID.class), any(Pageable.class))).thenReturn(page);
 
-        PagedResponse<ProductResponse> response = productService.getProductsByCategory(testCategory.getId(), 0, 10);
+        PagedResponse<ProductResponse> response = productService.getProductsByCategory(testCategory.getId(),
+                PageRequest.of(0, 10));
 
         assertThat(response.getContent()).hasSize(1);
     }
@@ -0,0 +1,133 @@
+package com.atlas.user.config;
+
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Measures password hashing cost on the current machine and prints the
+ * {@code atlas.auth.password} settings that stay within a target latency.
+ *
+ * Run it on each hardware profile the service is deployed to and paste the output
+ * into that profile's {@code application-<profile>.yml}:
+ * <pre>
+ * java -cp user-service.jar -Dloader.main=com.atlas.user.config.PasswordCostCalibrator \
+ *     org.springframework.boot.loader.launch.PropertiesLauncher --target=100 --samples=5
+ * </pre>
+ * The target is the time one login may spend hashing on one core; the hashing
+ * executor runs one hash per core, so it also bounds logins per second per core.
+ */
+public final class PasswordCostCalibrator {
+
+    static final int MIN_BCRYPT_STRENGTH = 8;
+    static final int MAX_BCRYPT_STRENGTH = 16;
+    static final int MIN_ARGON2_MEMORY_KIB = 16 * 1024;
+    static final int MAX_ARGON2_MEMORY_KIB = 1024 * 1024;
+    static final int ARGON2_ITERATIONS = 2;
+    static final int ARGON2_PARALLELISM = 1;
+
+    private static final String PROBE = "correct horse battery staple";
+
+    private PasswordCostCalibrator() {
+    }
+
+    public static void main(String[] args) {
+        long targetMillis = 100;
+        int samples = 5;
+        for (String arg : args) {
+            if (arg.startsWith("--target=")) {
+                targetMillis = Long.parseLong(arg.substring("--target=".length()));
+            } else if (arg.startsWith("--samples=")) {
+                samples = Integer.parseInt(arg.substring("--samples=".length()));
+            } else {
+                System.err.println("Usage: PasswordCostCalibrator [--target=<ms>] [--samples=<n>]");
+                System.exit(2);
+            }
+        }
+
+        Runtime runtime = Runtime.getRuntime();
+        System.out.printf("# cores=%d arch=%s os=%s jvm=%s %s max-heap=%dMiB%n",
+                runtime.availableProcessors(), System.getProperty("os.arch"), System.getProperty("os.name"),
+                System.getProperty("java.vm.name"), System.getProperty("java.version"),
+                runtime.maxMemory() / (1024 * 1024));
+        System.out.printf("# target=%dms per hash, median of %d samples%n", targetMillis, samples);
+
+        List<Measurement> bcrypt = measure("bcrypt strength", MIN_BCRYPT_STRENGTH, MAX_BCRYPT_STRENGTH,
+                strength -> strength + 1, BCryptPasswordEncoder::new, samples, targetMillis);
+        List<Measurement> argon2 = measure("argon2id memory-kib", MIN_ARGON2_MEMORY_KIB, MAX_ARGON2_MEMORY_KIB,
+                memory -> memory * 2, memory -> new Argon2PasswordEncoder(16, 32, ARGON2_PARALLELISM, memory,
+                        ARGON2_ITERATIONS), samples, targetMillis);
+
+        Measurement bcryptChoice = select(bcrypt, targetMillis);
+        Measurement argon2Choice = select(argon2, targetMillis);
+
+        if (bcryptChoice == null && argon2Choice == null) {
+            System.out.println("# No setting meets the target on this machine; raise --target");
+            return;
+        }
+
+        System.out.println();
+        System.out.println("atlas:");
+        System.out.println("  auth:");
+        System.out.println("    password:");
+        System.out.println("      encoder: " + (argon2Choice != null ? SecurityConfig.ARGON2_ID : SecurityConfig.BCRYPT_ID));
+        if (bcryptChoice != null) {
+            System.out.printf("      bcrypt:%n        strength: %d  # %.1fms%n", bcryptChoice.cost(), bcryptChoice.millis());
+        }
+        if (argon2Choice != null) {
+            System.out.printf("      argon2:%n        memory-kib: %d  # %.1fms%n        iterations: %d%n        parallelism: %d%n",
+                    argon2Choice.cost(), argon2Choice.millis(), ARGON2_ITERATIONS, ARGON2_PARALLELISM);
+        }
+    }
+
+    /**
+     * Highest-cost measurement within the target, or {@code null} when even the cheapest is too slow.
+     * Measurements must be in increasing cost order.
+     */
+    static Measurement select(List<Measurement> measurements, long targetMillis) {
+        Measurement chosen = null;
+        for (Measurement measurement : measurements) {
+            if (measurement.millis() <= targetMillis) {
+                chosen = measurement;
+            }
+        }
+        return chosen;
+    }
+
+    private static List<Measurement> measure(String label, int from, int to, IntUnaryOperator next,
+                                             IntFunction<PasswordEncoder> encoders, int samples, long targetMillis) {
+        List<Measurement> measurements = new ArrayList<>();
+        for (int cost = from; cost <= to; cost = next.applyAsInt(cost)) {
+            PasswordEncoder encoder = encoders.apply(cost);
+            encoder.encode(PROBE); // warm up
+            double millis = medianMillis(encoder, samples);
+            measurements.add(new Measurement(cost, millis));
+            System.out.printf("# %s=%d: %.1fms%n", label, cost, millis);
+            // Each step doubles the work, so later steps cannot get back under target
+            if (millis > targetMillis) {
+                break;
+            }
+        }
+        return measurements;
+    }
+
+    private static double medianMillis(PasswordEncoder encoder, int samples) {
+        double[] millis = new double[samples];
+        for (int i = 0; i < samples; i++) {
+            long start = System.nanoTime();
+            encoder.encode(PROBE);
+            millis[i] = (System.nanoTime() - start) / 1e6;
+        }
+        Arrays.sort(millis);
+        return millis[samples / 2];
+    }
+
+    record Measurement(int cost, double millis) {
+    }
+}
@@ -16,7 +16,7 @@ public class RabbitMQConfig {
 
     public static final String USER_EXCHANGE = "user.exchange";
     public static final String USER_CREATED_QUEUE = "user.created.queue";
-    public static final String USER_UPDATED_QUEUE = "user.updated.queue";
+    public static final String USER_CREATED_ROUTING_KEY = "user.created";
 
     @Bean
     public TopicExchange userExchange() {
@@ -28,19 +28,9 @@ public class RabbitMQConfig {
         return QueueBuilder.durable(USER_CREATED_QUEUE).build();
     }
 
-    @Bean
-    public Queue userUpdatedQueue() {
-        return QueueBuilder.durable(USER_UPDATED_QUEUE).build();
-    }
-
     @Bean
     public Binding userCreatedBinding(Queue userCreatedQueue, TopicExchange userExchange) {
-        return BindingBuilder.bind(userCreatedQueue).to(userExchange).with("user.created");
-    }
-
-    @Bean
-    public Binding userUpdatedBinding(Queue userUpdatedQueue, TopicExchange userExchange) {
-        return BindingBuilder.bind(userUpdatedQueue).to(userExchange).with("user.updated");
+        return BindingBuilder.bind(userCreatedQueue).to(userExchange).with(USER_CREATED_ROUTING_KEY);
     }
 
     @Bean
@@ -1,14 +1,19 @@
 package com.atlas.user.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.util.Map;
+
 /**
  * Security configuration for User Service.
  * JWT validation is handled by API Gateway, so this service trusts gateway headers.
@@ -17,9 +22,40 @@ import org.springframework.security.web.SecurityFilterChain;
 @EnableWebSecurity
 public class SecurityConfig {
 
+    public static final String BCRYPT_ID = "bcrypt";
+    public static final String ARGON2_ID = "argon2";
+
+    /**
+     * Password encoder whose hashing cost is chosen in configuration.
+     *
+     * New hashes use {@code atlas.auth.password.encoder} with the configured parameters
+     * (see {@link PasswordCostCalibrator} for picking them per hardware profile). Stored
+     * hashes of either algorithm keep matching, including legacy BCrypt hashes without an
+     * {@code {id}} prefix, and are upgraded on the next successful login.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+    public PasswordEncoder passwordEncoder(
+            @Value("${atlas.auth.password.encoder:bcrypt}") String encoderId,
+            @Value("${atlas.auth.password.bcrypt.strength:12}") int bcryptStrength,
+            @Value("${atlas.auth.password.argon2.salt-length:16}") int argon2SaltLength,
+            @Value("${atlas.auth.password.argon2.hash-length:32}") int argon2HashLength,
+            @Value("${atlas.auth.password.argon2.parallelism:1}") int argon2Parallelism,
+            @Value("${atlas.auth.password.argon2.memory-kib:19456}") int argon2MemoryKib,
+            @Value("${atlas.auth.password.argon2.iterations:2}") int argon2Iterations) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        Map<String, PasswordEncoder> encoders = Map.of(
+                BCRYPT_ID, bcrypt,
+                ARGON2_ID, new Argon2PasswordEncoder(argon2SaltLength, argon2HashLength,
+                        argon2Parallelism, argon2MemoryKib, argon2Iterations));
+        if (!encoders.containsKey(encoderId)) {
+            throw new IllegalStateException("Unknown password encoder '" + encoderId + "', expected one of "
+                    + encoders.keySet());
+        }
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(encoderId, encoders);
+        // Hashes stored before encoder ids were introduced are plain BCrypt
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
     }
 
     @Bean
@@ -33,6 +69,9 @@ public class SecurityConfig {
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/users/register").permitAll()
                 .requestMatchers("/actuator/**").permitAll()
+                // Polled by the gateway for revoked token families and signing keys
+                .requestMatchers("/internal/auth/revocations").permitAll()
+                .requestMatchers("/.well-known/jwks.json").permitAll()
                 .requestMatchers("/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
                 // All other requests require authentication (validated by gateway)
                 .anyRequest().authenticated()
@@ -5,6 +5,7 @@ import com.atlas.user.dto.*;
 import com.atlas.user.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -34,8 +35,9 @@ public class AuthController {
 
     @PostMapping("/login")
     @Operation(summary = "Authenticate user and get tokens")
-    public ResponseEntity<ApiResponse<AuthResponse>> login(@Valid @RequestBody LoginRequest request) {
-        AuthResponse response = authService.login(request);
+    public ResponseEntity<ApiResponse<AuthResponse>> login(@Valid @RequestBody LoginRequest request,
+                                                           HttpServletRequest httpRequest) {
+        AuthResponse response = authService.login(request, clientIp(httpRequest));
         return ResponseEntity.ok(ApiResponse.success(response, "Login successful"));
     }
 
@@ -46,6 +48,13 @@ public class AuthController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    @PostMapping("/logout")
+    @Operation(summary = "Revoke the refresh token and every token rotated from it")
+    public ResponseEntity<ApiResponse<Void>> logout(@Valid @RequestBody RefreshTokenRequest request) {
+        authService.logout(request.getRefreshToken());
+        return ResponseEntity.ok(ApiResponse.success(null, "Logged out"));
+    }
+
     @GetMapping("/me")
     @Operation(summary = "Get current user info")
     public ResponseEntity<ApiResponse<UserResponse>> getCurrentUser(
@@ -53,4 +62,15 @@ public class AuthController {
         UserResponse response = authService.getCurrentUser(UUID.fromString(userId));
         return ResponseEntity.ok(ApiResponse.success(response));
     }
+
+    /**
+     * The address the gateway saw, which it appends as the last X-Forwarded-For entry.
+     */
+    private String clientIp(HttpServletRequest request) {
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        if (forwardedFor != null && !forwardedFor.isBlank()) {
+            return forwardedFor.substring(forwardedFor.lastIndexOf(',') + 1).trim();
+        }
+        return request.getRemoteAddr();
+    }
 }
@@ -0,0 +1,27 @@
+package com.atlas.user.controller;
+
+import com.atlas.user.service.SigningKeyStore;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Public keys for verifying tokens issued by this service.
+ */
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "Token keys", description = "JSON Web Key Set for token verification")
+public class JwksController {
+
+    private final SigningKeyStore signingKeyStore;
+
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Current and recent token signing public keys")
+    public ResponseEntity<String> jwks() {
+        return ResponseEntity.ok(signingKeyStore.jwks());
+    }
+}
@@ -0,0 +1,30 @@
+package com.atlas.user.controller;
+
+import com.atlas.user.service.RevocationFilterPublisher;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Internal endpoint the gateways poll for revoked token families.
+ * Not routed through the gateway.
+ */
+@RestController
+@RequestMapping("/internal/auth")
+@RequiredArgsConstructor
+@Tag(name = "Token revocation", description = "Revoked token families for the gateway")
+public class RevocationController {
+
+    private final RevocationFilterPublisher revocationFilterPublisher;
+
+    @GetMapping(value = "/revocations", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @Operation(summary = "Bloom filter of revoked refresh token families")
+    public ResponseEntity<byte[]> revocations() {
+        return ResponseEntity.ok(revocationFilterPublisher.currentFilter());
+    }
+}
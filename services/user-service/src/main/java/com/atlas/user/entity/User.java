@@ -10,11 +10,11 @@ import java.util.Set;
 
 /**
  * User entity representing registered users in the system.
+ * Emails are stored lowercased; schema.sql adds the case-insensitive unique index
+ * {@code idx_user_email_lower}, which both enforces uniqueness and serves lookups.
  */
 @Entity
-@Table(name = "users", indexes = {
-    @Index(name = "idx_user_email", columnList = "email", unique = true)
-})
+@Table(name = "users")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -22,7 +22,7 @@ import java.util.Set;
 @Builder
 public class User extends BaseEntity {
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String email;
 
     @Column(nullable = false)
@@ -1,13 +1,16 @@
 package com.atlas.user.repository;
 
 import com.atlas.user.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -21,6 +24,11 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
     boolean existsByEmail(String email);
 
+    /**
+     * Keyset page of users in id order, starting after {@code id}.
+     */
+    List<User> findByIdGreaterThanOrderByIdAsc(UUID id, Pageable pageable);
+
     @Modifying
     @Query("UPDATE User u SET u.lastLogin = :lastLogin WHERE u.id = :userId")
     void updateLastLogin(@Param("userId") UUID userId, @Param("lastLogin") LocalDateTime lastLogin);
@@ -29,14 +37,25 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     @Query("UPDATE User u SET u.failedLoginAttempts = u.failedLoginAttempts + 1 WHERE u.id = :userId")
     void incrementFailedLoginAttempts(@Param("userId") UUID userId);
 
+    @Transactional
     @Modifying
     @Query("UPDATE User u SET u.failedLoginAttempts = 0, u.lockedUntil = null WHERE u.id = :userId")
     void resetFailedLoginAttempts(@Param("userId") UUID userId);
 
+    @Transactional
     @Modifying
     @Query("UPDATE User u SET u.lockedUntil = :lockedUntil WHERE u.id = :userId")
     void lockAccount(@Param("userId") UUID userId, @Param("lockedUntil") LocalDateTime lockedUntil);
 
-    @Query("SELECT u FROM User u WHERE u.email = :email AND u.enabled = true")
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :userId")
+    void updatePassword(@Param("userId") UUID userId, @Param("password") String password);
+
+    /**
+     * Case-insensitive lookup of a lowercased email, served by the {@code idx_user_email_lower}
+     * expression index so mixed-case legacy rows are still found with one index probe.
+     */
+    @Query("SELECT u FROM User u WHERE lower(u.email) = :email AND u.enabled = true")
     Optional<User> findActiveByEmail(@Param("email") String email);
 }
@@ -8,14 +8,19 @@ import com.atlas.user.dto.*;
 import com.atlas.user.entity.Role;
 import com.atlas.user.entity.User;
 import com.atlas.user.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.JDBCException;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -26,32 +31,34 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class AuthService {
 
+    /** PostgreSQL SQLSTATE for a unique index violation. */
+    private static final String UNIQUE_VIOLATION = "23505";
+
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtTokenProvider jwtTokenProvider;
+    private final LoginAttemptTracker loginAttemptTracker;
+    private final LastLoginRecorder lastLoginRecorder;
+    private final RefreshTokenStore refreshTokenStore;
+    private final UserProfileCache userProfileCache;
+    private final UserEventPublisher userEventPublisher;
 
     @Value("${atlas.jwt.expiration:86400000}")
     private long jwtExpiration;
 
-    private static final int MAX_FAILED_ATTEMPTS = 5;
-    private static final int LOCK_DURATION_MINUTES = 30;
-
     /**
      * Register a new user.
+     *
+     * A single insert; the unique index on {@code lower(email)} rejects an existing or
+     * concurrently registered email, which is reported as {@code EMAIL_EXISTS}. Not
+     * transactional, so no database connection is held while the password is hashed.
      */
-    @Transactional
     public AuthResponse register(RegisterRequest request) {
         log.info("Registering new user with email: {}", request.getEmail());
 
-        // Check if email already exists
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new BusinessException("Email already registered", "EMAIL_EXISTS");
-        }
-
-        // Create new user
         User user = User.builder()
-                .email(request.getEmail().toLowerCase())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .email(normalizeEmail(request.getEmail()))
+                .password(passwordHashingService.encode(request.getPassword()))
                 .firstName(request.getFirstName())
                 .lastName(request.getLastName())
                 .phoneNumber(request.getPhoneNumber())
@@ -60,21 +67,41 @@ public class AuthService {
                 .emailVerified(false)
                 .build();
 
-        user = userRepository.save(user);
+        try {
+            user = userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            if (e.getCause() instanceof JDBCException jdbc && UNIQUE_VIOLATION.equals(jdbc.getSQLState())) {
+                throw new BusinessException("Email already registered", "EMAIL_EXISTS");
+            }
+            throw e;
+        }
         log.info("User registered successfully: {}", user.getId());
+        userEventPublisher.userCreated(user);
 
         return generateAuthResponse(user);
     }
 
     /**
      * Authenticate user and generate tokens.
+     *
+     * Failed attempts are tracked in memory by {@link LoginAttemptTracker}; the database
+     * is only written when an account gets locked. Not transactional, so no database
+     * connection is held while the password hash is checked.
      */
-    @Transactional
-    public AuthResponse login(LoginRequest request) {
+    public AuthResponse login(LoginRequest request, String clientIp) {
         log.info("Login attempt for email: {}", request.getEmail());
+        String email = normalizeEmail(request.getEmail());
 
-        User user = userRepository.findActiveByEmail(request.getEmail().toLowerCase())
-                .orElseThrow(() -> new AuthenticationException("Invalid email or password"));
+        if (loginAttemptTracker.isBlocked(email, clientIp)) {
+            throw new BusinessException("Too many failed login attempts. Please try again later.",
+                    HttpStatus.TOO_MANY_REQUESTS, "TOO_MANY_LOGIN_ATTEMPTS");
+        }
+
+        User user = userRepository.findActiveByEmail(email).orElse(null);
+        if (user == null) {
+            loginAttemptTracker.recordUnknownAccountFailure(clientIp);
+            throw new AuthenticationException("Invalid email or password");
+        }
 
         // Check if account is locked
         if (user.isAccountLocked()) {
@@ -82,75 +109,149 @@ public class AuthService {
         }
 
         // Verify password
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
-            handleFailedLogin(user);
+        if (!passwordHashingService.matches(request.getPassword(), user.getPassword())) {
+            handleFailedLogin(user, clientIp);
             throw new AuthenticationException("Invalid email or password");
         }
 
         // Reset failed attempts and update last login
         handleSuccessfulLogin(user);
+        upgradePasswordHash(user, request.getPassword());
 
         log.info("User logged in successfully: {}", user.getId());
         return generateAuthResponse(user);
     }
 
     /**
-     * Refresh access token using refresh token.
+     * Exchange a refresh token for a new access and refresh token.
+     *
+     * The presented token is rotated out in Redis, so it cannot be used again; presenting
+     * it twice revokes its whole family. The user's profile comes from
+     * {@link UserProfileCache}, which holds enabled accounts only, so a disabled account
+     * cannot refresh once its cached profile is evicted or expires; that also revokes the
+     * family. The new access token carries the current email and role. The response
+     * carries no user details.
      */
-    @Transactional(readOnly = true)
     public AuthResponse refreshToken(String refreshToken) {
-        if (!jwtTokenProvider.validateToken(refreshToken)) {
-            throw new AuthenticationException("Invalid or expired refresh token");
-        }
-
-        UUID userId = jwtTokenProvider.getUserIdFromToken(refreshToken);
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+        Claims claims = parseRefreshToken(refreshToken);
+        String familyId = claims.get(JwtTokenProvider.FAMILY_CLAIM, String.class);
+        String tokenId = UUID.randomUUID().toString();
 
-        if (!user.getEnabled()) {
-            throw new AuthenticationException("User account is disabled");
+        UUID userId = refreshTokenStore.rotate(familyId, claims.getId(), tokenId);
+        UserResponse user;
+        try {
+            user = getCurrentUser(userId);
+        } catch (ResourceNotFoundException e) {
+            refreshTokenStore.revoke(familyId);
+            log.info("Revoked token family {} of disabled user {}", familyId, userId);
+            throw new AuthenticationException("Account is disabled");
         }
 
-        return generateAuthResponse(user);
+        String accessToken = jwtTokenProvider.generateToken(user.getId(), user.getEmail(), user.getRole().name(),
+                Map.of(JwtTokenProvider.FAMILY_CLAIM, familyId));
+        String newRefreshToken = jwtTokenProvider.generateRefreshToken(user.getId(), familyId, tokenId);
+        return AuthResponse.of(accessToken, newRefreshToken, jwtExpiration / 1000, null);
     }
 
     /**
-     * Get current user from token.
+     * Revoke the refresh token's family, ending the session on every device that shares it.
      */
-    @Transactional(readOnly = true)
-    public UserResponse getCurrentUser(UUID userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
-        return mapToUserResponse(user);
+    public void logout(String refreshToken) {
+        Claims claims = parseRefreshToken(refreshToken);
+        String familyId = claims.get(JwtTokenProvider.FAMILY_CLAIM, String.class);
+        refreshTokenStore.revoke(familyId);
+        log.info("Revoked token family {} for user {}", familyId, claims.getSubject());
     }
 
-    private void handleFailedLogin(User user) {
-        int attempts = user.getFailedLoginAttempts() + 1;
-        userRepository.incrementFailedLoginAttempts(user.getId());
+    /**
+     * Get current user from token, served from {@link UserProfileCache} when possible.
+     * A disabled account is reported as not found.
+     */
+    public UserResponse getCurrentUser(UUID userId) {
+        return userProfileCache.get(userId, () -> userRepository.findById(userId)
+                .filter(user -> Boolean.TRUE.equals(user.getEnabled()))
+                .map(this::mapToUserResponse)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId)));
+    }
 
-        if (attempts >= MAX_FAILED_ATTEMPTS) {
-            LocalDateTime lockedUntil = LocalDateTime.now().plusMinutes(LOCK_DURATION_MINUTES);
+    private void handleFailedLogin(User user, String clientIp) {
+        if (loginAttemptTracker.recordFailure(user.getEmail(), clientIp)) {
+            LocalDateTime lockedUntil = LocalDateTime.now().plus(loginAttemptTracker.getLockDuration());
             userRepository.lockAccount(user.getId(), lockedUntil);
             log.warn("Account locked for user {} until {}", user.getId(), lockedUntil);
         }
     }
 
     private void handleSuccessfulLogin(User user) {
-        userRepository.resetFailedLoginAttempts(user.getId());
-        userRepository.updateLastLogin(user.getId(), LocalDateTime.now());
+        loginAttemptTracker.recordSuccess(user.getEmail());
+        // Only clears state left by an expired lock; the common case writes nothing here
+        if (user.getLockedUntil() != null || user.getFailedLoginAttempts() > 0) {
+            userRepository.resetFailedLoginAttempts(user.getId());
+        }
+        lastLoginRecorder.record(user.getId(), LocalDateTime.now());
+    }
+
+    /**
+     * Re-hash the password with the current algorithm and cost while the plain text is known.
+     * Best effort: an overloaded hashing executor leaves the old hash for a later login.
+     */
+    private void upgradePasswordHash(User user, String rawPassword) {
+        if (!passwordHashingService.needsRehash(user.getPassword())) {
+            return;
+        }
+        try {
+            userRepository.updatePassword(user.getId(), passwordHashingService.encode(rawPassword));
+            log.info("Upgraded password hash for user {}", user.getId());
+        } catch (BusinessException e) {
+            log.debug("Skipped password hash upgrade for user {}: {}", user.getId(), e.getMessage());
+        }
     }
 
+    /**
+     * Issue tokens for a fresh login, starting a new refresh token family.
+     */
     private AuthResponse generateAuthResponse(User user) {
+        String familyId = UUID.randomUUID().toString();
+        String tokenId = UUID.randomUUID().toString();
+        refreshTokenStore.issue(familyId, tokenId, user.getId());
+
         String accessToken = jwtTokenProvider.generateToken(
                 user.getId(),
                 user.getEmail(),
-                user.getRole().name()
+                user.getRole().name(),
+                Map.of(JwtTokenProvider.FAMILY_CLAIM, familyId)
         );
-        String refreshToken = jwtTokenProvider.generateRefreshToken(user.getId());
+        String refreshToken = jwtTokenProvider.generateRefreshToken(user.getId(), familyId, tokenId);
 
         return AuthResponse.of(accessToken, refreshToken, jwtExpiration / 1000, mapToUserResponse(user));
     }
 
+    /**
+     * Verify a refresh token issued under a token family.
+     * Tokens from before rotation carry no family and are rejected, requiring one new login.
+     */
+    private Claims parseRefreshToken(String refreshToken) {
+        Claims claims;
+        try {
+            claims = jwtTokenProvider.extractClaim(refreshToken, c -> c);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new AuthenticationException("Invalid or expired refresh token");
+        }
+        if (!"refresh".equals(claims.get("type", String.class))
+                || claims.get(JwtTokenProvider.FAMILY_CLAIM, String.class) == null || claims.getId() == null) {
+            throw new AuthenticationException("Invalid or expired refresh token");
+        }
+        return claims;
+    }
+
+    /**
+     * Lowercased form that emails are stored in and looked up by; matches the
+     * {@code lower(email)} index for rows written before emails were normalized.
+     */
+    private static String normalizeEmail(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
     private UserResponse mapToUserResponse(User user) {
         return UserResponse.builder()
                 .id(user.getId())
@@ -0,0 +1,75 @@
+package com.atlas.user.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coalesces {@code last_login} updates and writes them in periodic JDBC batches.
+ *
+ * A login only records the time in memory; repeated logins by the same user between
+ * flushes collapse into one row update. {@code last_login} may lag by up to one
+ * flush interval, and pending values are flushed on shutdown. Flushed users' cached
+ * profiles are evicted so they pick up the new time.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LastLoginRecorder {
+
+    private static final String UPDATE_SQL = "UPDATE users SET last_login = ? WHERE id = ?";
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserProfileCache userProfileCache;
+
+    private final ConcurrentHashMap<UUID, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    public void record(UUID userId, LocalDateTime loginTime) {
+        pending.merge(userId, loginTime, (current, next) -> next.isAfter(current) ? next : current);
+    }
+
+    @Scheduled(fixedDelayString = "${atlas.auth.last-login.flush-interval:30000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<UUID, LocalDateTime>> batch = new ArrayList<>(pending.size());
+        for (UUID userId : pending.keySet()) {
+            LocalDateTime loginTime = pending.remove(userId);
+            if (loginTime != null) {
+                batch.add(Map.entry(userId, loginTime));
+            }
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, batch, BATCH_SIZE, (ps, entry) -> {
+                ps.setTimestamp(1, Timestamp.valueOf(entry.getValue()));
+                ps.setObject(2, entry.getKey());
+            });
+            log.debug("Flushed last login time for {} users", batch.size());
+            userProfileCache.evict(batch.stream().map(Map.Entry::getKey).toList());
+        } catch (Exception e) {
+            // Put the times back unless a newer login arrived meanwhile; the next flush retries
+            batch.forEach(entry -> record(entry.getKey(), entry.getValue()));
+            log.warn("Failed to flush last login times for {} users: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
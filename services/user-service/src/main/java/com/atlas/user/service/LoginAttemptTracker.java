@@ -0,0 +1,152 @@
+package com.atlas.user.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throttles failed logins in memory, per email and per client IP, so a bad password
+ * costs no database write.
+ *
+ * Each key owns a token bucket of failures: an email may fail {@code maxFailures}
+ * times and regains one attempt every {@code lockDuration / maxFailures}; an IP gets
+ * a larger allowance over its own window. The failure that empties an email's bucket
+ * is reported as a threshold crossing, which is the only point where the caller
+ * persists a lockout. Failures for emails without an account only count against the
+ * IP, so trying random emails cannot grow the per-email map. Buckets that have refilled
+ * completely are dropped.
+ */
+@Slf4j
+@Component
+public class LoginAttemptTracker {
+
+    private final int emailMaxFailures;
+    private final Duration lockDuration;
+    private final long emailIntervalNanos;
+    private final int ipMaxFailures;
+    private final long ipIntervalNanos;
+
+    private final ConcurrentHashMap<String, FailureBucket> emailBuckets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, FailureBucket> ipBuckets = new ConcurrentHashMap<>();
+
+    public LoginAttemptTracker(
+            @Value("${atlas.auth.login-throttle.email.max-failures:5}") int emailMaxFailures,
+            @Value("${atlas.auth.login-throttle.email.lock-duration:30m}") Duration lockDuration,
+            @Value("${atlas.auth.login-throttle.ip.max-failures:20}") int ipMaxFailures,
+            @Value("${atlas.auth.login-throttle.ip.window:10m}") Duration ipWindow) {
+        this.emailMaxFailures = emailMaxFailures;
+        this.lockDuration = lockDuration;
+        this.emailIntervalNanos = lockDuration.toNanos() / emailMaxFailures;
+        this.ipMaxFailures = ipMaxFailures;
+        this.ipIntervalNanos = ipWindow.toNanos() / ipMaxFailures;
+    }
+
+    /**
+     * Whether logins for this email or from this IP are currently throttled.
+     */
+    public boolean isBlocked(String email, String clientIp) {
+        long now = System.nanoTime();
+        return isExhausted(emailBuckets.get(email), now)
+                || (clientIp != null && isExhausted(ipBuckets.get(clientIp), now));
+    }
+
+    /**
+     * Count a failed login.
+     *
+     * @return whether this failure used up the email's allowance, so the account should be locked
+     */
+    public boolean recordFailure(String email, String clientIp) {
+        long now = System.nanoTime();
+        recordIpFailure(clientIp, now);
+        return emailBuckets.computeIfAbsent(email, k -> new FailureBucket(emailIntervalNanos, emailMaxFailures, now))
+                .tryTake(now) == 0;
+    }
+
+    /**
+     * Count a failed login for an email that matches no account, against the client IP only.
+     */
+    public void recordUnknownAccountFailure(String clientIp) {
+        recordIpFailure(clientIp, System.nanoTime());
+    }
+
+    /**
+     * Forget an email's failures after a successful login.
+     */
+    public void recordSuccess(String email) {
+        emailBuckets.remove(email);
+    }
+
+    public Duration getLockDuration() {
+        return lockDuration;
+    }
+
+    @Scheduled(fixedDelayString = "${atlas.auth.login-throttle.eviction-interval:60000}")
+    public void evictRefilled() {
+        long now = System.nanoTime();
+        emailBuckets.values().removeIf(bucket -> bucket.isFull(now));
+        ipBuckets.values().removeIf(bucket -> bucket.isFull(now));
+        log.debug("Login throttle tracking {} emails and {} client IPs", emailBuckets.size(), ipBuckets.size());
+    }
+
+    private void recordIpFailure(String clientIp, long now) {
+        if (clientIp != null) {
+            ipBuckets.computeIfAbsent(clientIp, k -> new FailureBucket(ipIntervalNanos, ipMaxFailures, now))
+                    .tryTake(now);
+        }
+    }
+
+    int trackedEmails() {
+        return emailBuckets.size();
+    }
+
+    private static boolean isExhausted(FailureBucket bucket, long now) {
+        return bucket != null && bucket.isEmpty(now);
+    }
+
+    /**
+     * Token bucket as a generic cell rate algorithm: the state is a single theoretical
+     * arrival time, pushed forward by one interval per failure.
+     */
+    static final class FailureBucket {
+
+        private final long intervalNanos;
+        private final long toleranceNanos;
+        private final AtomicLong theoreticalArrival;
+
+        FailureBucket(long intervalNanos, int capacity, long now) {
+            this.intervalNanos = intervalNanos;
+            this.toleranceNanos = intervalNanos * capacity;
+            this.theoreticalArrival = new AtomicLong(now);
+        }
+
+        /**
+         * @return failures still allowed after this one, or -1 if none was left
+         */
+        long tryTake(long now) {
+            while (true) {
+                long arrival = theoreticalArrival.get();
+                long next = Math.max(arrival, now) + intervalNanos;
+                long used = next - now;
+                if (used > toleranceNanos) {
+                    return -1;
+                }
+                if (theoreticalArrival.compareAndSet(arrival, next)) {
+                    return (toleranceNanos - used) / intervalNanos;
+                }
+            }
+        }
+
+        boolean isEmpty(long now) {
+            return theoreticalArrival.get() - now + intervalNanos > toleranceNanos;
+        }
+
+        boolean isFull(long now) {
+            return theoreticalArrival.get() - now <= 0;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.atlas.user.service;
+
+import com.atlas.common.exception.BusinessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs password hashing on a dedicated executor with one thread per core and a
+ * bounded queue.
+ *
+ * Hashing is deliberately expensive, so a login spike on servlet threads would
+ * occupy every core and starve unrelated endpoints. Here at most one hash per core
+ * runs at a time; once {@code queue-capacity} requests are waiting, further ones are
+ * rejected at once with a 503 instead of queueing behind work that would time out
+ * anyway. Queue wait and hash time are exported as {@code auth.password.queue.wait}
+ * and {@code auth.password.hash}, with the queue depth and rejections alongside.
+ */
+@Slf4j
+@Service
+public class PasswordHashingService {
+
+    private static final String OPERATION_TAG = "operation";
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+
+    private final Timer encodeWait;
+    private final Timer encodeHash;
+    private final Timer matchesWait;
+    private final Timer matchesHash;
+    private final Counter rejected;
+
+    private String currentParameters;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${atlas.auth.hashing.threads:0}") int threads,
+                                  @Value("${atlas.auth.hashing.queue-capacity:64}") int queueCapacity,
+                                  @Value("${atlas.auth.hashing.timeout:5s}") Duration timeout) {
+        this.passwordEncoder = passwordEncoder;
+        this.timeout = timeout;
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeWait = waitTimer(meterRegistry, "encode");
+        this.encodeHash = hashTimer(meterRegistry, "encode");
+        this.matchesWait = waitTimer(meterRegistry, "matches");
+        this.matchesHash = hashTimer(meterRegistry, "matches");
+        this.rejected = Counter.builder("auth.password.rejected")
+                .description("Password hashing requests rejected because the queue was full or timed out")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.queue.depth", executor, e -> e.getQueue().size())
+                .description("Password hashing requests waiting for a thread")
+                .register(meterRegistry);
+        log.info("Password hashing executor started with {} threads and queue capacity {}", poolSize, queueCapacity);
+    }
+
+    public String encode(CharSequence rawPassword) {
+        return run(() -> passwordEncoder.encode(rawPassword), encodeWait, encodeHash);
+    }
+
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> passwordEncoder.matches(rawPassword, encodedPassword), matchesWait, matchesHash);
+    }
+
+    /**
+     * Learn the id and parameters new hashes carry from one sample hash, once at startup.
+     */
+    @PostConstruct
+    public void init() {
+        currentParameters = parametersOf(passwordEncoder.encode("parameter-probe"));
+    }
+
+    /**
+     * Whether a stored hash was made with a different algorithm or different parameters
+     * than new hashes get, and should be replaced on the next successful login.
+     */
+    public boolean needsRehash(String encodedPassword) {
+        String current = currentParameters;
+        if (current == null) {
+            return false;
+        }
+        return !encodedPassword.startsWith(current) || passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * The {@code {id}} and parameter part of a hash, i.e. everything before salt and digest.
+     * BCrypt ends in one {@code $}-separated salt+digest segment, Argon2 in two.
+     */
+    static String parametersOf(String encodedPassword) {
+        int end = encodedPassword.lastIndexOf('$');
+        if (encodedPassword.contains("$argon2")) {
+            end = encodedPassword.lastIndexOf('$', end - 1);
+        }
+        return encodedPassword.substring(0, end + 1);
+    }
+
+    private <T> T run(Callable<T> task, Timer waitTimer, Timer hashTimer) {
+        long submitted = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long started = System.nanoTime();
+                waitTimer.record(started - submitted, TimeUnit.NANOSECONDS);
+                try {
+                    return task.call();
+                } finally {
+                    hashTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw overloaded();
+        }
+
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw overloaded();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw overloaded();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private static BusinessException overloaded() {
+        return new BusinessException("Authentication is temporarily overloaded. Please retry shortly.",
+                HttpStatus.SERVICE_UNAVAILABLE, "AUTH_OVERLOADED");
+    }
+
+    private static Timer waitTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("auth.password.queue.wait")
+                .description("Time password hashing requests wait for a thread")
+                .tag(OPERATION_TAG, operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static Timer hashTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("auth.password.hash")
+                .description("Time spent computing a password hash")
+                .tag(OPERATION_TAG, operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
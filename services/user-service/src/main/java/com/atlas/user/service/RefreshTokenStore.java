@@ -0,0 +1,118 @@
+package com.atlas.user.service;
+
+import com.atlas.common.exception.AuthenticationException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Refresh token families in Redis, rotated on every use.
+ *
+ * A login starts a family whose hash ({@code auth:refresh:<family>}) holds the id of
+ * the one refresh token currently valid for it and the id of the user it belongs to. The
+ * family expires {@code refresh-expiration} after login; rotating does not
+ * extend it. Presenting the current token swaps in a new id; presenting any older one
+ * means a token was copied, so the whole family is deleted.
+ * Deleted families are kept in a sorted set scored by when their last access token
+ * expires, which {@link RevocationFilterPublisher} turns into the gateway's filter.
+ * Every check is a single key lookup inside one script call.
+ */
+@Slf4j
+@Component
+public class RefreshTokenStore {
+
+    private static final String FAMILY_KEY_PREFIX = "auth:refresh:";
+    static final String REVOKED_KEY = "auth:revoked-families";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisScript<Long> issueScript;
+    private final RedisScript<List<String>> rotateScript;
+    private final RedisScript<Long> revokeScript;
+    private final String familyTtlSeconds;
+    private final long accessTokenLifetimeMillis;
+
+    public RefreshTokenStore(StringRedisTemplate redisTemplate,
+                             @Value("${atlas.jwt.refresh-expiration:604800000}") long refreshExpiration,
+                             @Value("${atlas.jwt.expiration:86400000}") long accessTokenLifetimeMillis) {
+        this.redisTemplate = redisTemplate;
+        this.issueScript = script("scripts/refresh_token_issue.lua", Long.class);
+        this.rotateScript = script("scripts/refresh_token_rotate.lua", List.class);
+        this.revokeScript = script("scripts/refresh_token_revoke.lua", Long.class);
+        this.familyTtlSeconds = String.valueOf(Duration.ofMillis(refreshExpiration).toSeconds());
+        this.accessTokenLifetimeMillis = accessTokenLifetimeMillis;
+    }
+
+    /**
+     * Start a new family whose first refresh token is {@code tokenId}.
+     */
+    public void issue(String familyId, String tokenId, UUID userId) {
+        redisTemplate.execute(issueScript, List.of(familyKey(familyId)), tokenId, userId.toString(), familyTtlSeconds);
+    }
+
+    /**
+     * Replace the family's current token {@code presentedTokenId} with {@code newTokenId}.
+     *
+     * @return the id of the user the family belongs to
+     * @throws AuthenticationException if the family is unknown, expired or revoked, or
+     *                                 the token was already rotated, which revokes the family
+     */
+    public UUID rotate(String familyId, String presentedTokenId, String newTokenId) {
+        List<String> result = redisTemplate.execute(rotateScript, List.of(familyKey(familyId), REVOKED_KEY),
+                presentedTokenId, newTokenId, revokedUntil(), familyId);
+        String status = result == null || result.isEmpty() ? "missing" : result.get(0);
+        switch (status) {
+            case "ok" -> {
+                return UUID.fromString(result.get(1));
+            }
+            case "reused" -> {
+                log.warn("Refresh token reuse detected, revoked token family {}", familyId);
+                throw new AuthenticationException("Refresh token has already been used");
+            }
+            default -> throw new AuthenticationException("Invalid or expired refresh token");
+        }
+    }
+
+    /**
+     * Revoke a family, e.g. on logout. Its access tokens are rejected once gateways pull the next filter.
+     */
+    public void revoke(String familyId) {
+        redisTemplate.execute(revokeScript, List.of(familyKey(familyId), REVOKED_KEY), revokedUntil(), familyId);
+    }
+
+    /**
+     * Families revoked while some of their access tokens may still be unexpired.
+     * Entries past that point are removed first.
+     */
+    public Set<String> revokedFamilies() {
+        long now = System.currentTimeMillis();
+        redisTemplate.opsForZSet().removeRangeByScore(REVOKED_KEY, Double.NEGATIVE_INFINITY, now);
+        Set<String> families = redisTemplate.opsForZSet().rangeByScore(REVOKED_KEY, now, Double.POSITIVE_INFINITY);
+        return families != null ? families : Set.of();
+    }
+
+    private String revokedUntil() {
+        return String.valueOf(System.currentTimeMillis() + accessTokenLifetimeMillis);
+    }
+
+    private static String familyKey(String familyId) {
+        return FAMILY_KEY_PREFIX + familyId;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> RedisScript<T> script(String path, Class resultType) {
+        DefaultRedisScript script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource(path)));
+        script.setResultType(resultType);
+        return script;
+    }
+}
@@ -0,0 +1,83 @@
+package com.atlas.user.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Bloom filter over revoked refresh token family ids, in the wire format the gateway reads.
+ *
+ * Serialized as the number of hash functions and the number of 64-bit words (both
+ * big-endian ints) followed by the words. Bit positions come from double hashing a
+ * 64-bit FNV-1a hash of the UTF-8 id; the gateway's {@code RevocationFilter} must
+ * use the same scheme.
+ */
+public final class RevocationBloomFilter {
+
+    private final long[] bits;
+    private final int hashFunctions;
+
+    private RevocationBloomFilter(long[] bits, int hashFunctions) {
+        this.bits = bits;
+        this.hashFunctions = hashFunctions;
+    }
+
+    /**
+     * Filter sized for {@code expectedInsertions} ids at the given false positive rate.
+     */
+    public static RevocationBloomFilter create(int expectedInsertions, double falsePositiveRate) {
+        int n = Math.max(1, expectedInsertions);
+        long bitCount = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.max(1, (bitCount + 63) / 64);
+        int hashFunctions = Math.max(1, (int) Math.round((double) words * 64 / n * Math.log(2)));
+        return new RevocationBloomFilter(new long[words], hashFunctions);
+    }
+
+    public void put(String id) {
+        long hash = hash(id);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long bitCount = (long) bits.length * 64;
+        for (int i = 1; i <= hashFunctions; i++) {
+            int combined = h1 + i * h2;
+            long index = (combined < 0 ? ~combined : combined) % bitCount;
+            bits[(int) (index >>> 6)] |= 1L << index;
+        }
+    }
+
+    public boolean mightContain(String id) {
+        long hash = hash(id);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long bitCount = (long) bits.length * 64;
+        for (int i = 1; i <= hashFunctions; i++) {
+            int combined = h1 + i * h2;
+            long index = (combined < 0 ? ~combined : combined) % bitCount;
+            if ((bits[(int) (index >>> 6)] & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public byte[] toByteArray() {
+        ByteBuffer buffer = ByteBuffer.allocate(8 + bits.length * 8);
+        buffer.putInt(hashFunctions).putInt(bits.length);
+        for (long word : bits) {
+            buffer.putLong(word);
+        }
+        return buffer.array();
+    }
+
+    private static long hash(String id) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : id.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        // FNV-1a mixes its last bytes poorly into the high bits; finish like MurmurHash3
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
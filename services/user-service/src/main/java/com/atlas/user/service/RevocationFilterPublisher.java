@@ -0,0 +1,66 @@
+package com.atlas.user.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Serves revoked token families as a serialized {@link RevocationBloomFilter}.
+ *
+ * Gateways poll this instead of asking per request. The filter is rebuilt from Redis
+ * at most once per {@code snapshot-ttl}, however many gateways poll, and is sized for
+ * whichever is larger of {@code expected-revocations} and the actual count so the
+ * false positive rate holds as revocations pile up.
+ */
+@Slf4j
+@Service
+public class RevocationFilterPublisher {
+
+    private final RefreshTokenStore refreshTokenStore;
+    private final int expectedRevocations;
+    private final double falsePositiveRate;
+    private final long snapshotTtlNanos;
+
+    private volatile Snapshot snapshot;
+
+    public RevocationFilterPublisher(RefreshTokenStore refreshTokenStore,
+                                     @Value("${atlas.auth.revocation.expected-revocations:10000}") int expectedRevocations,
+                                     @Value("${atlas.auth.revocation.false-positive-rate:0.001}") double falsePositiveRate,
+                                     @Value("${atlas.auth.revocation.snapshot-ttl:2s}") Duration snapshotTtl) {
+        this.refreshTokenStore = refreshTokenStore;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.snapshotTtlNanos = snapshotTtl.toNanos();
+    }
+
+    public byte[] currentFilter() {
+        Snapshot current = snapshot;
+        if (current != null && System.nanoTime() - current.builtAtNanos() < snapshotTtlNanos) {
+            return current.filter();
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current == null || System.nanoTime() - current.builtAtNanos() >= snapshotTtlNanos) {
+                current = build();
+                snapshot = current;
+            }
+            return current.filter();
+        }
+    }
+
+    private Snapshot build() {
+        Set<String> families = refreshTokenStore.revokedFamilies();
+        RevocationBloomFilter filter = RevocationBloomFilter.create(
+                Math.max(expectedRevocations, families.size()), falsePositiveRate);
+        families.forEach(filter::put);
+        byte[] bytes = filter.toByteArray();
+        log.debug("Built revocation filter with {} families in {} bytes", families.size(), bytes.length);
+        return new Snapshot(bytes, System.nanoTime());
+    }
+
+    private record Snapshot(byte[] filter, long builtAtNanos) {
+    }
+}
@@ -0,0 +1,232 @@
+package com.atlas.user.service;
+
+import com.atlas.common.security.JwtKeySource;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rotating ES256 signing keys shared by all user-service instances through Redis.
+ *
+ * Keys live in the {@code auth:signing-keys} hash, private keys sealed with AES-GCM
+ * under {@code atlas.jwt.key-encryption-secret} (only signers hold it; verifiers use
+ * the published public keys), and every instance reloads them every
+ * {@code refresh-interval}. When the newest key is older than {@code rotation-interval}
+ * one instance, holding a short Redis lock, adds a new key. A new key is published in
+ * the JWKS at once but only signs after {@code activation-delay}, by which time every
+ * verifier has fetched it. Keys are dropped once no token signed with them can still
+ * be valid.
+ */
+@Slf4j
+@Component
+public class SigningKeyStore implements JwtKeySource {
+
+    private static final String KEYS_HASH = "auth:signing-keys";
+    private static final String ROTATION_LOCK = "auth:signing-keys:rotation";
+    private static final Duration ROTATION_LOCK_TTL = Duration.ofMinutes(1);
+    private static final int IV_LENGTH = 12;
+
+    private final StringRedisTemplate redisTemplate;
+    private final SecretKey wrappingKey;
+    private final long rotationMillis;
+    private final long activationMillis;
+    private final long retentionMillis;
+    private final SecureRandom random = new SecureRandom();
+
+    private volatile List<KeyEntry> keys = List.of();
+
+    public SigningKeyStore(StringRedisTemplate redisTemplate,
+                           @Value("${atlas.jwt.key-encryption-secret}") String keyEncryptionSecret,
+                           @Value("${atlas.jwt.keys.rotation-interval:7d}") Duration rotationInterval,
+                           @Value("${atlas.jwt.keys.activation-delay:15m}") Duration activationDelay,
+                           @Value("${atlas.jwt.refresh-expiration:604800000}") long refreshExpiration) {
+        this.redisTemplate = redisTemplate;
+        this.wrappingKey = new SecretKeySpec(sha256(keyEncryptionSecret), "AES");
+        this.rotationMillis = rotationInterval.toMillis();
+        this.activationMillis = activationDelay.toMillis();
+        // A key signs until its successor activates; its longest-lived tokens expire after that
+        this.retentionMillis = rotationMillis + activationMillis + refreshExpiration;
+    }
+
+    @PostConstruct
+    public void init() throws InterruptedException {
+        // Another instance may be creating the first key right now
+        for (int attempt = 0; attempt < 10 && keys.isEmpty(); attempt++) {
+            if (attempt > 0) {
+                Thread.sleep(500);
+            }
+            refresh();
+        }
+        if (keys.isEmpty()) {
+            throw new IllegalStateException("No JWT signing key available in Redis");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${atlas.jwt.keys.refresh-interval:60000}",
+            initialDelayString = "${atlas.jwt.keys.refresh-interval:60000}")
+    public void refresh() {
+        long now = System.currentTimeMillis();
+        List<KeyEntry> loaded = load(now);
+        if (loaded.isEmpty() || loaded.get(loaded.size() - 1).createdAt() + rotationMillis <= now) {
+            if (rotate(now)) {
+                loaded = load(now);
+            }
+        }
+        keys = loaded;
+    }
+
+    @Override
+    public SigningKey currentSigningKey() {
+        List<KeyEntry> current = keys;
+        if (current.isEmpty()) {
+            throw new IllegalStateException("No signing key loaded");
+        }
+        long now = System.currentTimeMillis();
+        // Newest key that verifiers have had time to fetch; the very first key signs at once
+        for (int i = current.size() - 1; i >= 0; i--) {
+            KeyEntry entry = current.get(i);
+            if (entry.createdAt() + activationMillis <= now || i == 0) {
+                return new SigningKey(entry.kid(), entry.privateKey());
+            }
+        }
+        throw new IllegalStateException("No signing key loaded");
+    }
+
+    @Override
+    public PublicKey verificationKey(String kid) {
+        for (KeyEntry entry : keys) {
+            if (entry.kid().equals(kid)) {
+                return entry.publicKey();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * All keys that may have signed a still-valid token or are about to sign, as a JWKS document.
+     */
+    public String jwks() {
+        StringBuilder json = new StringBuilder("{\"keys\":[");
+        List<KeyEntry> current = keys;
+        for (int i = 0; i < current.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            KeyEntry entry = current.get(i);
+            json.append(Jwks.json(Jwks.builder().key(entry.publicKey()).id(entry.kid()).build()));
+        }
+        return json.append("]}").toString();
+    }
+
+    private List<KeyEntry> load(long now) {
+        Map<Object, Object> stored = redisTemplate.opsForHash().entries(KEYS_HASH);
+        List<KeyEntry> loaded = new ArrayList<>(stored.size());
+        List<Object> expired = new ArrayList<>();
+        for (Map.Entry<Object, Object> e : stored.entrySet()) {
+            String kid = (String) e.getKey();
+            try {
+                KeyEntry entry = decode(kid, (String) e.getValue());
+                if (entry.createdAt() + retentionMillis <= now) {
+                    expired.add(kid);
+                } else {
+                    loaded.add(entry);
+                }
+            } catch (GeneralSecurityException | IllegalArgumentException ex) {
+                log.error("Cannot read signing key {}; is atlas.jwt.key-encryption-secret the same on every instance?",
+                        kid, ex);
+            }
+        }
+        if (!expired.isEmpty()) {
+            redisTemplate.opsForHash().delete(KEYS_HASH, expired.toArray());
+            log.info("Retired {} signing keys", expired.size());
+        }
+        loaded.sort(Comparator.comparingLong(KeyEntry::createdAt));
+        return List.copyOf(loaded);
+    }
+
+    private boolean rotate(long now) {
+        Boolean locked = redisTemplate.opsForValue().setIfAbsent(ROTATION_LOCK, "1", ROTATION_LOCK_TTL);
+        if (!Boolean.TRUE.equals(locked)) {
+            return false;
+        }
+        KeyPair keyPair = Jwts.SIG.ES256.keyPair().build();
+        String kid = Jwks.builder().key(keyPair.getPublic()).idFromThumbprint().build().getId();
+        try {
+            redisTemplate.opsForHash().put(KEYS_HASH, kid, encode(kid, now, keyPair));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot seal new signing key", e);
+        }
+        log.info("Created signing key {}, signing from {}", kid, Instant.ofEpochMilli(now + activationMillis));
+        return true;
+    }
+
+    private String encode(String kid, long createdAt, KeyPair keyPair) throws GeneralSecurityException {
+        byte[] iv = new byte[IV_LENGTH];
+        random.nextBytes(iv);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, wrappingKey, new GCMParameterSpec(128, iv));
+        cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+        byte[] sealed = cipher.doFinal(keyPair.getPrivate().getEncoded());
+
+        Base64.Encoder base64 = Base64.getEncoder();
+        return createdAt + ":" + base64.encodeToString(ByteBuffer.allocate(iv.length + sealed.length)
+                .put(iv).put(sealed).array()) + ":" + base64.encodeToString(keyPair.getPublic().getEncoded());
+    }
+
+    private KeyEntry decode(String kid, String value) throws GeneralSecurityException {
+        String[] parts = value.split(":");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Malformed signing key entry");
+        }
+        Base64.Decoder base64 = Base64.getDecoder();
+        byte[] sealed = base64.decode(parts[1]);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, wrappingKey, new GCMParameterSpec(128, sealed, 0, IV_LENGTH));
+        cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+        byte[] pkcs8 = cipher.doFinal(sealed, IV_LENGTH, sealed.length - IV_LENGTH);
+
+        KeyFactory keyFactory = KeyFactory.getInstance("EC");
+        PrivateKey privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(pkcs8));
+        PublicKey publicKey = keyFactory.generatePublic(new X509EncodedKeySpec(base64.decode(parts[2])));
+        return new KeyEntry(kid, Long.parseLong(parts[0]), privateKey, publicKey);
+    }
+
+    private static byte[] sha256(String secret) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record KeyEntry(String kid, long createdAt, PrivateKey privateKey, PublicKey publicKey) {
+    }
+}
@@ -0,0 +1,60 @@
+package com.atlas.user.service;
+
+import com.atlas.user.entity.User;
+import com.atlas.user.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One-off republishing of {@code user.created} for every existing user, so services
+ * that keep a replica of contact details (notification-service's {@code user_contacts})
+ * also know the users registered before they started listening.
+ *
+ * Enable it on one instance with {@code atlas.user.contact-backfill.enabled=true} and
+ * turn it off again once it has logged completion. Consumers ignore events that are not
+ * newer than their copy, so running it twice, or alongside new registrations, is harmless.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "atlas.user.contact-backfill.enabled", havingValue = "true")
+public class UserContactBackfill {
+
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+
+    private final UserRepository userRepository;
+    private final UserEventPublisher userEventPublisher;
+    private final int pageSize;
+
+    public UserContactBackfill(UserRepository userRepository,
+                               UserEventPublisher userEventPublisher,
+                               @Value("${atlas.user.contact-backfill.page-size:500}") int pageSize) {
+        this.userRepository = userRepository;
+        this.userEventPublisher = userEventPublisher;
+        this.pageSize = pageSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        log.info("Republishing user created events for existing users");
+        UUID after = FIRST_ID;
+        long published = 0;
+        List<User> page;
+        do {
+            page = userRepository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, pageSize));
+            page.forEach(userEventPublisher::userCreated);
+            published += page.size();
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == pageSize);
+        log.info("Republished user created events for {} users", published);
+    }
+}
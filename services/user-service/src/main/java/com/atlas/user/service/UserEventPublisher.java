@@ -0,0 +1,46 @@
+package com.atlas.user.service;
+
+import com.atlas.common.event.BaseEvent;
+import com.atlas.common.event.UserCreatedEvent;
+import com.atlas.user.entity.User;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.stereotype.Component;
+
+import static com.atlas.user.config.RabbitMQConfig.USER_CREATED_ROUTING_KEY;
+import static com.atlas.user.config.RabbitMQConfig.USER_EXCHANGE;
+
+/**
+ * Publishes user lifecycle events so other services can keep their own copy of the
+ * contact details they need instead of calling this service.
+ *
+ * Events carry the entity version as {@code aggregateVersion}; consumers apply an event
+ * only if it is newer than what they hold, so redelivered or reordered events are harmless.
+ * Publishing is best effort: the user row is already committed, so a broker failure is
+ * logged rather than failing the request.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserEventPublisher {
+
+    private final RabbitTemplate rabbitTemplate;
+
+    public void userCreated(User user) {
+        UserCreatedEvent event = UserCreatedEvent.create(user.getId(), user.getEmail(),
+                user.getFirstName(), user.getLastName(), user.getPhoneNumber());
+        event.setAggregateVersion(user.getVersion());
+        send(USER_CREATED_ROUTING_KEY, event);
+    }
+
+    private void send(String routingKey, BaseEvent event) {
+        try {
+            rabbitTemplate.convertAndSend(USER_EXCHANGE, routingKey, event);
+        } catch (AmqpException e) {
+            log.error("Failed to publish {} for user {}: {}", event.getEventType(), event.getAggregateId(),
+                    e.getMessage());
+        }
+    }
+}
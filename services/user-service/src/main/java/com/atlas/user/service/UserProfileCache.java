@@ -0,0 +1,138 @@
+package com.atlas.user.service;
+
+import com.atlas.user.dto.UserResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Two-level cache of the {@link UserResponse} projection: a per-instance near cache in
+ * front of a shared Redis copy, with Postgres only on a miss in both.
+ *
+ * Near cache entries live for {@code local.ttl}, Redis entries for {@code ttl}. Code that
+ * changes profile fields calls {@link #evict} after committing, which drops the Redis copy
+ * and this instance's entry; other instances serve their near cache copy for at most
+ * {@code local.ttl} longer. Hits are counted per level as {@code user.profile.cache} with
+ * a {@code result} tag.
+ */
+@Slf4j
+@Component
+public class UserProfileCache {
+
+    private static final String KEY_PREFIX = "user:profile:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final long localTtlNanos;
+    private final int localMaxSize;
+
+    private final ConcurrentHashMap<UUID, LocalEntry> local = new ConcurrentHashMap<>();
+
+    private final Counter localHits;
+    private final Counter redisHits;
+    private final Counter misses;
+
+    public UserProfileCache(StringRedisTemplate redisTemplate,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${atlas.user.profile-cache.ttl:10m}") Duration ttl,
+                            @Value("${atlas.user.profile-cache.local.ttl:30s}") Duration localTtl,
+                            @Value("${atlas.user.profile-cache.local.max-size:10000}") int localMaxSize) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.localTtlNanos = localTtl.toNanos();
+        this.localMaxSize = localMaxSize;
+        this.localHits = counter(meterRegistry, "local");
+        this.redisHits = counter(meterRegistry, "redis");
+        this.misses = counter(meterRegistry, "miss");
+    }
+
+    /**
+     * The cached profile, or the one {@code loader} reads from the database.
+     * Redis errors fall through to the loader rather than failing the read.
+     */
+    public UserResponse get(UUID userId, Supplier<UserResponse> loader) {
+        long now = System.nanoTime();
+        LocalEntry entry = local.get(userId);
+        if (entry != null && now - entry.expiresAtNanos() < 0) {
+            localHits.increment();
+            return entry.profile();
+        }
+
+        String key = KEY_PREFIX + userId;
+        try {
+            String cached = redisTemplate.opsForValue().get(key);
+            if (cached != null) {
+                UserResponse profile = objectMapper.readValue(cached, UserResponse.class);
+                redisHits.increment();
+                putLocal(userId, profile, now);
+                return profile;
+            }
+        } catch (Exception e) {
+            log.warn("Could not read cached profile of user {}: {}", userId, e.getMessage());
+        }
+
+        misses.increment();
+        UserResponse profile = loader.get();
+        try {
+            redisTemplate.opsForValue().set(key, objectMapper.writeValueAsString(profile), ttl);
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Could not cache profile of user {}: {}", userId, e.getMessage());
+        }
+        putLocal(userId, profile, now);
+        return profile;
+    }
+
+    /**
+     * Drop cached profiles from Redis and this instance's near cache. Other instances
+     * drop theirs when their entries expire.
+     */
+    public void evict(Collection<UUID> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        userIds.forEach(local::remove);
+        List<String> keys = userIds.stream().map(id -> KEY_PREFIX + id).toList();
+        try {
+            redisTemplate.delete(keys);
+        } catch (RuntimeException e) {
+            log.warn("Could not evict {} cached profiles: {}", keys.size(), e.getMessage());
+        }
+    }
+
+    private void putLocal(UUID userId, UserResponse profile, long now) {
+        if (local.size() >= localMaxSize) {
+            // Cheap bound instead of LRU; a dropped entry is refilled from Redis
+            Iterator<UUID> it = local.keySet().iterator();
+            if (it.hasNext()) {
+                local.remove(it.next());
+            }
+        }
+        local.put(userId, new LocalEntry(profile, now + localTtlNanos));
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("user.profile.cache")
+                .description("Profile reads by the cache level that served them")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record LocalEntry(UserResponse profile, long expiresAtNanos) {
+    }
+}
@@ -0,0 +1,35 @@
+-- Runs after Hibernate's schema update (spring.jpa.defer-datasource-initialization), as
+-- one statement (spring.sql.init.separator), so the block below may contain semicolons.
+--
+-- Emails are unique regardless of case, and login looks them up by lower(email). Before
+-- idx_user_email_lower exists, accounts whose emails differ only in case must be merged
+-- or renamed by hand; startup fails naming them rather than on the bare index error.
+-- Once it exists, it replaces the plain unique index and constraint on email that
+-- earlier versions created.
+DO $$
+DECLARE
+    duplicates text;
+    email_constraint name;
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_indexes WHERE tablename = 'users' AND indexname = 'idx_user_email_lower') THEN
+        SELECT string_agg(email, ', ') INTO duplicates
+        FROM (SELECT lower(email) AS email FROM users GROUP BY lower(email) HAVING count(*) > 1
+              ORDER BY 1 LIMIT 20) duplicate;
+        IF duplicates IS NOT NULL THEN
+            RAISE EXCEPTION 'Cannot create idx_user_email_lower: emails used by several users apart from case: %',
+                duplicates USING HINT = 'Merge or rename those accounts (at most 20 emails shown), then restart.';
+        END IF;
+        CREATE UNIQUE INDEX idx_user_email_lower ON users (lower(email));
+    END IF;
+
+    DROP INDEX IF EXISTS idx_user_email;
+    FOR email_constraint IN
+        SELECT c.conname
+        FROM pg_constraint c
+        JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = ANY (c.conkey)
+        WHERE c.conrelid = 'users'::regclass AND c.contype = 'u'
+          AND a.attname = 'email' AND cardinality(c.conkey) = 1
+    LOOP
+        EXECUTE format('ALTER TABLE users DROP CONSTRAINT %I', email_constraint);
+    END LOOP;
+END $$;
@@ -0,0 +1,5 @@
+-- Starts a refresh token family.
+-- KEYS[1]: family hash. ARGV[1]: token id; ARGV[2]: user id; ARGV[3]: family TTL in seconds.
+redis.call('hset', KEYS[1], 'jti', ARGV[1], 'user', ARGV[2])
+redis.call('expire', KEYS[1], tonumber(ARGV[3]))
+return 1
@@ -0,0 +1,6 @@
+-- Deletes a refresh token family and records it as revoked.
+-- KEYS[1]: family hash; KEYS[2]: revoked families sorted set.
+-- ARGV[1]: time until which the family stays revoked, epoch millis; ARGV[2]: family id.
+redis.call('del', KEYS[1])
+redis.call('zadd', KEYS[2], ARGV[1], ARGV[2])
+return 1
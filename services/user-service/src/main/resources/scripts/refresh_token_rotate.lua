@@ -0,0 +1,19 @@
+-- Rotates the current refresh token of a family, or revokes the family on reuse.
+-- KEYS[1]: family hash; KEYS[2]: revoked families sorted set.
+-- ARGV[1]: presented token id; ARGV[2]: new token id;
+-- ARGV[3]: time until which the family stays revoked, epoch millis; ARGV[4]: family id.
+-- The family keeps the TTL set at login, so rotation cannot extend a session.
+-- Returns {'ok', user}, {'missing'} or {'reused'}.
+local current = redis.call('hget', KEYS[1], 'jti')
+if not current then
+  return {'missing'}
+end
+
+if current ~= ARGV[1] then
+  redis.call('del', KEYS[1])
+  redis.call('zadd', KEYS[2], ARGV[3], ARGV[4])
+  return {'reused'}
+end
+
+redis.call('hset', KEYS[1], 'jti', ARGV[2])
+return {'ok', redis.call('hget', KEYS[1], 'user')}
@@ -14,7 +14,6 @@ class UserTest {
     void createUser_WithBuilder() {
         UUID id = UUID.randomUUID();
         User user = User.builder()
-                .id(id)
                 .email("test@example.com")
                 .password("password")
                 .firstName("John")
@@ -22,13 +21,14 @@ class UserTest {
                 .role(Role.USER)
                 .enabled(true)
                 .build();
+        user.setId(id);
 
         assertThat(user.getId()).isEqualTo(id);
         assertThat(user.getEmail()).isEqualTo("test@example.com");
         assertThat(user.getFirstName()).isEqualTo("John");
         assertThat(user.getLastName()).isEqualTo("Doe");
         assertThat(user.getRole()).isEqualTo(Role.USER);
-        assertThat(user.isEnabled()).isTrue();
+        assertThat(user.getEnabled()).isTrue();
     }
 
     @Test
@@ -51,7 +51,7 @@ class UserTest {
                 .build();
 
         assertThat(user.getRole()).isEqualTo(Role.USER);
-        assertThat(user.isEnabled()).isTrue();
+        assertThat(user.getEnabled()).isTrue();
         assertThat(user.isAccountLocked()).isFalse();
         assertThat(user.getFailedLoginAttempts()).isZero();
     }
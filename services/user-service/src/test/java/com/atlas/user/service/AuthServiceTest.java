@@ -2,11 +2,16 @@ package com.atlas.user.service;
 
 import com.atlas.common.exception.AuthenticationException;
 import com.atlas.common.exception.BusinessException;
+import com.atlas.common.exception.ResourceNotFoundException;
 import com.atlas.common.security.JwtTokenProvider;
 import com.atlas.user.dto.*;
 import com.atlas.user.entity.Role;
 import com.atlas.user.entity.User;
 import com.atlas.user.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -14,11 +19,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -27,17 +35,31 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class AuthServiceTest {
 
+    private static final String CLIENT_IP = "10.0.0.1";
+
     @Mock
     private UserRepository userRepository;
-    
+
     @Mock
-    private PasswordEncoder passwordEncoder;
-    
+    private PasswordHashingService passwordHashingService;
+
     @Mock
     private JwtTokenProvider jwtTokenProvider;
-    
+
     @Mock
-    private RabbitTemplate rabbitTemplate;
+    private LoginAttemptTracker loginAttemptTracker;
+
+    @Mock
+    private LastLoginRecorder lastLoginRecorder;
+
+    @Mock
+    private RefreshTokenStore refreshTokenStore;
+
+    @Mock
+    private UserProfileCache userProfileCache;
+
+    @Mock
+    private UserEventPublisher userEventPublisher;
 
     @InjectMocks
     private AuthService authService;
@@ -49,19 +71,18 @@ class AuthServiceTest {
     @BeforeEach
     void setUp() {
         testUser = User.builder()
-                .id(UUID.randomUUID())
                 .email("test@example.com")
                 .password("encodedPassword")
                 .firstName("John")
                 .lastName("Doe")
                 .role(Role.USER)
                 .enabled(true)
-                .accountLocked(false)
                 .failedLoginAttempts(0)
                 .build();
+        testUser.setId(UUID.randomUUID());
 
         registerRequest = new RegisterRequest();
-        registerRequest.setEmail("new@example.com");
+        registerRequest.setEmail("New@Example.com");
         registerRequest.setPassword("Password123!");
         registerRequest.setFirstName("Jane");
         registerRequest.setLastName("Doe");
@@ -69,22 +90,22 @@ class AuthServiceTest {
         loginRequest = new LoginRequest();
         loginRequest.setEmail("test@example.com");
         loginRequest.setPassword("Password123!");
+
+        // The profile cache misses in these tests, so every read goes to the loader
+        lenient().when(userProfileCache.get(any(UUID.class), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<UserResponse>>getArgument(1).get());
     }
 
     @Test
     @DisplayName("Should register new user successfully")
     void register_Success() {
-        when(userRepository.existsByEmail(anyString())).thenReturn(false);
-        when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
+        when(passwordHashingService.encode(anyString())).thenReturn("encodedPassword");
         when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
             User user = invocation.getArgument(0);
             user.setId(UUID.randomUUID());
             return user;
         });
-        when(jwtTokenProvider.generateToken(any(UUID.class), anyString(), anyString()))
-                .thenReturn("access-token");
-        when(jwtTokenProvider.generateRefreshToken(any(UUID.class)))
-                .thenReturn("refresh-token");
+        stubTokens("access-token", "refresh-token");
 
         AuthResponse response = authService.register(registerRequest);
 
@@ -93,131 +114,150 @@ class AuthServiceTest {
         assertThat(response.getRefreshToken()).isEqualTo("refresh-token");
         assertThat(response.getUser().getEmail()).isEqualTo("new@example.com");
 
-        verify(userRepository).save(any(User.class));
+        verify(refreshTokenStore).issue(anyString(), anyString(), eq(response.getUser().getId()));
+        verify(userEventPublisher).userCreated(any(User.class));
     }
 
     @Test
     @DisplayName("Should throw exception when email already exists")
     void register_EmailExists_ThrowsException() {
-        when(userRepository.existsByEmail(anyString())).thenReturn(true);
+        when(passwordHashingService.encode(anyString())).thenReturn("encodedPassword");
+        when(userRepository.save(any(User.class))).thenThrow(new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate", new SQLException("duplicate", "23505"),
+                        "idx_user_email_lower")));
 
         assertThatThrownBy(() -> authService.register(registerRequest))
                 .isInstanceOf(BusinessException.class)
                 .hasMessageContaining("Email already registered");
 
-        verify(userRepository, never()).save(any(User.class));
+        verify(userEventPublisher, never()).userCreated(any());
     }
 
     @Test
     @DisplayName("Should login successfully with valid credentials")
     void login_Success() {
-        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
-        when(passwordEncoder.matches(anyString(), anyString())).thenReturn(true);
-        when(jwtTokenProvider.generateToken(any(UUID.class), anyString(), anyString()))
-                .thenReturn("access-token");
-        when(jwtTokenProvider.generateRefreshToken(any(UUID.class)))
-                .thenReturn("refresh-token");
+        when(userRepository.findActiveByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(passwordHashingService.matches(anyString(), anyString())).thenReturn(true);
+        stubTokens("access-token", "refresh-token");
 
-        AuthResponse response = authService.login(loginRequest);
+        AuthResponse response = authService.login(loginRequest, CLIENT_IP);
 
         assertThat(response).isNotNull();
         assertThat(response.getAccessToken()).isEqualTo("access-token");
         assertThat(response.getUser().getEmail()).isEqualTo("test@example.com");
 
-        verify(userRepository).updateLastLogin(any(UUID.class), any());
-        verify(userRepository).resetFailedAttempts(any(UUID.class));
+        verify(loginAttemptTracker).recordSuccess("test@example.com");
+        verify(lastLoginRecorder).record(eq(testUser.getId()), any(LocalDateTime.class));
+        verify(userRepository, never()).resetFailedLoginAttempts(any(UUID.class));
     }
 
     @Test
-    @DisplayName("Should throw exception when user not found")
+    @DisplayName("Should count a failed login for an unknown email against the IP only")
     void login_UserNotFound_ThrowsException() {
-        when(userRepository.findByEmail(anyString())).thenReturn(Optional.empty());
+        when(userRepository.findActiveByEmail(anyString())).thenReturn(Optional.empty());
 
-        assertThatThrownBy(() -> authService.login(loginRequest))
+        assertThatThrownBy(() -> authService.login(loginRequest, CLIENT_IP))
                 .isInstanceOf(AuthenticationException.class)
                 .hasMessageContaining("Invalid email or password");
+
+        verify(loginAttemptTracker).recordUnknownAccountFailure(CLIENT_IP);
+        verify(loginAttemptTracker, never()).recordFailure(anyString(), anyString());
     }
 
     @Test
-    @DisplayName("Should throw exception when account is locked")
-    void login_AccountLocked_ThrowsException() {
-        testUser.setAccountLocked(true);
-        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
+    @DisplayName("Should reject a login while too many attempts failed")
+    void login_Blocked_ThrowsException() {
+        when(loginAttemptTracker.isBlocked("test@example.com", CLIENT_IP)).thenReturn(true);
 
-        assertThatThrownBy(() -> authService.login(loginRequest))
-                .isInstanceOf(AuthenticationException.class)
-                .hasMessageContaining("Account is locked");
+        assertThatThrownBy(() -> authService.login(loginRequest, CLIENT_IP))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("Too many failed login attempts");
+
+        verify(userRepository, never()).findActiveByEmail(anyString());
     }
 
     @Test
-    @DisplayName("Should throw exception when account is disabled")
-    void login_AccountDisabled_ThrowsException() {
-        testUser.setEnabled(false);
-        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
+    @DisplayName("Should throw exception when account is locked")
+    void login_AccountLocked_ThrowsException() {
+        testUser.setLockedUntil(LocalDateTime.now().plusMinutes(10));
+        when(userRepository.findActiveByEmail(anyString())).thenReturn(Optional.of(testUser));
 
-        assertThatThrownBy(() -> authService.login(loginRequest))
+        assertThatThrownBy(() -> authService.login(loginRequest, CLIENT_IP))
                 .isInstanceOf(AuthenticationException.class)
-                .hasMessageContaining("Account is disabled");
+                .hasMessageContaining("Account is locked");
     }
 
     @Test
-    @DisplayName("Should increment failed attempts on wrong password")
-    void login_WrongPassword_IncrementsFailedAttempts() {
-        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
-        when(passwordEncoder.matches(anyString(), anyString())).thenReturn(false);
+    @DisplayName("Should record a failed attempt on wrong password")
+    void login_WrongPassword_RecordsFailure() {
+        when(userRepository.findActiveByEmail(anyString())).thenReturn(Optional.of(testUser));
+        when(passwordHashingService.matches(anyString(), anyString())).thenReturn(false);
 
-        assertThatThrownBy(() -> authService.login(loginRequest))
+        assertThatThrownBy(() -> authService.login(loginRequest, CLIENT_IP))
                 .isInstanceOf(AuthenticationException.class);
 
-        verify(userRepository).incrementFailedAttempts(testUser.getId());
+        verify(loginAttemptTracker).recordFailure("test@example.com", CLIENT_IP);
+        verify(userRepository, never()).lockAccount(any(UUID.class), any(LocalDateTime.class));
     }
 
     @Test
     @DisplayName("Should lock account after max failed attempts")
     void login_MaxFailedAttempts_LocksAccount() {
-        testUser.setFailedLoginAttempts(4);
-        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
-        when(passwordEncoder.matches(anyString(), anyString())).thenReturn(false);
+        when(userRepository.findActiveByEmail(anyString())).thenReturn(Optional.of(testUser));
+        when(passwordHashingService.matches(anyString(), anyString())).thenReturn(false);
+        when(loginAttemptTracker.recordFailure("test@example.com", CLIENT_IP)).thenReturn(true);
+        when(loginAttemptTracker.getLockDuration()).thenReturn(Duration.ofMinutes(15));
 
-        assertThatThrownBy(() -> authService.login(loginRequest))
+        assertThatThrownBy(() -> authService.login(loginRequest, CLIENT_IP))
                 .isInstanceOf(AuthenticationException.class);
 
-        verify(userRepository).lockAccount(testUser.getId());
+        verify(userRepository).lockAccount(eq(testUser.getId()), any(LocalDateTime.class));
     }
 
     @Test
-    @DisplayName("Should refresh token successfully")
+    @DisplayName("Should refresh token with the user's current email and role")
     void refreshToken_Success() {
-        RefreshTokenRequest request = new RefreshTokenRequest();
-        request.setRefreshToken("valid-refresh-token");
-
-        when(jwtTokenProvider.validateToken("valid-refresh-token")).thenReturn(true);
-        when(jwtTokenProvider.getUserIdFromToken("valid-refresh-token"))
-                .thenReturn(testUser.getId());
+        testUser.setEmail("renamed@example.com");
+        testUser.setRole(Role.ADMIN);
+        when(jwtTokenProvider.extractClaim(eq("valid-refresh-token"), any())).thenReturn(refreshClaims());
+        when(refreshTokenStore.rotate(eq("family-1"), eq("token-1"), anyString())).thenReturn(testUser.getId());
         when(userRepository.findById(testUser.getId())).thenReturn(Optional.of(testUser));
-        when(jwtTokenProvider.generateToken(any(UUID.class), anyString(), anyString()))
-                .thenReturn("new-access-token");
-        when(jwtTokenProvider.generateRefreshToken(any(UUID.class)))
-                .thenReturn("new-refresh-token");
+        stubTokens("new-access-token", "new-refresh-token");
 
-        AuthResponse response = authService.refreshToken(request);
+        AuthResponse response = authService.refreshToken("valid-refresh-token");
 
-        assertThat(response).isNotNull();
         assertThat(response.getAccessToken()).isEqualTo("new-access-token");
         assertThat(response.getRefreshToken()).isEqualTo("new-refresh-token");
+        verify(jwtTokenProvider).generateToken(eq(testUser.getId()), eq("renamed@example.com"), eq("ADMIN"), anyMap());
+    }
+
+    @Test
+    @DisplayName("Should revoke the family when a disabled user refreshes")
+    void refreshToken_DisabledUser_RevokesFamily() {
+        testUser.setEnabled(false);
+        when(jwtTokenProvider.extractClaim(eq("valid-refresh-token"), any())).thenReturn(refreshClaims());
+        when(refreshTokenStore.rotate(eq("family-1"), eq("token-1"), anyString())).thenReturn(testUser.getId());
+        when(userRepository.findById(testUser.getId())).thenReturn(Optional.of(testUser));
+
+        assertThatThrownBy(() -> authService.refreshToken("valid-refresh-token"))
+                .isInstanceOf(AuthenticationException.class)
+                .hasMessageContaining("Account is disabled");
+
+        verify(refreshTokenStore).revoke("family-1");
+        verify(jwtTokenProvider, never()).generateToken(any(UUID.class), anyString(), anyString(), anyMap());
     }
 
     @Test
     @DisplayName("Should throw exception for invalid refresh token")
     void refreshToken_InvalidToken_ThrowsException() {
-        RefreshTokenRequest request = new RefreshTokenRequest();
-        request.setRefreshToken("invalid-token");
-
-        when(jwtTokenProvider.validateToken("invalid-token")).thenReturn(false);
+        when(jwtTokenProvider.extractClaim(eq("invalid-token"), any()))
+                .thenThrow(new MalformedJwtException("malformed"));
 
-        assertThatThrownBy(() -> authService.refreshToken(request))
+        assertThatThrownBy(() -> authService.refreshToken("invalid-token"))
                 .isInstanceOf(AuthenticationException.class)
-                .hasMessageContaining("Invalid refresh token");
+                .hasMessageContaining("Invalid or expired refresh token");
+
+        verifyNoInteractions(refreshTokenStore);
     }
 
     @Test
@@ -232,4 +272,30 @@ class AuthServiceTest {
         assertThat(response.getFirstName()).isEqualTo("John");
         assertThat(response.getLastName()).isEqualTo("Doe");
     }
+
+    @Test
+    @DisplayName("Should report a disabled user as not found")
+    void getCurrentUser_Disabled_NotFound() {
+        testUser.setEnabled(false);
+        when(userRepository.findById(testUser.getId())).thenReturn(Optional.of(testUser));
+
+        assertThatThrownBy(() -> authService.getCurrentUser(testUser.getId()))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private void stubTokens(String accessToken, String refreshToken) {
+        when(jwtTokenProvider.generateToken(any(UUID.class), anyString(), anyString(), anyMap()))
+                .thenReturn(accessToken);
+        when(jwtTokenProvider.generateRefreshToken(any(UUID.class), anyString(), anyString()))
+                .thenReturn(refreshToken);
+    }
+
+    private Claims refreshClaims() {
+        return Jwts.claims()
+                .subject(testUser.getId().toString())
+                .id("token-1")
+                .add("type", "refresh")
+                .add(JwtTokenProvider.FAMILY_CLAIM, "family-1")
+                .build();
+    }
 }
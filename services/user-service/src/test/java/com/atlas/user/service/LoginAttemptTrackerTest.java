@@ -0,0 +1,76 @@
+package com.atlas.user.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginAttemptTrackerTest {
+
+    private final LoginAttemptTracker tracker =
+            new LoginAttemptTracker(3, Duration.ofMinutes(30), 5, Duration.ofMinutes(10));
+
+    @Test
+    @DisplayName("Should report the threshold crossing exactly once and then block the email")
+    void recordFailure_ThresholdCrossed_ReportsOnceAndBlocks() {
+        assertThat(tracker.recordFailure("user@atlas.com", "10.0.0.1")).isFalse();
+        assertThat(tracker.recordFailure("user@atlas.com", "10.0.0.1")).isFalse();
+        assertThat(tracker.isBlocked("user@atlas.com", "10.0.0.2")).isFalse();
+
+        assertThat(tracker.recordFailure("user@atlas.com", "10.0.0.1")).isTrue();
+        assertThat(tracker.isBlocked("user@atlas.com", "10.0.0.2")).isTrue();
+        assertThat(tracker.recordFailure("user@atlas.com", "10.0.0.1")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should block a client IP that fails across many emails")
+    void recordFailure_ManyEmailsFromOneIp_BlocksIp() {
+        for (int i = 0; i < 5; i++) {
+            tracker.recordFailure("user" + i + "@atlas.com", "10.0.0.1");
+        }
+
+        assertThat(tracker.isBlocked("other@atlas.com", "10.0.0.1")).isTrue();
+        assertThat(tracker.isBlocked("other@atlas.com", "10.0.0.9")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should count failures for unknown emails against the IP only")
+    void recordUnknownAccountFailure_CountsIpOnly() {
+        for (int i = 0; i < 5; i++) {
+            tracker.recordUnknownAccountFailure("10.0.0.1");
+        }
+
+        assertThat(tracker.trackedEmails()).isZero();
+        assertThat(tracker.isBlocked("random@atlas.com", "10.0.0.1")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should forget an email's failures after a successful login")
+    void recordSuccess_ClearsEmailFailures() {
+        tracker.recordFailure("user@atlas.com", null);
+        tracker.recordFailure("user@atlas.com", null);
+
+        tracker.recordSuccess("user@atlas.com");
+
+        assertThat(tracker.recordFailure("user@atlas.com", null)).isFalse();
+        assertThat(tracker.recordFailure("user@atlas.com", null)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should regain one attempt per refill interval")
+    void failureBucket_RefillsOverTime() {
+        long interval = Duration.ofMinutes(10).toNanos();
+        long start = 0;
+        LoginAttemptTracker.FailureBucket bucket = new LoginAttemptTracker.FailureBucket(interval, 2, start);
+
+        assertThat(bucket.tryTake(start)).isEqualTo(1);
+        assertThat(bucket.tryTake(start)).isZero();
+        assertThat(bucket.isEmpty(start)).isTrue();
+        assertThat(bucket.tryTake(start)).isEqualTo(-1);
+
+        assertThat(bucket.isEmpty(start + interval)).isFalse();
+        assertThat(bucket.isFull(start + 2 * interval)).isTrue();
+    }
+}
@@ -0,0 +1,139 @@
+package com.atlas.user.service;
+
+import com.atlas.common.exception.BusinessException;
+import com.atlas.user.config.SecurityConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHashingServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    private final PasswordEncoder blockingEncoder = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hashed:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword.equals("hashed:" + rawPassword);
+        }
+    };
+
+    private PasswordHashingService service;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should hash on the executor and record queue wait and hash time")
+    void encodeAndMatches_RecordMetrics() {
+        release.countDown();
+        service = new PasswordHashingService(blockingEncoder, meterRegistry, 1, 4, Duration.ofSeconds(5));
+
+        String hash = service.encode("secret");
+
+        assertThat(service.matches("secret", hash)).isTrue();
+        assertThat(service.matches("wrong", hash)).isFalse();
+        assertThat(meterRegistry.get("auth.password.hash").tag("operation", "encode").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("auth.password.queue.wait").tag("operation", "matches").timer().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should reject with 503 once the queue is full")
+    void encode_QueueFull_RejectsImmediately() throws Exception {
+        service = new PasswordHashingService(blockingEncoder, meterRegistry, 1, 1, Duration.ofSeconds(5));
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> service.encode("first"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> service.encode("second"));
+        awaitQueued();
+
+        assertThatThrownBy(() -> service.encode("third"))
+                .isInstanceOf(BusinessException.class)
+                .satisfies(e -> assertThat(((BusinessException) e).getStatus())
+                        .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(meterRegistry.get("auth.password.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hashed:first");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hashed:second");
+    }
+
+    @Test
+    @DisplayName("Should give up with 503 when hashing does not start within the timeout")
+    void encode_Timeout_Rejects() throws Exception {
+        service = new PasswordHashingService(blockingEncoder, meterRegistry, 1, 4, Duration.ofMillis(100));
+        CompletableFuture.runAsync(() -> {
+            try {
+                service.encode("first");
+            } catch (BusinessException ignored) {
+                // Times out as well while the latch is held
+            }
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> service.encode("second"))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("overloaded");
+    }
+
+    @Test
+    @DisplayName("Should ask for a rehash when the stored hash uses another algorithm or cost")
+    void needsRehash_DifferentParameters_True() {
+        PasswordEncoder encoder = new SecurityConfig().passwordEncoder("bcrypt", 5, 16, 32, 1, 1024, 1);
+        service = new PasswordHashingService(encoder, meterRegistry, 1, 4, Duration.ofSeconds(5));
+        service.init();
+
+        assertThat(service.needsRehash(encoder.encode("secret"))).isFalse();
+        assertThat(service.needsRehash(new BCryptPasswordEncoder(4).encode("secret"))).isTrue();
+        assertThat(service.needsRehash("{bcrypt}" + new BCryptPasswordEncoder(4).encode("secret"))).isTrue();
+        assertThat(service.needsRehash(
+                new SecurityConfig().passwordEncoder("argon2", 5, 16, 32, 1, 1024, 1).encode("secret"))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should keep Argon2 hashes with the current parameters and match legacy BCrypt hashes")
+    void needsRehash_Argon2_ComparesParameters() {
+        PasswordEncoder encoder = new SecurityConfig().passwordEncoder("argon2", 4, 16, 32, 1, 1024, 1);
+        service = new PasswordHashingService(encoder, meterRegistry, 1, 4, Duration.ofSeconds(5));
+        service.init();
+
+        assertThat(service.needsRehash(encoder.encode("secret"))).isFalse();
+        assertThat(service.needsRehash(
+                new SecurityConfig().passwordEncoder("argon2", 4, 16, 32, 1, 2048, 1).encode("secret"))).isTrue();
+        assertThat(service.matches("secret", new BCryptPasswordEncoder(4).encode("secret"))).isTrue();
+    }
+
+    private void awaitQueued() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("auth.password.queue.depth").gauge().value() < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
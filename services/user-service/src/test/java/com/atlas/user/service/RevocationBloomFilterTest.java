@@ -0,0 +1,48 @@
+package com.atlas.user.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RevocationBloomFilterTest {
+
+    @Test
+    @DisplayName("Should always report added ids")
+    void mightContain_AddedIds_True() {
+        RevocationBloomFilter filter = RevocationBloomFilter.create(1000, 0.001);
+        for (int i = 0; i < 1000; i++) {
+            filter.put("family-" + i);
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(filter.mightContain("family-" + i)).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("Should stay near the configured false positive rate when full")
+    void mightContain_OtherIds_FalsePositiveRateHolds() {
+        RevocationBloomFilter filter = RevocationBloomFilter.create(10_000, 0.001);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("revoked-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("active-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(300);
+    }
+
+    @Test
+    @DisplayName("Should serialize to a header plus the bit words")
+    void toByteArray_SizedFromExpectedInsertions() {
+        byte[] bytes = RevocationBloomFilter.create(10_000, 0.001).toByteArray();
+
+        // ~14.4 bits per id at 0.1%
+        assertThat(bytes.length).isBetween(17_000, 19_000);
+    }
+}
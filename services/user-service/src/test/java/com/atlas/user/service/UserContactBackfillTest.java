@@ -0,0 +1,47 @@
+package com.atlas.user.service;
+
+import com.atlas.user.entity.User;
+import com.atlas.user.repository.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserContactBackfillTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserEventPublisher userEventPublisher = mock(UserEventPublisher.class);
+
+    @Test
+    @DisplayName("Should publish every user, paging by id")
+    void backfill_PublishesAllPages() {
+        User first = user(1);
+        User second = user(2);
+        User third = user(3);
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(new UUID(0, 0), PageRequest.of(0, 2)))
+                .thenReturn(List.of(first, second));
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(second.getId(), PageRequest.of(0, 2)))
+                .thenReturn(List.of(third));
+
+        new UserContactBackfill(userRepository, userEventPublisher, 2).backfill();
+
+        verify(userEventPublisher).userCreated(first);
+        verify(userEventPublisher).userCreated(second);
+        verify(userEventPublisher).userCreated(third);
+        verify(userRepository, times(2)).findByIdGreaterThanOrderByIdAsc(any(UUID.class), any());
+    }
+
+    private User user(long id) {
+        User user = User.builder().email("user" + id + "@atlas.com").firstName("Ada").lastName("Lovelace").build();
+        user.setId(new UUID(0, id));
+        return user;
+    }
+}
@@ -0,0 +1,133 @@
+package com.atlas.user.service;
+
+import com.atlas.user.dto.UserResponse;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserProfileCacheTest {
+
+    // Configured like Spring Boot's mapper, which ignores the derived fullName on read
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UUID userId = UUID.randomUUID();
+
+    private StringRedisTemplate redisTemplate;
+    private ValueOperations<String, String> valueOperations;
+    private UserProfileCache cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        cache = new UserProfileCache(redisTemplate, objectMapper, meterRegistry,
+                Duration.ofMinutes(10), Duration.ofSeconds(30), 100);
+    }
+
+    @Test
+    @DisplayName("Should load a missing profile and write it to Redis")
+    void get_Miss_LoadsAndCaches() {
+        UserResponse loaded = cache.get(userId, this::profile);
+
+        assertThat(loaded.getEmail()).isEqualTo("user@atlas.com");
+        verify(valueOperations).set(eq("user:profile:" + userId), anyString(), eq(Duration.ofMinutes(10)));
+        assertThat(count("miss")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should serve a repeated read from the near cache without Redis")
+    void get_LocalHit_SkipsRedis() {
+        cache.get(userId, this::profile);
+        UserResponse cached = cache.get(userId, () -> {
+            throw new AssertionError("loader should not run");
+        });
+
+        assertThat(cached.getEmail()).isEqualTo("user@atlas.com");
+        verify(valueOperations, times(1)).get(anyString());
+        assertThat(count("local")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should serve a profile cached in Redis without loading it")
+    void get_RedisHit_SkipsLoader() throws Exception {
+        when(valueOperations.get("user:profile:" + userId)).thenReturn(objectMapper.writeValueAsString(profile()));
+
+        UserResponse cached = cache.get(userId, () -> {
+            throw new AssertionError("loader should not run");
+        });
+
+        assertThat(cached.getId()).isEqualTo(userId);
+        assertThat(count("redis")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should reload a profile after it is evicted")
+    void evict_RemovesLocalAndRedisCopies() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(userId, () -> {
+            loads.incrementAndGet();
+            return profile();
+        });
+
+        cache.evict(List.of(userId));
+        cache.get(userId, () -> {
+            loads.incrementAndGet();
+            return profile();
+        });
+
+        verify(redisTemplate).delete(List.of("user:profile:" + userId));
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should fall back to the loader when Redis is unavailable")
+    void get_RedisDown_UsesLoader() {
+        when(valueOperations.get(anyString())).thenThrow(new RedisConnectionFailureException("down"));
+        doThrow(new RedisConnectionFailureException("down"))
+                .when(valueOperations).set(anyString(), anyString(), any(Duration.class));
+
+        UserResponse loaded = cache.get(userId, this::profile);
+
+        assertThat(loaded.getId()).isEqualTo(userId);
+        assertThat(count("miss")).isEqualTo(1);
+    }
+
+    private UserResponse profile() {
+        return UserResponse.builder()
+                .id(userId)
+                .email("user@atlas.com")
+                .firstName("Ada")
+                .lastName("Lovelace")
+                .build();
+    }
+
+    private double count(String result) {
+        return meterRegistry.counter("user.profile.cache", "result", result).count();
+    }
+}
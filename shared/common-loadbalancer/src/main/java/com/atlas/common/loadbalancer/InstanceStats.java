@@ -0,0 +1,117 @@
+package com.atlas.common.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load statistics for one service instance: peak-EWMA latency, requests in flight,
+ * and outlier ejection state.
+ *
+ * The latency average jumps straight to any slower sample and otherwise decays with
+ * time constant {@code decayNanos}, so a pausing instance is penalised at once but
+ * recovers gradually, and one that stopped getting traffic is eventually probed
+ * again. An instance that fails {@code failureThreshold} requests in a row is
+ * ejected for {@code baseEjectionNanos}, growing with each repeated ejection up to
+ * {@code maxEjectionNanos}.
+ */
+public class InstanceStats {
+
+    /** Cost of an instance with requests in flight but no latency sample yet. */
+    private static final double UNSAMPLED_PENALTY = 1e12;
+
+    private final long decayNanos;
+    private final int failureThreshold;
+    private final long baseEjectionNanos;
+    private final long maxEjectionNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile boolean sampled;
+    private volatile double ewmaNanos;
+    private volatile long lastSampleNanos;
+    private volatile long ejectedUntilNanos;
+    private int consecutiveFailures;
+    private int ejections;
+
+    public InstanceStats(long decayNanos, int failureThreshold, long baseEjectionNanos, long maxEjectionNanos) {
+        this.decayNanos = decayNanos;
+        this.failureThreshold = failureThreshold;
+        this.baseEjectionNanos = baseEjectionNanos;
+        this.maxEjectionNanos = maxEjectionNanos;
+        this.ejectedUntilNanos = System.nanoTime();
+    }
+
+    /**
+     * Expected cost of sending one more request here; lower is better.
+     */
+    public double cost(long now) {
+        int pending = inFlight.get();
+        if (!sampled) {
+            return pending == 0 ? 0 : UNSAMPLED_PENALTY + pending;
+        }
+        return decayed(now) * (pending + 1);
+    }
+
+    public void onStart() {
+        inFlight.incrementAndGet();
+    }
+
+    /**
+     * A request ended without a usable outcome, e.g. the caller went away.
+     */
+    public void onCancel() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * A request finished.
+     *
+     * @param rttNanos its latency, or a negative value when unknown
+     * @param failed   whether the instance failed to serve it
+     */
+    public synchronized void onComplete(long rttNanos, boolean failed, long now) {
+        inFlight.decrementAndGet();
+        if (rttNanos >= 0) {
+            double current = ewmaNanos;
+            double weight = weight(now);
+            ewmaNanos = rttNanos > current ? rttNanos : current * weight + rttNanos * (1 - weight);
+            lastSampleNanos = now;
+            sampled = true;
+        }
+
+        if (!failed) {
+            consecutiveFailures = 0;
+            if (!isEjected(now)) {
+                ejections = 0;
+            }
+            return;
+        }
+        if (++consecutiveFailures >= failureThreshold) {
+            consecutiveFailures = 0;
+            ejections++;
+            long duration = Math.min(maxEjectionNanos, baseEjectionNanos * ejections);
+            ejectedUntilNanos = now + duration;
+        }
+    }
+
+    public boolean isEjected(long now) {
+        return now - ejectedUntilNanos < 0;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Current latency average in nanoseconds, decayed to {@code now}.
+     */
+    public double getLatency(long now) {
+        return decayed(now);
+    }
+
+    private double decayed(long now) {
+        return ewmaNanos * weight(now);
+    }
+
+    private double weight(long now) {
+        return Math.exp(-(double) Math.max(0, now - lastSampleNanos) / decayNanos);
+    }
+}
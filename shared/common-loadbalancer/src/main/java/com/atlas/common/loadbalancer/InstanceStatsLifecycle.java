@@ -0,0 +1,75 @@
+package com.atlas.common.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.http.HttpStatusCode;
+
+/**
+ * Feeds the outcome of every load-balanced call into {@link InstanceStatsRegistry}.
+ *
+ * Both the gateway's load balancer filter and Feign's blocking client invoke
+ * lifecycle beans from the application context, so one bean covers either caller.
+ * A call counts as failed when it threw or the instance answered with a 5xx; a call
+ * discarded after an instance was chosen, such as a cancelled hedge, only releases its
+ * in-flight slot.
+ */
+public class InstanceStatsLifecycle implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    private final InstanceStatsRegistry registry;
+
+    public InstanceStatsLifecycle(InstanceStatsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (!lbResponse.hasServer()) {
+            return;
+        }
+        if (request.getContext() instanceof TimedRequestContext context) {
+            context.setRequestStartTime(System.nanoTime());
+        }
+        registry.get(lbResponse.getServer()).onStart();
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        if (completionContext.status() == CompletionContext.Status.DISCARD) {
+            registry.get(lbResponse.getServer()).onCancel();
+            return;
+        }
+
+        long now = System.nanoTime();
+        long rtt = -1;
+        Request<Object> request = completionContext.getLoadBalancerRequest();
+        if (request != null && request.getContext() instanceof TimedRequestContext context
+                && context.getRequestStartTime() != 0) {
+            rtt = now - context.getRequestStartTime();
+        }
+        registry.get(lbResponse.getServer()).onComplete(rtt, isFailure(completionContext), now);
+    }
+
+    private boolean isFailure(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        if (completionContext.status() == CompletionContext.Status.FAILED) {
+            return true;
+        }
+        if (completionContext.getClientResponse() instanceof ResponseData response) {
+            HttpStatusCode status = response.getHttpStatus();
+            return status != null && status.is5xxServerError();
+        }
+        return false;
+    }
+}
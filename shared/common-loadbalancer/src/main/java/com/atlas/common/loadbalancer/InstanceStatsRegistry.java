@@ -0,0 +1,90 @@
+package com.atlas.common.loadbalancer;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * {@link InstanceStats} for every instance this application calls, shared by the
+ * per-service load balancers and the lifecycle that feeds them.
+ *
+ * Each instance's latency, in-flight count and ejection state are exported as
+ * {@code loadbalancer.instance.latency}, {@code loadbalancer.instance.inflight} and
+ * {@code loadbalancer.instance.ejected}, tagged with {@code service} and {@code instance}.
+ * Instances that leave discovery are dropped along with their meters.
+ */
+public class InstanceStatsRegistry {
+
+    private final MeterRegistry meterRegistry;
+    private final long decayNanos;
+    private final int failureThreshold;
+    private final long baseEjectionNanos;
+    private final long maxEjectionNanos;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public InstanceStatsRegistry(MeterRegistry meterRegistry, Duration decayTime, int failureThreshold,
+                                 Duration baseEjectionTime, Duration maxEjectionTime) {
+        this.meterRegistry = meterRegistry;
+        this.decayNanos = decayTime.toNanos();
+        this.failureThreshold = failureThreshold;
+        this.baseEjectionNanos = baseEjectionTime.toNanos();
+        this.maxEjectionNanos = maxEjectionTime.toNanos();
+    }
+
+    public InstanceStats get(ServiceInstance instance) {
+        return entries.computeIfAbsent(key(instance), k -> register(instance)).stats();
+    }
+
+    /**
+     * Forget instances of {@code serviceId} that are no longer in {@code current}.
+     */
+    public void retain(String serviceId, Collection<ServiceInstance> current) {
+        Set<String> live = current.stream().map(InstanceStatsRegistry::key).collect(Collectors.toSet());
+        String prefix = serviceId.toLowerCase() + "/";
+        entries.entrySet().removeIf(e -> {
+            if (!e.getKey().startsWith(prefix) || live.contains(e.getKey())) {
+                return false;
+            }
+            e.getValue().meters().forEach(meterRegistry::remove);
+            return true;
+        });
+    }
+
+    private Entry register(ServiceInstance instance) {
+        InstanceStats stats = new InstanceStats(decayNanos, failureThreshold, baseEjectionNanos, maxEjectionNanos);
+        Tags tags = Tags.of("service", instance.getServiceId().toLowerCase(),
+                "instance", instance.getHost() + ":" + instance.getPort());
+        List<Meter> meters = List.of(
+                Gauge.builder("loadbalancer.instance.latency", stats, s -> s.getLatency(System.nanoTime()) / 1e9)
+                        .description("Peak-EWMA response time of the instance")
+                        .baseUnit("seconds")
+                        .tags(tags)
+                        .register(meterRegistry),
+                Gauge.builder("loadbalancer.instance.inflight", stats, InstanceStats::getInFlight)
+                        .description("Requests in flight to the instance")
+                        .tags(tags)
+                        .register(meterRegistry),
+                Gauge.builder("loadbalancer.instance.ejected", stats, s -> s.isEjected(System.nanoTime()) ? 1 : 0)
+                        .description("Whether the instance is ejected as an outlier")
+                        .tags(tags)
+                        .register(meterRegistry));
+        return new Entry(stats, meters);
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getServiceId().toLowerCase() + "/" + instance.getHost() + ":" + instance.getPort();
+    }
+
+    private record Entry(InstanceStats stats, List<Meter> meters) {
+    }
+}
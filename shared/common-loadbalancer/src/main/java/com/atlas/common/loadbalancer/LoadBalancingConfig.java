@@ -0,0 +1,33 @@
+package com.atlas.common.loadbalancer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Replaces round robin with {@link PeakEwmaLoadBalancer} for every load-balanced client.
+ */
+@Configuration
+@LoadBalancerClients(defaultConfiguration = PeakEwmaLoadBalancerConfiguration.class)
+public class LoadBalancingConfig {
+
+    @Bean
+    public InstanceStatsRegistry instanceStatsRegistry(
+            MeterRegistry meterRegistry,
+            @Value("${atlas.loadbalancer.decay-time:10s}") Duration decayTime,
+            @Value("${atlas.loadbalancer.ejection.consecutive-failures:5}") int consecutiveFailures,
+            @Value("${atlas.loadbalancer.ejection.base-time:30s}") Duration baseEjectionTime,
+            @Value("${atlas.loadbalancer.ejection.max-time:5m}") Duration maxEjectionTime) {
+        return new InstanceStatsRegistry(
+                meterRegistry, decayTime, consecutiveFailures, baseEjectionTime, maxEjectionTime);
+    }
+
+    @Bean
+    public InstanceStatsLifecycle instanceStatsLifecycle(InstanceStatsRegistry registry) {
+        return new InstanceStatsLifecycle(registry);
+    }
+}
@@ -0,0 +1,114 @@
+package com.atlas.common.loadbalancer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.SelectedInstanceCallback;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load balancer that picks instances by power of two choices over {@link InstanceStats#cost}.
+ *
+ * Two random instances are compared and the cheaper one, by peak-EWMA latency times
+ * requests in flight, wins. Ejected outliers are skipped unless every instance is
+ * ejected, in which case all of them are eligible again rather than failing the call.
+ */
+@Slf4j
+public class PeakEwmaLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private static final long RETAIN_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+    private final String serviceId;
+    private final InstanceStatsRegistry registry;
+    private final AtomicLong nextRetainNanos = new AtomicLong(System.nanoTime() + RETAIN_INTERVAL_NANOS);
+
+    public PeakEwmaLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+                                String serviceId, InstanceStatsRegistry registry) {
+        this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+        this.serviceId = serviceId;
+        this.registry = registry;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = serviceInstanceListSupplierProvider
+                .getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(instances -> {
+            Response<ServiceInstance> response = choose(instances);
+            if (supplier instanceof SelectedInstanceCallback callback && response.hasServer()) {
+                callback.selectedServiceInstance(response.getServer());
+            }
+            return response;
+        });
+    }
+
+    Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            log.warn("No servers available for service: {}", serviceId);
+            return new EmptyResponse();
+        }
+        long now = System.nanoTime();
+        retainIfDue(instances, now);
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+
+        List<ServiceInstance> candidates = eligible(instances, now);
+        if (candidates.size() == 1) {
+            return new DefaultResponse(candidates.get(0));
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = candidates.get(first);
+        ServiceInstance b = candidates.get(second);
+        return new DefaultResponse(registry.get(a).cost(now) <= registry.get(b).cost(now) ? a : b);
+    }
+
+    private List<ServiceInstance> eligible(List<ServiceInstance> instances, long now) {
+        List<ServiceInstance> eligible = null;
+        for (int i = 0; i < instances.size(); i++) {
+            ServiceInstance instance = instances.get(i);
+            boolean ejected = registry.get(instance).isEjected(now);
+            if (ejected && eligible == null) {
+                eligible = new ArrayList<>(instances.subList(0, i));
+            } else if (!ejected && eligible != null) {
+                eligible.add(instance);
+            }
+        }
+        if (eligible == null) {
+            return instances;
+        }
+        if (eligible.isEmpty()) {
+            log.warn("All instances of {} are ejected, ignoring ejection", serviceId);
+            return instances;
+        }
+        return eligible;
+    }
+
+    private void retainIfDue(List<ServiceInstance> instances, long now) {
+        long due = nextRetainNanos.get();
+        if (now - due >= 0 && nextRetainNanos.compareAndSet(due, now + RETAIN_INTERVAL_NANOS)) {
+            registry.retain(serviceId, instances);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.atlas.common.loadbalancer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InstanceStatsLifecycleTest {
+
+    private final InstanceStatsRegistry registry = new InstanceStatsRegistry(
+            new SimpleMeterRegistry(), Duration.ofSeconds(10), 5, Duration.ofSeconds(30), Duration.ofMinutes(5));
+    private final InstanceStatsLifecycle lifecycle = new InstanceStatsLifecycle(registry);
+
+    private final ServiceInstance instance =
+            new DefaultServiceInstance("10.0.0.1:8082", "PRODUCT-SERVICE", "10.0.0.1", 8082, false);
+    private final Request<Object> request = new DefaultRequest<>(new RequestDataContext());
+    private final Response<ServiceInstance> response = new DefaultResponse(instance);
+
+    @Test
+    @DisplayName("Should release the in-flight slot of a discarded call without sampling it")
+    void onComplete_Discard_ReleasesSlot() {
+        lifecycle.onStartRequest(request, response);
+        assertThat(registry.get(instance).getInFlight()).isEqualTo(1);
+
+        lifecycle.onComplete(new CompletionContext<>(CompletionContext.Status.DISCARD, request, response));
+
+        assertThat(registry.get(instance).getInFlight()).isZero();
+        assertThat(registry.get(instance).getLatency(System.nanoTime())).isZero();
+    }
+
+    @Test
+    @DisplayName("Should sample a completed call")
+    void onComplete_Success_Samples() {
+        lifecycle.onStartRequest(request, response);
+
+        lifecycle.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, request, response));
+
+        assertThat(registry.get(instance).getInFlight()).isZero();
+        assertThat(registry.get(instance).getLatency(System.nanoTime())).isPositive();
+    }
+}
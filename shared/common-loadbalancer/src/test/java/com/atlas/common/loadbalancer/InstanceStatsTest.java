@@ -0,0 +1,98 @@
+package com.atlas.common.loadbalancer;
+
+import org.assertj.core.data.Percentage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InstanceStatsTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SECONDS = TimeUnit.SECONDS.toNanos(1);
+
+    private final InstanceStats stats = new InstanceStats(10 * SECONDS, 3, 30 * SECONDS, 120 * SECONDS);
+
+    @Test
+    @DisplayName("Should jump to a slower sample immediately")
+    void onComplete_SlowerSample_TakesPeak() {
+        long now = System.nanoTime();
+        complete(10 * MILLIS, false, now);
+        complete(200 * MILLIS, false, now + MILLIS);
+
+        assertThat(stats.getLatency(now + MILLIS)).isCloseTo(200 * MILLIS, withinPercent());
+    }
+
+    @Test
+    @DisplayName("Should decay towards faster samples over time")
+    void onComplete_FasterSamples_Decays() {
+        long now = System.nanoTime();
+        complete(200 * MILLIS, false, now);
+        complete(10 * MILLIS, false, now + 100 * MILLIS);
+
+        double latency = stats.getLatency(now + 100 * MILLIS);
+        assertThat(latency).isLessThan(200 * MILLIS).isGreaterThan(100 * MILLIS);
+
+        for (int i = 2; i <= 600; i++) {
+            complete(10 * MILLIS, false, now + i * 100 * MILLIS);
+        }
+        assertThat(stats.getLatency(now + 600 * 100 * MILLIS)).isCloseTo(10 * MILLIS, Percentage.withPercentage(10));
+    }
+
+    @Test
+    @DisplayName("Should weigh latency by requests in flight")
+    void cost_InFlight_ScalesLatency() {
+        long now = System.nanoTime();
+        complete(10 * MILLIS, false, now);
+        double idle = stats.cost(now);
+
+        stats.onStart();
+        stats.onStart();
+
+        assertThat(stats.cost(now)).isCloseTo(idle * 3, withinPercent());
+    }
+
+    @Test
+    @DisplayName("Should only admit one request at a time before the first sample")
+    void cost_Unsampled_PenalisesPending() {
+        long now = System.nanoTime();
+        assertThat(stats.cost(now)).isZero();
+
+        stats.onStart();
+
+        assertThat(stats.cost(now)).isGreaterThan(SECONDS * 1000.0);
+    }
+
+    @Test
+    @DisplayName("Should eject after consecutive failures and lengthen repeated ejections")
+    void onComplete_ConsecutiveFailures_Ejects() {
+        long now = System.nanoTime();
+        complete(MILLIS, true, now);
+        complete(MILLIS, false, now);
+        complete(MILLIS, true, now);
+        complete(MILLIS, true, now);
+        assertThat(stats.isEjected(now)).isFalse();
+
+        complete(MILLIS, true, now);
+        assertThat(stats.isEjected(now)).isTrue();
+        assertThat(stats.isEjected(now + 31 * SECONDS)).isFalse();
+
+        long later = now + 31 * SECONDS;
+        for (int i = 0; i < 3; i++) {
+            complete(MILLIS, true, later);
+        }
+        assertThat(stats.isEjected(later + 59 * SECONDS)).isTrue();
+        assertThat(stats.isEjected(later + 61 * SECONDS)).isFalse();
+    }
+
+    private void complete(long rttNanos, boolean failed, long now) {
+        stats.onStart();
+        stats.onComplete(rttNanos, failed, now);
+    }
+
+    private static Percentage withinPercent() {
+        return Percentage.withPercentage(1);
+    }
+}
@@ -0,0 +1,97 @@
+package com.atlas.common.loadbalancer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class PeakEwmaLoadBalancerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final InstanceStatsRegistry registry = new InstanceStatsRegistry(
+            meterRegistry, Duration.ofSeconds(10), 2, Duration.ofSeconds(30), Duration.ofMinutes(5));
+
+    @SuppressWarnings("unchecked")
+    private final PeakEwmaLoadBalancer loadBalancer = new PeakEwmaLoadBalancer(
+            mock(ObjectProvider.class), "product-service", registry);
+
+    private final ServiceInstance fast = instance("fast", 8081);
+    private final ServiceInstance slow = instance("slow", 8082);
+
+    @Test
+    @DisplayName("Should always prefer the faster of two instances")
+    void choose_TwoInstances_PicksLowerLatency() {
+        sample(fast, 10, false);
+        sample(slow, 500, false);
+
+        for (int i = 0; i < 50; i++) {
+            assertThat(loadBalancer.choose(List.of(fast, slow)).getServer()).isEqualTo(fast);
+        }
+    }
+
+    @Test
+    @DisplayName("Should shift load away from a busy instance")
+    void choose_FastInstanceSaturated_PicksOther() {
+        sample(fast, 10, false);
+        sample(slow, 30, false);
+        for (int i = 0; i < 5; i++) {
+            registry.get(fast).onStart();
+        }
+
+        assertThat(loadBalancer.choose(List.of(fast, slow)).getServer()).isEqualTo(slow);
+    }
+
+    @Test
+    @DisplayName("Should skip ejected instances unless all of them are ejected")
+    void choose_EjectedInstance_Skipped() {
+        sample(fast, 10, true);
+        sample(fast, 10, true);
+        sample(slow, 500, false);
+
+        assertThat(loadBalancer.choose(List.of(fast, slow)).getServer()).isEqualTo(slow);
+
+        sample(slow, 500, true);
+        sample(slow, 500, true);
+        Response<ServiceInstance> response = loadBalancer.choose(List.of(fast, slow));
+        assertThat(response.hasServer()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should return an empty response when no instances are registered")
+    void choose_NoInstances_Empty() {
+        assertThat(loadBalancer.choose(List.of()).hasServer()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should export per-instance gauges and drop them for departed instances")
+    void retain_DepartedInstance_RemovesMeters() {
+        sample(fast, 10, false);
+        sample(slow, 20, false);
+        assertThat(meterRegistry.find("loadbalancer.instance.latency").gauges()).hasSize(2);
+
+        registry.retain("PRODUCT-SERVICE", List.of(fast));
+
+        assertThat(meterRegistry.find("loadbalancer.instance.latency").gauges()).hasSize(1);
+        assertThat(meterRegistry.find("loadbalancer.instance.inflight").tag("instance", "slow:8082").gauge()).isNull();
+    }
+
+    private void sample(ServiceInstance instance, long rttMillis, boolean failed) {
+        InstanceStats stats = registry.get(instance);
+        stats.onStart();
+        stats.onComplete(TimeUnit.MILLISECONDS.toNanos(rttMillis), failed, System.nanoTime());
+    }
+
+    private static ServiceInstance instance(String host, int port) {
+        return new DefaultServiceInstance(host + ":" + port, "PRODUCT-SERVICE", host, port, false);
+    }
+}
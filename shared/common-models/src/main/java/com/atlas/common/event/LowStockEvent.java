@@ -0,0 +1,39 @@
+package com.atlas.common.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+import java.util.UUID;
+
+/**
+ * Event published when a product's available stock crosses its low-stock threshold.
+ */
+@Data
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class LowStockEvent extends BaseEvent {
+
+    private UUID productId;
+    private String productSku;
+    private String productName;
+    private Integer availableQuantity;
+    private Integer lowStockThreshold;
+
+    public static LowStockEvent create(UUID productId, String sku, String name,
+            int availableQuantity, int lowStockThreshold) {
+        LowStockEvent event = LowStockEvent.builder()
+                .productId(productId)
+                .productSku(sku)
+                .productName(name)
+                .availableQuantity(availableQuantity)
+                .lowStockThreshold(lowStockThreshold)
+                .build();
+        event.initializeEvent("LOW_STOCK", productId, "product-service");
+        return event;
+    }
+}
@@ -6,6 +6,7 @@ import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
 
+import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
 
@@ -52,7 +53,14 @@ public class NotificationEvent extends BaseEvent {
         LOW,
         NORMAL,
         HIGH,
-        URGENT
+        URGENT;
+
+        /**
+         * Routing key on {@code notification.exchange} for requests of this priority.
+         */
+        public String routingKey() {
+            return "notification." + name().toLowerCase(Locale.ROOT);
+        }
     }
 
     public static NotificationEvent orderConfirmation(UUID userId, String email,
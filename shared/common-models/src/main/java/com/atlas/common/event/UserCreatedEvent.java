@@ -0,0 +1,39 @@
+package com.atlas.common.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+import java.util.UUID;
+
+/**
+ * Event published when a new user registers.
+ */
+@Data
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class UserCreatedEvent extends BaseEvent {
+
+    private UUID userId;
+    private String email;
+    private String firstName;
+    private String lastName;
+    private String phoneNumber;
+
+    public static UserCreatedEvent create(UUID userId, String email, String firstName,
+            String lastName, String phoneNumber) {
+        UserCreatedEvent event = UserCreatedEvent.builder()
+                .userId(userId)
+                .email(email)
+                .firstName(firstName)
+                .lastName(lastName)
+                .phoneNumber(phoneNumber)
+                .build();
+        event.initializeEvent("USER_CREATED", userId, "user-service");
+        return event;
+    }
+}
@@ -78,6 +78,19 @@ class EventsTest {
         assertThat(event.getNewQuantity()).isEqualTo(95);
     }
 
+    @Test
+    @DisplayName("Should create user created event keyed by the user id")
+    void userCreatedEvent_Create() {
+        UUID userId = UUID.randomUUID();
+
+        UserCreatedEvent created = UserCreatedEvent.create(userId, "user@atlas.com", "Ada", "Lovelace", null);
+
+        assertThat(created.getEventType()).isEqualTo("USER_CREATED");
+        assertThat(created.getAggregateId()).isEqualTo(userId);
+        assertThat(created.getSource()).isEqualTo("user-service");
+        assertThat(created.getEmail()).isEqualTo("user@atlas.com");
+    }
+
     @Test
     @DisplayName("Should create notification event with factory method")
     void notificationEvent_OrderConfirmation() {
@@ -114,6 +127,13 @@ class EventsTest {
                 NotificationEvent.NotificationChannel.ALL);
     }
 
+    @Test
+    @DisplayName("Notification priorities route to their own keys")
+    void notificationPriority_RoutingKey() {
+        assertThat(NotificationEvent.Priority.URGENT.routingKey()).isEqualTo("notification.urgent");
+        assertThat(NotificationEvent.Priority.LOW.routingKey()).isEqualTo("notification.low");
+    }
+
     @Test
     @DisplayName("Payment status enum values")
     void paymentStatus_Values() {
@@ -0,0 +1,24 @@
+package com.atlas.common.security;
+
+import java.security.PrivateKey;
+import java.security.PublicKey;
+
+/**
+ * Asymmetric keys for signing and verifying tokens, identified by {@code kid}.
+ * Implemented by the service that issues tokens; verifiers only need public keys.
+ */
+public interface JwtKeySource {
+
+    /**
+     * Key new tokens are signed with.
+     */
+    SigningKey currentSigningKey();
+
+    /**
+     * Public key for a key id, or {@code null} if the id is unknown.
+     */
+    PublicKey verificationKey(String kid);
+
+    record SigningKey(String kid, PrivateKey privateKey) {
+    }
+}
@@ -1,13 +1,12 @@
 package com.atlas.common.security;
 
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
+import java.security.Key;
 import java.util.Date;
 import java.util.Map;
 import java.util.UUID;
@@ -15,13 +14,21 @@ import java.util.function.Function;
 
 /**
  * Utility class for JWT token generation and validation.
+ *
+ * Tokens are signed with ES256 by the current key of the {@link JwtKeySource} and carry
+ * its {@code kid}; verification looks the public key up by that {@code kid}, so keys can
+ * rotate while tokens signed with older ones stay valid. Services that neither issue
+ * nor verify tokens need no key source.
  */
 @Slf4j
 @Component
 public class JwtTokenProvider {
 
-    @Value("${atlas.jwt.secret:atlas-super-secret-key-that-is-at-least-256-bits-long-for-hs256}")
-    private String jwtSecret;
+    /** Claim carrying the refresh token family a token was issued under. */
+    public static final String FAMILY_CLAIM = "fam";
+
+    @Autowired(required = false)
+    private JwtKeySource keySource;
 
     @Value("${atlas.jwt.expiration:86400000}")
     private long jwtExpiration; // 24 hours default
@@ -29,9 +36,40 @@ public class JwtTokenProvider {
     @Value("${atlas.jwt.refresh-expiration:604800000}")
     private long refreshExpiration; // 7 days default
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private volatile JwtParser parser;
+
+    private JwtKeySource keySource() {
+        if (keySource == null) {
+            throw new IllegalStateException("No JwtKeySource configured for signing or verifying tokens");
+        }
+        return keySource;
+    }
+
+    private JwtBuilder signedBuilder() {
+        JwtKeySource.SigningKey signingKey = keySource().currentSigningKey();
+        return Jwts.builder()
+                .header().keyId(signingKey.kid()).and()
+                .signWith(signingKey.privateKey(), Jwts.SIG.ES256);
+    }
+
+    private JwtParser parser() {
+        JwtParser current = parser;
+        if (current == null) {
+            current = Jwts.parser()
+                    .keyLocator(new LocatorAdapter<Key>() {
+                        @Override
+                        protected Key locate(JwsHeader header) {
+                            Key key = header.getKeyId() != null ? keySource().verificationKey(header.getKeyId()) : null;
+                            if (key == null) {
+                                throw new UnsupportedJwtException("Unknown signing key id: " + header.getKeyId());
+                            }
+                            return key;
+                        }
+                    })
+                    .build();
+            parser = current;
+        }
+        return current;
     }
 
     /**
@@ -48,14 +86,13 @@ public class JwtTokenProvider {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpiration);
 
-        return Jwts.builder()
+        return signedBuilder()
                 .claims(extraClaims)
                 .subject(userId.toString())
                 .claim("email", email)
                 .claim("role", role)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
                 .compact();
     }
 
@@ -66,15 +103,38 @@ public class JwtTokenProvider {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + refreshExpiration);
 
-        return Jwts.builder()
+        return signedBuilder()
                 .subject(userId.toString())
                 .claim("type", "refresh")
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
                 .compact();
     }
 
+    /**
+     * Generate a refresh token belonging to a rotation family.
+     *
+     * @param familyId id shared by every refresh token descended from one login
+     * @param tokenId  unique id of this token, stored as {@code jti}
+     */
+    public String generateRefreshToken(UUID userId, String familyId, String tokenId) {
+        Date now = new Date();
+        Date expiryDate = new Date(now.getTime() + refreshExpiration);
+
+        return signedBuilder()
+                .id(tokenId)
+                .subject(userId.toString())
+                .claim("type", "refresh")
+                .claim(FAMILY_CLAIM, familyId)
+                .issuedAt(now)
+                .expiration(expiryDate)
+                .compact();
+    }
+
+    public long getRefreshExpiration() {
+        return refreshExpiration;
+    }
+
     /**
      * Extract user ID from token.
      */
@@ -104,10 +164,7 @@ public class JwtTokenProvider {
      */
     public boolean validateToken(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
+            parser().parseSignedClaims(token);
             return true;
         } catch (SecurityException ex) {
             log.error("Invalid JWT signature: {}", ex.getMessage());
@@ -119,6 +176,8 @@ public class JwtTokenProvider {
             log.error("Unsupported JWT token: {}", ex.getMessage());
         } catch (IllegalArgumentException ex) {
             log.error("JWT claims string is empty: {}", ex.getMessage());
+        } catch (JwtException ex) {
+            log.error("Invalid JWT: {}", ex.getMessage());
         }
         return false;
     }
@@ -140,9 +199,7 @@ public class JwtTokenProvider {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
+        return parser()
                 .parseSignedClaims(token)
                 .getPayload();
     }
@@ -1,11 +1,16 @@
 package com.atlas.common.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.*;
@@ -13,13 +18,14 @@ import static org.assertj.core.api.Assertions.*;
 class JwtTokenProviderTest {
 
     private JwtTokenProvider jwtTokenProvider;
+    private TestKeySource keySource;
 
     @BeforeEach
     void setUp() {
         jwtTokenProvider = new JwtTokenProvider();
-        // Set a valid secret key (256+ bits for HS256)
-        String secret = "atlas-super-secret-key-that-is-at-least-256-bits-long-for-hs256-algorithm";
-        ReflectionTestUtils.setField(jwtTokenProvider, "jwtSecret", secret);
+        keySource = new TestKeySource();
+        keySource.rotate("key-1");
+        ReflectionTestUtils.setField(jwtTokenProvider, "keySource", keySource);
         ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpiration", 3600000L); // 1 hour
         ReflectionTestUtils.setField(jwtTokenProvider, "refreshExpiration", 604800000L); // 7 days
     }
@@ -50,6 +56,20 @@ class JwtTokenProviderTest {
         assertThat(jwtTokenProvider.validateToken(token)).isTrue();
     }
 
+    @Test
+    @DisplayName("Should carry family and token id in a rotating refresh token")
+    void generateRefreshToken_WithFamily_ContainsClaims() {
+        UUID userId = UUID.randomUUID();
+
+        String token = jwtTokenProvider.generateRefreshToken(userId, "family-1", "token-1");
+
+        Claims claims = jwtTokenProvider.extractClaim(token, c -> c);
+        assertThat(claims.getId()).isEqualTo("token-1");
+        assertThat(claims.get(JwtTokenProvider.FAMILY_CLAIM, String.class)).isEqualTo("family-1");
+        assertThat(claims.get("type", String.class)).isEqualTo("refresh");
+        assertThat(claims.getSubject()).isEqualTo(userId.toString());
+    }
+
     @Test
     @DisplayName("Should extract user ID from token")
     void getUserIdFromToken_Success() {
@@ -130,4 +150,48 @@ class JwtTokenProviderTest {
 
         assertThat(isExpired).isFalse();
     }
+
+    @Test
+    @DisplayName("Should sign with ES256 and the current key id")
+    void generateToken_SignsWithCurrentKey() {
+        String token = jwtTokenProvider.generateToken(UUID.randomUUID(), "test@example.com", "USER");
+
+        assertThat(Jwts.parser().verifyWith(keySource.keys.get("key-1")).build()
+                .parseSignedClaims(token).getHeader().getKeyId()).isEqualTo("key-1");
+    }
+
+    @Test
+    @DisplayName("Should keep verifying tokens of a previous key after rotation")
+    void validateToken_AfterRotation_VerifiesByKeyId() {
+        String before = jwtTokenProvider.generateToken(UUID.randomUUID(), "test@example.com", "USER");
+        keySource.rotate("key-2");
+        String after = jwtTokenProvider.generateToken(UUID.randomUUID(), "test@example.com", "USER");
+
+        assertThat(jwtTokenProvider.validateToken(before)).isTrue();
+        assertThat(jwtTokenProvider.validateToken(after)).isTrue();
+
+        keySource.keys.remove("key-1");
+        assertThat(jwtTokenProvider.validateToken(before)).isFalse();
+    }
+
+    private static final class TestKeySource implements JwtKeySource {
+        private final Map<String, PublicKey> keys = new HashMap<>();
+        private SigningKey current;
+
+        void rotate(String kid) {
+            KeyPair keyPair = Jwts.SIG.ES256.keyPair().build();
+            keys.put(kid, keyPair.getPublic());
+            current = new SigningKey(kid, keyPair.getPrivate());
+        }
+
+        @Override
+        public SigningKey currentSigningKey() {
+            return current;
+        }
+
+        @Override
+        public PublicKey verificationKey(String kid) {
+            return keys.get(kid);
+        }
+    }
 }